@@ -0,0 +1,99 @@
+package Dijkstras;
+
+import graph.CsrGraph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.GraphShapes;
+import benchmarks.Oracles;
+
+/**
+ * Full single source shortest path solves: DijkstraSolver.solve on each frontier queue, and parallel delta-stepping.
+ * Each invocation solves from the next of a fixed set of random sources. Before timing, the engine's distances from
+ * several sources are checked against Oracles.distances.
+ * @author sandasai
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DijkstraBenchmark {
+
+	private static final int SOURCES = 64;
+	private static final int CHECKED_SOURCES = 3;
+	private static final long DELTA = 50;
+
+	@Param({ "10000", "1000000" })
+	int size;
+
+	@Param({ "RANDOM", "GRID", "POWER_LAW" })
+	GraphShapes.Shape shape;
+
+	//a QueueType for DijkstraSolver, or DELTA_STEPPING
+	@Param({ "BINARY_HEAP", "FOUR_ARY_HEAP", "EIGHT_ARY_HEAP", "PAIRING_HEAP", "FIBONACCI_HEAP", "RADIX_HEAP", "DIAL",
+			"DELTA_STEPPING" })
+	String engine;
+
+	CsrGraph graph;
+	int[] sources;
+	int next;
+	DijkstraSolver solver;
+	DeltaStepping deltaStepping;
+
+	@Setup
+	public void setup() {
+		graph = GraphShapes.directed(shape, size, true, 7);
+		Random random = new Random(11);
+		sources = new int[SOURCES];
+		for (int i = 0; i < SOURCES; i++)
+			sources[i] = 1 + random.nextInt(graph.vertexCount() - 1);
+		if (engine.equals("DELTA_STEPPING"))
+			deltaStepping = new DeltaStepping(graph, DELTA);
+		else
+			solver = new DijkstraSolver(graph, QueueType.valueOf(engine));
+		for (int i = 0; i < CHECKED_SOURCES; i++) {
+			long[] expected = Oracles.distances(graph, sources[i]);
+			solve(sources[i]);
+			for (int v = 0; v < expected.length; v++)
+				Oracles.check(engine + " distance from " + sources[i] + " to " + v, expected[v], distance(v));
+		}
+	}
+
+	private void solve(int source) {
+		if (solver != null)
+			solver.solve(source);
+		else
+			deltaStepping.solve(source);
+	}
+
+	private long distance(int v) {
+		return solver != null ? solver.getDistance(v) : deltaStepping.getDistance(v);
+	}
+
+	/**
+	 * @return the distance to the last vertex, so the solve cannot be skipped
+	 */
+	@Benchmark
+	public long solve() {
+		int source = sources[next];
+		next = (next + 1) % SOURCES;
+		solve(source);
+		return distance(graph.vertexCount() - 1);
+	}
+}
@@ -0,0 +1,139 @@
+package Dijkstras;
+
+import graph.CsrGraph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Heap operations on their own: every vertex is inserted with a random priority, half of them get a smaller one, and then
+ * the heap is drained. The boxed MinHeap and DijkstraHeap are timed against the int vertex queues DijkstraSolver uses,
+ * and the gc profiler shows what the boxing allocates.
+ * MinHeap has no decrease-key and only does the inserts and removals. Priorities are distinct because MinHeap is keyed by them.
+ * Before timing, the heap's removal order is checked against a sort of the final priorities.
+ * @author sandasai
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeapBenchmark {
+
+	@Param({ "10000", "1000000" })
+	int size;
+
+	//MinHeap, DijkstraHeap or a QueueType. The monotone radix heap is valid here because all inserts and decreases come
+	//before the first removal; Dial's queue is left out since it needs priorities within one edge weight of each other
+	@Param({ "MinHeap", "DijkstraHeap", "BINARY_HEAP", "FOUR_ARY_HEAP", "EIGHT_ARY_HEAP", "PAIRING_HEAP", "FIBONACCI_HEAP",
+			"RADIX_HEAP" })
+	String heap;
+
+	long[] priorities;
+	int[] decreased;			//vertices that get a smaller priority
+	long[] decreasedPriorities;
+	VertexQueue vertexQueue;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		priorities = new long[size];
+		for (int v = 0; v < size; v++)
+			priorities[v] = 16L * v + 16;
+		for (int v = size - 1; v > 0; v--) {
+			int j = random.nextInt(v + 1);
+			long swap = priorities[v];
+			priorities[v] = priorities[j];
+			priorities[j] = swap;
+		}
+		decreased = new int[size / 2];
+		decreasedPriorities = new long[size / 2];
+		long[] finalPriorities = priorities.clone();
+		for (int i = 0; i < decreased.length; i++) {
+			//distinct vertices, so every decrease is below the vertex's current priority and stays distinct
+			decreased[i] = 2 * i + 1;
+			decreasedPriorities[i] = priorities[decreased[i]] - 1 - random.nextInt(15);
+			finalPriorities[decreased[i]] = decreasedPriorities[i];
+		}
+		if (heap.equals("MinHeap"))
+			finalPriorities = priorities;	//no decreases
+		else if (!heap.equals("DijkstraHeap"))
+			vertexQueue = QueueType.valueOf(heap).create(new CsrGraph(new int[size + 1], new int[0], null));
+		checkOrder(heap, finalPriorities, drain());
+	}
+
+	/**
+	 * @param finalPriorities priority of each vertex when it is removed
+	 * @param order vertices in the order the heap removed them
+	 */
+	private static void checkOrder(String engine, long[] finalPriorities, int[] order) {
+		long[] expected = finalPriorities.clone();
+		Arrays.sort(expected);
+		long[] actual = new long[order.length];
+		for (int i = 0; i < order.length; i++)
+			actual[i] = finalPriorities[order[i]];
+		if (!Arrays.equals(expected, actual))
+			throw new IllegalStateException(engine + " removed vertices out of priority order");
+	}
+
+	private int[] drainMinHeap() {
+		MinHeap<Long, Integer> minHeap = new MinHeap<Long, Integer>();
+		for (int v = 0; v < size; v++)
+			minHeap.put(priorities[v], v);
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++)
+			order[i] = minHeap.removeMin();
+		return order;
+	}
+
+	private int[] drainDijkstraHeap() {
+		DijkstraHeap<Long, Integer> dijkstraHeap = new DijkstraHeap<Long, Integer>();
+		for (int v = 0; v < size; v++)
+			dijkstraHeap.put(priorities[v], v);
+		for (int i = 0; i < decreased.length; i++)
+			dijkstraHeap.put(decreasedPriorities[i], decreased[i]);
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++)
+			order[i] = dijkstraHeap.removeMin().vertex;
+		return order;
+	}
+
+	private int[] drainVertexQueue() {
+		vertexQueue.clear();
+		for (int v = 0; v < size; v++)
+			vertexQueue.insert(v, priorities[v]);
+		for (int i = 0; i < decreased.length; i++)
+			vertexQueue.decreaseKey(decreased[i], decreasedPriorities[i]);
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++)
+			order[i] = vertexQueue.removeMin();
+		return order;
+	}
+
+	/**
+	 * @return vertices in removal order
+	 */
+	@Benchmark
+	public int[] drain() {
+		if (heap.equals("MinHeap"))
+			return drainMinHeap();
+		if (heap.equals("DijkstraHeap"))
+			return drainDijkstraHeap();
+		return drainVertexQueue();
+	}
+}
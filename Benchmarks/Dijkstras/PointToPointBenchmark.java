@@ -0,0 +1,110 @@
+package Dijkstras;
+
+import graph.CsrGraph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.GraphShapes;
+import benchmarks.Oracles;
+
+/**
+ * Single pair queries: DijkstraSolver stopping at the target against the bidirectional, ALT and contraction hierarchy
+ * engines. Preprocessing happens in setup and is not timed. Before timing, every engine answers a set of random pairs
+ * that are checked against Oracles.distances.
+ * Contraction hierarchies only pay off on road-like graphs; on the random and power law shapes building one takes minutes,
+ * so the engine is left out of the defaults and is run with -p engine=CONTRACTION_HIERARCHY -p shape=GRID.
+ * @author sandasai
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointToPointBenchmark {
+
+	private static final int PAIRS = 1024;
+	private static final int CHECKED_SOURCES = 4;
+	private static final int LANDMARKS = 16;
+
+	@Param({ "10000", "100000" })
+	int size;
+
+	@Param({ "RANDOM", "GRID", "POWER_LAW" })
+	GraphShapes.Shape shape;
+
+	//or CONTRACTION_HIERARCHY
+	@Param({ "DIJKSTRA", "BIDIRECTIONAL", "ALT" })
+	String engine;
+
+	CsrGraph graph;
+	int[] sources;
+	int[] targets;
+	int next;
+	DijkstraSolver solver;
+	int[] target = new int[1];
+	BidirectionalDijkstra bidirectional;
+	AltQuery alt;
+	HierarchyQuery hierarchy;
+
+	@Setup
+	public void setup() {
+		graph = GraphShapes.directed(shape, size, true, 7);
+		Random random = new Random(13);
+		sources = new int[PAIRS];
+		targets = new int[PAIRS];
+		for (int i = 0; i < PAIRS; i++) {
+			//a few sources with many targets each, so the oracle only solves a few trees
+			sources[i] = i < CHECKED_SOURCES ? 1 + random.nextInt(graph.vertexCount() - 1) : sources[i % CHECKED_SOURCES];
+			targets[i] = 1 + random.nextInt(graph.vertexCount() - 1);
+		}
+		if (engine.equals("DIJKSTRA"))
+			solver = new DijkstraSolver(graph);
+		else if (engine.equals("BIDIRECTIONAL"))
+			bidirectional = new BidirectionalDijkstra(graph);
+		else if (engine.equals("ALT"))
+			alt = new AltQuery(graph, Landmarks.farthest(graph, LANDMARKS, 17));
+		else
+			hierarchy = new HierarchyQuery(ContractionHierarchy.build(graph));
+		for (int s = 0; s < CHECKED_SOURCES; s++) {
+			long[] expected = Oracles.distances(graph, sources[s]);
+			for (int i = s; i < PAIRS; i += CHECKED_SOURCES)
+				Oracles.check(engine + " distance from " + sources[i] + " to " + targets[i], expected[targets[i]],
+						query(sources[i], targets[i]));
+		}
+	}
+
+	private long query(int source, int target) {
+		if (solver != null) {
+			this.target[0] = target;
+			solver.solve(source, this.target, DijkstraSolver.UNREACHED);
+			return solver.getDistance(target);
+		}
+		if (bidirectional != null)
+			return bidirectional.query(source, target);
+		if (alt != null)
+			return alt.query(source, target);
+		return hierarchy.query(source, target);
+	}
+
+	@Benchmark
+	public long query() {
+		int i = next;
+		next = (next + 1) % PAIRS;
+		return query(sources[i], targets[i]);
+	}
+}
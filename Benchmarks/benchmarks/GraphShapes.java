@@ -0,0 +1,134 @@
+package benchmarks;
+
+import graph.CsrGraph;
+import graph.Graph;
+import graph.NeighborCursor;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Seeded graph generators for the benchmarks. Vertices are numbered 1..n like the text input files, so vertex 0 exists
+ * but has no edges. Every shape has about 4 edges per vertex so sizes are comparable across shapes.
+ * @author sandasai
+ *
+ */
+public class GraphShapes {
+
+	/**
+	 * Shapes a benchmark can be parameterized with
+	 */
+	public enum Shape {
+		/** every vertex has 4 edges to uniformly random vertices */
+		RANDOM,
+		/** square grid with edges both ways between neighbors, a long diameter like a road network */
+		GRID,
+		/** 4 edges per vertex to targets skewed towards low ids, so a few vertices have very high in-degree */
+		POWER_LAW
+	}
+
+	static final int DEGREE = 4;
+	static final int MAX_WEIGHT = 100;
+
+	private GraphShapes() {
+	}
+
+	/**
+	 * @param shape
+	 * @param vertices number of vertices n, a grid is rounded down to a square
+	 * @param weighted true to give every edge a weight in 1..100
+	 * @param seed
+	 * @return a directed graph on vertices 1..n
+	 */
+	public static CsrGraph directed(Shape shape, int vertices, boolean weighted, long seed) {
+		return generate(shape, vertices, weighted, false, seed);
+	}
+
+	/**
+	 * @param shape
+	 * @param vertices number of vertices n, a grid is rounded down to a square
+	 * @param seed
+	 * @return an unweighted graph on vertices 1..n where every edge is listed from both ends, without self loops
+	 */
+	public static CsrGraph undirected(Shape shape, int vertices, long seed) {
+		return generate(shape, vertices, false, true, seed);
+	}
+
+	private static CsrGraph generate(Shape shape, int vertices, boolean weighted, boolean undirected, long seed) {
+		Random random = new Random(seed);
+		CsrGraph.Builder builder = new CsrGraph.Builder(weighted);
+		if (shape == Shape.GRID) {
+			int side = Math.max(1, (int) Math.sqrt(vertices));
+			builder.addVertex(side * side);
+			for (int row = 0; row < side; row++) {
+				for (int column = 0; column < side; column++) {
+					int v = row * side + column + 1;
+					//each pair is added once from either end, both directions are added by addEdges
+					if (column + 1 < side)
+						addEdges(builder, v, v + 1, weighted, true, random);
+					if (row + 1 < side)
+						addEdges(builder, v, v + side, weighted, true, random);
+				}
+			}
+			return builder.build();
+		}
+		builder.addVertex(vertices);
+		for (int v = 1; v <= vertices; v++) {
+			for (int i = 0; i < DEGREE; i++) {
+				int target;
+				if (shape == Shape.RANDOM)
+					target = 1 + random.nextInt(vertices);
+				else
+					target = 1 + (int) (vertices * Math.pow(random.nextDouble(), 3));
+				if (undirected && target == v)
+					continue;
+				addEdges(builder, v, target, weighted, undirected, random);
+			}
+		}
+		return builder.build();
+	}
+
+	private static void addEdges(CsrGraph.Builder builder, int u, int v, boolean weighted, boolean bothWays, Random random) {
+		if (weighted) {
+			builder.addEdge(u, v, 1 + random.nextInt(MAX_WEIGHT));
+			if (bothWays)
+				builder.addEdge(v, u, 1 + random.nextInt(MAX_WEIGHT));
+		} else {
+			builder.addEdge(u, v);
+			if (bothWays)
+				builder.addEdge(v, u);
+		}
+	}
+
+	/**
+	 * Writes a graph in the text formats the programs read: "vertex destination,weight ..." for a weighted graph and
+	 * "vertex toVertex ..." otherwise. Every vertex from 1 on gets a row, even without edges.
+	 * @param graph
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void writeText(Graph graph, File file) throws IOException {
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file), 1 << 16);
+		try {
+			NeighborCursor cursor = graph.cursor();
+			for (int v = 1; v < graph.vertexCount(); v++) {
+				writer.write(Integer.toString(v));
+				cursor.reset(v);
+				while (cursor.next()) {
+					writer.write(graph.isWeighted() ? "\t" : " ");
+					writer.write(Integer.toString(cursor.target()));
+					if (graph.isWeighted()) {
+						writer.write(',');
+						writer.write(Integer.toString(cursor.weight()));
+					}
+				}
+				writer.newLine();
+			}
+		} finally {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package benchmarks;
+
+import graph.Graph;
+import graph.NeighborCursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Plain textbook implementations the benchmarked engines are checked against before they are timed, so a faster engine
+ * that returns wrong answers fails the run instead of reporting a speedup. They favor being obviously correct over speed.
+ * @author sandasai
+ *
+ */
+public class Oracles {
+
+	public static final long UNREACHED = Long.MAX_VALUE;
+
+	private Oracles() {
+	}
+
+	/**
+	 * Dijkstra with java.util.PriorityQueue and lazy deletion
+	 * @param graph weighted graph
+	 * @param source
+	 * @return distance to every vertex, UNREACHED if there is no path
+	 */
+	public static long[] distances(Graph graph, int source) {
+		long[] distances = new long[graph.vertexCount()];
+		Arrays.fill(distances, UNREACHED);
+		distances[source] = 0;
+		PriorityQueue<long[]> queue = new PriorityQueue<long[]>(16, new Comparator<long[]>() {
+			public int compare(long[] a, long[] b) {
+				return Long.compare(a[0], b[0]);
+			}
+		});
+		queue.add(new long[] { 0, source });
+		NeighborCursor cursor = graph.cursor();
+		while (!queue.isEmpty()) {
+			long[] entry = queue.poll();
+			int v = (int) entry[1];
+			if (entry[0] > distances[v])
+				continue;
+			cursor.reset(v);
+			while (cursor.next()) {
+				long distance = entry[0] + cursor.weight();
+				if (distance < distances[cursor.target()]) {
+					distances[cursor.target()] = distance;
+					queue.add(new long[] { distance, cursor.target() });
+				}
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * Tarjan's algorithm with an explicit call stack
+	 * @param graph directed graph
+	 * @param min smallest vertex to include
+	 * @return the size of every strongly connected component among the vertices min and up, largest first
+	 */
+	public static List<Integer> componentSizes(Graph graph, int min) {
+		int n = graph.vertexCount();
+		int[] index = new int[n];
+		int[] low = new int[n];
+		boolean[] onStack = new boolean[n];
+		Arrays.fill(index, -1);
+		int[] stack = new int[n];
+		int stackSize = 0;
+		int[] callStack = new int[n];
+		int[] position = new int[n];	//how many out-edges of a vertex on the call stack have been followed
+		int counter = 0;
+		List<Integer> sizes = new ArrayList<Integer>();
+		NeighborCursor cursor = graph.cursor();
+		for (int root = min; root < n; root++) {
+			if (index[root] >= 0)
+				continue;
+			int depth = 0;
+			callStack[depth++] = root;
+			index[root] = low[root] = counter++;
+			stack[stackSize++] = root;
+			onStack[root] = true;
+			position[root] = 0;
+			while (depth > 0) {
+				int v = callStack[depth - 1];
+				cursor.reset(v);
+				int next = -1;
+				for (int i = 0; cursor.next(); i++) {
+					if (i < position[v])
+						continue;
+					position[v]++;
+					int w = cursor.target();
+					if (index[w] < 0) {
+						next = w;
+						break;
+					}
+					if (onStack[w])
+						low[v] = Math.min(low[v], index[w]);
+				}
+				if (next >= 0) {
+					index[next] = low[next] = counter++;
+					stack[stackSize++] = next;
+					onStack[next] = true;
+					position[next] = 0;
+					callStack[depth++] = next;
+					continue;
+				}
+				depth--;
+				if (depth > 0)
+					low[callStack[depth - 1]] = Math.min(low[callStack[depth - 1]], low[v]);
+				if (low[v] == index[v]) {
+					int size = 0;
+					int w;
+					do {
+						w = stack[--stackSize];
+						onStack[w] = false;
+						size++;
+					} while (w != v);
+					sizes.add(size);
+				}
+			}
+		}
+		Collections.sort(sizes, Collections.reverseOrder());
+		return sizes;
+	}
+
+	/**
+	 * Stoer-Wagner on an adjacency matrix, O(n^3) so only for small graphs
+	 * @param graph undirected graph with every edge listed from both ends
+	 * @return the number of edges in a minimum cut between the vertices that have edges, 0 if they are not connected
+	 */
+	public static int minCut(Graph graph) {
+		int[] vertices = new int[graph.vertexCount()];
+		int[] index = new int[graph.vertexCount()];
+		int n = 0;
+		for (int v = 0; v < graph.vertexCount(); v++) {
+			if (graph.degree(v) > 0) {
+				index[v] = n;
+				vertices[n++] = v;
+			}
+		}
+		int[][] weights = new int[n][n];
+		NeighborCursor cursor = graph.cursor();
+		for (int i = 0; i < n; i++) {
+			cursor.reset(vertices[i]);
+			while (cursor.next())
+				weights[i][index[cursor.target()]]++;
+		}
+		//merged[i] is false while i is still its own super vertex
+		boolean[] merged = new boolean[n];
+		int best = Integer.MAX_VALUE;
+		for (int phase = n; phase > 1; phase--) {
+			int[] connectivity = new int[n];
+			boolean[] added = new boolean[n];
+			int previous = -1;
+			int last = -1;
+			for (int step = 0; step < phase; step++) {
+				int next = -1;
+				for (int i = 0; i < n; i++) {
+					if (!merged[i] && !added[i] && (next < 0 || connectivity[i] > connectivity[next]))
+						next = i;
+				}
+				added[next] = true;
+				previous = last;
+				last = next;
+				for (int i = 0; i < n; i++)
+					connectivity[i] += weights[next][i];
+			}
+			best = Math.min(best, connectivity[last] - weights[last][last]);
+			//merge the last vertex added into the one before it
+			for (int i = 0; i < n; i++) {
+				weights[previous][i] += weights[last][i];
+				weights[i][previous] = weights[previous][i];
+			}
+			merged[last] = true;
+		}
+		return best == Integer.MAX_VALUE ? 0 : best;
+	}
+
+	/**
+	 * @param graph
+	 * @return every edge as "vertex target weight" rows, sorted, so graphs that list edges in a different order compare equal
+	 */
+	public static List<String> edges(Graph graph) {
+		List<String> edges = new ArrayList<String>();
+		NeighborCursor cursor = graph.cursor();
+		for (int v = 0; v < graph.vertexCount(); v++) {
+			cursor.reset(v);
+			while (cursor.next())
+				edges.add(v + " " + cursor.target() + " " + cursor.weight());
+		}
+		Collections.sort(edges);
+		edges.add("vertices " + graph.vertexCount());
+		return edges;
+	}
+
+	/**
+	 * Throws if an engine's answer differs from the oracle's
+	 * @param engine name of the engine for the message
+	 * @param expected
+	 * @param actual
+	 */
+	public static void check(String engine, Object expected, Object actual) {
+		if (!expected.equals(actual))
+			throw new IllegalStateException(engine + " disagrees with the oracle: expected " + expected + " but was " + actual);
+	}
+}
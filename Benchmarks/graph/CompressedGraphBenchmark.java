@@ -0,0 +1,75 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.GraphShapes;
+import benchmarks.Oracles;
+
+/**
+ * Cost of decoding a CompressedGraph against reading a CsrGraph: one walk over every edge, with gap coding only
+ * (window 0) and with reference compression (the default window). The compressed size of each is printed in setup,
+ * and before timing the compressed graph is compared edge by edge with the original.
+ * @author sandasai
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressedGraphBenchmark {
+
+	@Param({ "100000", "1000000" })
+	int size;
+
+	@Param({ "RANDOM", "GRID", "POWER_LAW" })
+	GraphShapes.Shape shape;
+
+	@Param({ "CSR", "GAPS", "REFERENCES" })
+	String representation;
+
+	Graph graph;
+
+	@Setup
+	public void setup() {
+		CsrGraph csr = GraphShapes.directed(shape, size, true, 7);
+		if (representation.equals("CSR")) {
+			graph = csr;
+			return;
+		}
+		CompressedGraph compressed = representation.equals("GAPS") ? CompressedGraph.compress(csr, 0, 0)
+				: CompressedGraph.compress(csr);
+		System.out.println(String.format("%s: %d bytes, %.2f bits per edge, CSR %d bytes", representation,
+				compressed.sizeInBytes(), compressed.bitsPerEdge(), 4L * (csr.vertexCount() + 1) + 8L * csr.edgeCount()));
+		Oracles.check(representation, Oracles.edges(csr), Oracles.edges(compressed));
+		graph = compressed;
+	}
+
+	/**
+	 * @return sum of the edge targets and weights
+	 */
+	@Benchmark
+	public long walk() {
+		NeighborCursor cursor = graph.cursor();
+		long sum = 0;
+		for (int v = 0; v < graph.vertexCount(); v++) {
+			cursor.reset(v);
+			while (cursor.next())
+				sum += cursor.target() + cursor.weight();
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,91 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.GraphShapes;
+import benchmarks.Oracles;
+
+/**
+ * Loading a weighted graph from disk and walking every edge once: TextGraphReader against ParallelTextParser on the
+ * same text file, and mapping the binary graph file. The walk makes the lazily paged binary file pay for its reads.
+ * The files are written to the temp directory in setup, and before timing every loader's graph is compared edge by
+ * edge with the generated one.
+ * @author sandasai
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoaderBenchmark {
+
+	@Param({ "100000", "1000000" })
+	int size;
+
+	@Param({ "RANDOM", "GRID", "POWER_LAW" })
+	GraphShapes.Shape shape;
+
+	@Param({ "TEXT", "PARALLEL_TEXT", "MAPPED_BINARY" })
+	String loader;
+
+	File file;
+
+	@Setup
+	public void setup() throws IOException {
+		CsrGraph graph = GraphShapes.directed(shape, size, true, 7);
+		if (loader.equals("MAPPED_BINARY")) {
+			file = File.createTempFile("graph", ".bin");
+			GraphFile.write(graph, file);
+		} else {
+			file = File.createTempFile("graph", ".txt");
+			GraphShapes.writeText(graph, file);
+		}
+		Oracles.check(loader, Oracles.edges(graph), Oracles.edges(load()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+
+	private Graph load() throws IOException {
+		if (loader.equals("TEXT"))
+			return TextGraphReader.readWeighted(file);
+		if (loader.equals("PARALLEL_TEXT"))
+			return new ParallelTextParser().parse(file, true);
+		return GraphFile.map(file);
+	}
+
+	/**
+	 * @return sum of the edge targets and weights
+	 */
+	@Benchmark
+	public long loadAndWalk() throws IOException {
+		Graph graph = load();
+		NeighborCursor cursor = graph.cursor();
+		long sum = 0;
+		for (int v = 0; v < graph.vertexCount(); v++) {
+			cursor.reset(v);
+			while (cursor.next())
+				sum += cursor.target() + cursor.weight();
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,129 @@
+package graph;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Dijkstras.DijkstraSolver;
+import benchmarks.GraphShapes;
+import benchmarks.Oracles;
+import stronglyConnectedComponents.Scc;
+
+/**
+ * A full Dijkstra solve and an int graph Scc solve on a graph whose ids were shuffled, like an input in arbitrary order,
+ * and then relabeled by each Relabeling order (NONE solves the shuffled graph as is). The time to compute the order
+ * is not included. Before timing, distances mapped back to the shuffled ids are checked against Oracles.distances,
+ * and component sizes against Oracles.componentSizes.
+ * @author sandasai
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RelabelingBenchmark {
+
+	@Param({ "100000", "1000000" })
+	int size;
+
+	@Param({ "RANDOM", "GRID", "POWER_LAW" })
+	GraphShapes.Shape shape;
+
+	//NONE or a Relabeling.Order
+	@Param({ "NONE", "DEGREE", "BFS", "RCM", "GORDER" })
+	String order;
+
+	Graph graph;
+	int source;
+	DijkstraSolver solver;
+	PrintStream discard;
+
+	@Setup
+	public void setup() {
+		CsrGraph generated = GraphShapes.directed(shape, size, true, 7);
+		int[] shuffle = new int[generated.vertexCount()];
+		for (int v = 0; v < shuffle.length; v++)
+			shuffle[v] = v;
+		Random random = new Random(11);
+		for (int v = shuffle.length - 1; v > 0; v--) {
+			int swap = random.nextInt(v + 1);
+			int vertex = shuffle[v];
+			shuffle[v] = shuffle[swap];
+			shuffle[swap] = vertex;
+		}
+		CsrGraph shuffled = Relabeling.fromOrder(shuffle).rewrite(generated);
+		Relabeling relabeling = null;
+		graph = shuffled;
+		if (!order.equals("NONE")) {
+			relabeling = Relabeling.of(shuffled, Relabeling.Order.valueOf(order));
+			graph = relabeling.rewrite(shuffled);
+		}
+		int original = 1 + random.nextInt(shuffled.vertexCount() - 1);
+		source = relabeling == null ? original : relabeling.toNew(original);
+		solver = new DijkstraSolver(graph);
+		discard = new PrintStream(new OutputStream() {
+			public void write(int b) {
+			}
+
+			public void write(byte[] b, int off, int len) {
+			}
+		});
+
+		long[] expected = Oracles.distances(shuffled, original);
+		solver.solve(source);
+		long[] distances = new long[graph.vertexCount()];
+		for (int v = 0; v < distances.length; v++)
+			distances[v] = solver.getDistance(v);
+		if (relabeling != null)
+			distances = relabeling.toOriginal(distances);
+		for (int v = 0; v < expected.length; v++)
+			Oracles.check(order + " distance to " + v, expected[v], distances[v]);
+		Oracles.check(order, largest(Oracles.componentSizes(shuffled, 0)), scc().getSizes());
+	}
+
+	/**
+	 * @return the five largest sizes, padded with zeros like solveAlternate reports them
+	 */
+	private static List<Integer> largest(List<Integer> sizes) {
+		List<Integer> sorted = new ArrayList<Integer>(sizes);
+		Collections.sort(sorted, Collections.reverseOrder());
+		while (sorted.size() < 5)
+			sorted.add(0);
+		return sorted.subList(0, 5);
+	}
+
+	/**
+	 * @return the distance to the last vertex, so the solve cannot be skipped
+	 */
+	@Benchmark
+	public long dijkstra() {
+		solver.solve(source);
+		return solver.getDistance(graph.vertexCount() - 1);
+	}
+
+	@Benchmark
+	public Scc scc() {
+		Scc scc = new Scc(graph, 0, graph.vertexCount() - 1);
+		scc.setOutput(discard);
+		scc.solveAlternate();
+		return scc;
+	}
+}
@@ -0,0 +1,59 @@
+package graph;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.GraphShapes;
+import benchmarks.Oracles;
+
+/**
+ * ParallelTranspose on 1 to 8 threads; the number of ranges is also capped by the average degree, so the power law
+ * and random shapes (4 edges per vertex) use at most 4. Before timing, transposing the transpose must give back the
+ * generated graph edge for edge.
+ * @author sandasai
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransposeBenchmark {
+
+	@Param({ "1000000", "10000000" })
+	int size;
+
+	@Param({ "RANDOM", "GRID", "POWER_LAW" })
+	GraphShapes.Shape shape;
+
+	@Param({ "1", "2", "4", "8" })
+	int threads;
+
+	CsrGraph graph;
+	ParallelTranspose transpose;
+
+	@Setup
+	public void setup() {
+		graph = GraphShapes.directed(shape, size, true, 7);
+		transpose = new ParallelTranspose(threads);
+		Oracles.check("transpose on " + threads + " threads", Oracles.edges(graph),
+				Oracles.edges(transpose.transpose(transpose.transpose(graph))));
+	}
+
+	@Benchmark
+	public CsrGraph transpose() {
+		return transpose.transpose(graph);
+	}
+}
@@ -0,0 +1,91 @@
+package kargerMinCut;
+
+import graph.CsrGraph;
+import graph.NeighborCursor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.GraphShapes;
+import benchmarks.Oracles;
+
+/**
+ * One trial of Karger's contraction: the HashMap adjacency list version against the union-find version on the int
+ * vertex graph. The adjacency list version destroys its graph, so its trials include rebuilding it from the text rows.
+ * A single trial finds the minimum cut only with low probability, so before timing each engine runs a number of trials
+ * and every one of them must be a cut at least as large as the exact minimum from Oracles.minCut.
+ * @author sandasai
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinCutBenchmark {
+
+	private static final int CHECKED_TRIALS = 50;
+
+	@Param({ "200", "1000" })
+	int size;
+
+	//power law graphs are left out because they are often disconnected
+	@Param({ "RANDOM", "GRID" })
+	GraphShapes.Shape shape;
+
+	@Param({ "ADJACENCY_LIST", "UNION_FIND" })
+	String engine;
+
+	List<String> rows;
+	MinCut unionFind;
+
+	@Setup
+	public void setup() {
+		CsrGraph graph = GraphShapes.undirected(shape, size, 7);
+		rows = new ArrayList<String>();
+		NeighborCursor cursor = graph.cursor();
+		for (int v = 1; v < graph.vertexCount(); v++) {
+			StringBuilder row = new StringBuilder(Integer.toString(v));
+			cursor.reset(v);
+			while (cursor.next())
+				row.append(' ').append(cursor.target());
+			rows.add(row.toString());
+		}
+		unionFind = new MinCut(graph);
+		int exact = Oracles.minCut(graph);
+		if (exact == 0)
+			throw new IllegalStateException("The " + shape + " graph is not connected");
+		for (int i = 0; i < CHECKED_TRIALS; i++) {
+			int cut = trial();
+			if (cut < exact)
+				throw new IllegalStateException(engine + " found a cut of " + cut + " below the minimum cut " + exact);
+		}
+	}
+
+	private int trial() {
+		if (engine.equals("UNION_FIND"))
+			return unionFind.solve();
+		MinCut adjacencyList = new MinCut();
+		adjacencyList.buildGraph(rows);
+		return adjacencyList.solve();
+	}
+
+	@Benchmark
+	public int trialCut() {
+		return trial();
+	}
+}
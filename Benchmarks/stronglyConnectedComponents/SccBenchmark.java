@@ -0,0 +1,131 @@
+package stronglyConnectedComponents;
+
+import graph.CsrGraph;
+import graph.NeighborCursor;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.GraphShapes;
+import benchmarks.Oracles;
+
+/**
+ * Kosaraju on the three code paths of Scc: the recursive solve and the iterative solveAlternate on the Hashtable
+ * adjacency list, and solveAlternate on the int vertex graph, against the single pass PearceScc and the multistep
+ * ParallelScc (with the default thread count) on the int vertex graph. ParallelScc builds its reverse graph in
+ * setup, like the Hashtable engines get their adjacency list there.
+ * The recursive solve needs a deep stack, so the fork gets one.
+ * Output goes to a stream that discards it. Before timing, the five largest component sizes are checked against
+ * Oracles.componentSizes.
+ * @author sandasai
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xss1g")
+public class SccBenchmark {
+
+	@Param({ "10000", "200000" })
+	int size;
+
+	@Param({ "RANDOM", "GRID", "POWER_LAW" })
+	GraphShapes.Shape shape;
+
+	@Param({ "RECURSIVE", "ITERATIVE", "INT_GRAPH", "PEARCE", "PARALLEL" })
+	String engine;
+
+	CsrGraph graph;
+	ParallelScc parallel;
+	Hashtable<Integer, List<Integer>> adjacency;
+	PrintStream discard;
+
+	@Setup
+	public void setup() {
+		graph = GraphShapes.directed(shape, size, false, 7);
+		adjacency = new Hashtable<Integer, List<Integer>>();
+		NeighborCursor cursor = graph.cursor();
+		for (int v = 1; v < graph.vertexCount(); v++) {
+			List<Integer> edges = new ArrayList<Integer>();
+			cursor.reset(v);
+			while (cursor.next())
+				edges.add(cursor.target());
+			adjacency.put(v, edges);
+		}
+		discard = new PrintStream(new OutputStream() {
+			public void write(int b) {
+			}
+
+			public void write(byte[] b, int off, int len) {
+			}
+		});
+		parallel = new ParallelScc(graph);
+		List<Integer> expected = Oracles.componentSizes(graph, 1);
+		Oracles.check(engine, largest(expected), largest(sizes(solve())));
+	}
+
+	/**
+	 * @return the five largest sizes, padded with zeros like solveAlternate reports them
+	 */
+	private static List<Integer> largest(List<Integer> sizes) {
+		List<Integer> sorted = new ArrayList<Integer>(sizes);
+		Collections.sort(sorted, Collections.reverseOrder());
+		while (sorted.size() < 5)
+			sorted.add(0);
+		return sorted.subList(0, 5);
+	}
+
+	/**
+	 * @return the sizes a solve found, all of them for PearceScc and ParallelScc, the five largest for Scc
+	 */
+	private static List<Integer> sizes(Object solved) {
+		if (solved instanceof Scc)
+			return ((Scc) solved).getSizes();
+		List<Integer> sizes = new ArrayList<Integer>();
+		for (int size : ((Components) solved).componentSizes())
+			sizes.add(size);
+		return sizes;
+	}
+
+	private Object solve() {
+		if (engine.equals("PEARCE"))
+			return new PearceScc(graph).solve(1, graph.vertexCount() - 1);
+		if (engine.equals("PARALLEL"))
+			return parallel.solve(1, graph.vertexCount() - 1);
+		Scc scc;
+		if (engine.equals("INT_GRAPH"))
+			scc = new Scc(graph, 1, graph.vertexCount() - 1);
+		else
+			scc = new Scc(adjacency, 1, graph.vertexCount() - 1);
+		scc.out = discard;
+		if (engine.equals("RECURSIVE"))
+			scc.solve();
+		else
+			scc.solveAlternate();
+		return scc;
+	}
+
+	@Benchmark
+	public Object components() {
+		return solve();
+	}
+}
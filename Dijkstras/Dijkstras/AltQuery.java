@@ -0,0 +1,48 @@
+package Dijkstras;
+
+import graph.Graph;
+
+/**
+ * Point to point shortest paths by A* search guided by landmark lower bounds (ALT).
+ * The search runs on DijkstraSolver with the landmark potential of the target, so it settles the vertices
+ * on the way to the target first and far fewer vertices overall than plain Dijkstra.
+ * The query is reusable; each query only resets the vertices the previous query touched.
+ * @author sandasai
+ *
+ */
+public class AltQuery {
+
+	private final Landmarks landmarks;
+	private final DijkstraSolver solver;
+
+	/**
+	 * @param graph weighted graph
+	 * @param landmarks tables built for this graph
+	 */
+	AltQuery(Graph graph, Landmarks landmarks) {
+		if (landmarks.vertexCount() != graph.vertexCount())
+			throw new IllegalArgumentException("The landmarks were built for a different graph");
+		this.landmarks = landmarks;
+		this.solver = new DijkstraSolver(graph);
+	}
+
+	/**
+	 * Computes the shortest distance from source to target
+	 * @param source
+	 * @param target
+	 * @return the distance, or DijkstraSolver.UNREACHED if there is no path
+	 */
+	public long query(int source, int target) {
+		if (target < 0 || target >= landmarks.vertexCount())
+			return DijkstraSolver.UNREACHED;
+		solver.solveTowards(source, target, landmarks.potential(target));
+		return solver.getDistance(target);
+	}
+
+	/**
+	 * @return the number of vertices settled by the last query
+	 */
+	public int getSettledCount() {
+		return solver.getSettledCount();
+	}
+}
@@ -0,0 +1,105 @@
+package Dijkstras;
+
+import graph.Graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shortest paths from many sources over one shared read-only graph, for distance matrices and centrality.
+ * Each worker thread owns a single DijkstraSolver, so its heap and distance arrays are reused for every source
+ * it takes, and each finished row is handed to a sink instead of being kept, so the full vertices x sources matrix
+ * never has to sit in memory.
+ * @author sandasai
+ *
+ */
+public class BatchShortestPaths {
+
+	/**
+	 * Receives the distances from one source. Called concurrently from the worker threads, so implementations must be thread safe.
+	 */
+	public interface DistanceSink {
+
+		/**
+		 * @param source
+		 * @param distances distance from the source to every vertex, DijkstraSolver.UNREACHED if there is no path.
+		 * The array belongs to the worker and is only valid, and must not be modified, during the call
+		 */
+		void accept(int source, long[] distances);
+	}
+
+	private final Graph graph;
+	private final int threads;
+	private final QueueType queueType;
+
+	/**
+	 * Creates a batch runner using every available core
+	 * @param graph weighted graph
+	 */
+	BatchShortestPaths(Graph graph) {
+		this(graph, Runtime.getRuntime().availableProcessors(), QueueType.FOUR_ARY_HEAP);
+	}
+
+	/**
+	 * @param graph weighted graph
+	 * @param threads number of worker threads
+	 * @param queueType frontier queue of each worker's solver
+	 */
+	BatchShortestPaths(Graph graph, int threads, QueueType queueType) {
+		if (!graph.isWeighted())
+			throw new IllegalArgumentException("Dijkstra needs a weighted graph");
+		if (threads < 1)
+			throw new IllegalArgumentException("Need at least one thread");
+		this.graph = graph;
+		this.threads = threads;
+		this.queueType = queueType;
+	}
+
+	/**
+	 * Solves every source and streams the results into the sink. Sources are handed out one at a time,
+	 * so rows arrive in no particular order. Returns once every source has been delivered.
+	 * @param sources
+	 * @param sink
+	 * @throws InterruptedException
+	 */
+	public void run(final int[] sources, final DistanceSink sink) throws InterruptedException {
+		final AtomicInteger nextSource = new AtomicInteger();
+		int workers = Math.min(threads, Math.max(sources.length, 1));
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < workers; i++) {
+				futures.add(pool.submit(new Callable<Void>() {
+					public Void call() {
+						DijkstraSolver solver = new DijkstraSolver(graph, queueType);
+						int i;
+						while ((i = nextSource.getAndIncrement()) < sources.length) {
+							solver.solve(sources[i]);
+							sink.accept(sources[i], solver.distances);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					//stop the other workers from taking more sources
+					nextSource.set(sources.length);
+					if (e.getCause() instanceof RuntimeException)
+						throw (RuntimeException) e.getCause();
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package Dijkstras;
+
+import graph.CsrGraph;
+import graph.Graph;
+import graph.NeighborCursor;
+
+import java.util.Arrays;
+
+/**
+ * Point to point shortest paths that grow one Dijkstra frontier forward from the source and one
+ * backward from the target over the transposed graph, stopping when the frontiers provably cannot
+ * improve the best meeting path. Settles far fewer vertices than a one-sided search on large sparse graphs.
+ * The solver is reusable; each query only resets the vertices the previous query touched.
+ * @author sandasai
+ *
+ */
+public class BidirectionalDijkstra {
+
+	private final Side forward;
+	private final Side backward;
+
+	/**
+	 * @param graph weighted graph, its transpose is built once here
+	 */
+	BidirectionalDijkstra(Graph graph) {
+		this(graph, CsrGraph.transpose(graph));
+	}
+
+	/**
+	 * @param graph weighted graph
+	 * @param reversed transpose of graph, so it can be shared between solvers
+	 */
+	BidirectionalDijkstra(Graph graph, Graph reversed) {
+		if (!graph.isWeighted() || !reversed.isWeighted())
+			throw new IllegalArgumentException("Dijkstra needs a weighted graph");
+		if (graph.vertexCount() != reversed.vertexCount())
+			throw new IllegalArgumentException("The reversed graph has a different number of vertices");
+		forward = new Side(graph);
+		backward = new Side(reversed);
+	}
+
+	/**
+	 * Computes the shortest distance from source to target
+	 * @param source
+	 * @param target
+	 * @return the distance, or DijkstraSolver.UNREACHED if there is no path
+	 */
+	public long query(int source, int target) {
+		forward.reset();
+		backward.reset();
+		int n = forward.distances.length;
+		if (source < 0 || source >= n || target < 0 || target >= n)
+			return DijkstraSolver.UNREACHED;
+		if (source == target)
+			return 0;
+		forward.start(source);
+		backward.start(target);
+		long best = DijkstraSolver.UNREACHED;
+		while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+			long forwardMin = forward.heap.minPriority();
+			long backwardMin = backward.heap.minPriority();
+			//every path not yet seen is at least as long as the two frontier minimums together
+			if (forwardMin + backwardMin >= best)
+				break;
+			if (forwardMin <= backwardMin)
+				best = forward.settleNext(backward, best);
+			else
+				best = backward.settleNext(forward, best);
+		}
+		return best;
+	}
+
+	/**
+	 * @return the number of vertices settled by both searches in the last query
+	 */
+	public int getSettledCount() {
+		return forward.settledCount + backward.settledCount;
+	}
+
+	/**
+	 * One direction of the search
+	 */
+	private static class Side {
+		final NeighborCursor cursor;
+		final long[] distances;
+		final boolean[] settled;
+		final IndexedDHeap heap;
+		int[] touched = new int[16];
+		int touchedCount;
+		int settledCount;
+
+		Side(Graph graph) {
+			int n = graph.vertexCount();
+			cursor = graph.cursor();
+			distances = new long[n];
+			settled = new boolean[n];
+			heap = new IndexedDHeap(n);
+			Arrays.fill(distances, DijkstraSolver.UNREACHED);
+		}
+
+		void start(int vertex) {
+			distances[vertex] = 0;
+			touch(vertex);
+			heap.insert(vertex, 0);
+		}
+
+		/**
+		 * Settles the closest vertex of this side and relaxes its edges
+		 * @param other - the opposite search
+		 * @param best - shortest source to target path found so far
+		 * @return the shortest path found so far, including paths meeting at the edges just relaxed
+		 */
+		long settleNext(Side other, long best) {
+			int vertex = heap.removeMin();
+			settled[vertex] = true;
+			settledCount++;
+			long distance = distances[vertex];
+			cursor.reset(vertex);
+			while (cursor.next()) {
+				int to = cursor.target();
+				long candidate = distance + cursor.weight();
+				if (!settled[to] && candidate < distances[to]) {
+					if (distances[to] == DijkstraSolver.UNREACHED) {
+						heap.insert(to, candidate);
+						touch(to);
+					} else {
+						heap.decreaseKey(to, candidate);
+					}
+					distances[to] = candidate;
+				}
+				//the edge joins the two searches
+				if (other.distances[to] != DijkstraSolver.UNREACHED && candidate + other.distances[to] < best)
+					best = candidate + other.distances[to];
+			}
+			return best;
+		}
+
+		private void touch(int v) {
+			if (touchedCount == touched.length)
+				touched = Arrays.copyOf(touched, touchedCount * 2);
+			touched[touchedCount++] = v;
+		}
+
+		void reset() {
+			for (int i = 0; i < touchedCount; i++) {
+				distances[touched[i]] = DijkstraSolver.UNREACHED;
+				settled[touched[i]] = false;
+			}
+			touchedCount = 0;
+			settledCount = 0;
+			heap.clear();
+		}
+	}
+}
@@ -0,0 +1,461 @@
+package Dijkstras;
+
+import graph.ChannelBuffer;
+import graph.CsrGraph;
+import graph.Graph;
+import graph.NeighborCursor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Contraction hierarchy index for point to point shortest path queries.
+ * Vertices are contracted one at a time, cheapest first by edge difference (shortcuts added minus edges removed).
+ * Contracting a vertex v adds a shortcut u -> w for each pair of remaining neighbors u -> v -> w unless a local witness
+ * search finds a path from u to w avoiding v that is no longer. Every shortest path then has a shortest equivalent that only
+ * climbs in contraction order and then only descends, so HierarchyQuery answers it with two small upward searches.
+ * <pre>
+ * offset  size                   field
+ * 0       4                      magic "CHIX"
+ * 4       4                      version (2)
+ * 8       4                      vertex count n
+ * 12      8                      edge count of the graph the index was built from
+ * 20      8                      checksum of that graph's offsets, targets and weights
+ * 28      4                      upward edge count a
+ * 32      4                      downward edge count b
+ * 36      4 * n                  contraction rank of each vertex
+ * ...     4 * (n + 1)            upward edge offsets
+ * ...     4 * a                  upward edge targets
+ * ...     4 * a                  upward edge weights
+ * ...     4 * (n + 1), 4 * b, 4 * b   the same for the reversed downward edges
+ * </pre>
+ * @author sandasai
+ *
+ */
+public class ContractionHierarchy {
+
+	static final int MAGIC = 0x58494843; //"CHIX" read as a little-endian int
+	static final int VERSION = 2;
+	static final int HEADER_BYTES = 36;
+
+	//witness searches give up after settling this many vertices and add the shortcut, which is never wrong, only redundant.
+	//Estimating priorities runs far more searches than contracting, so it uses a cheaper limit
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+	private static final int ESTIMATE_SETTLE_LIMIT = 50;
+
+	private final int[] rank;
+
+	//edge count and checksum of the graph the index was built from, so a stale index file is not used for another graph
+	private final long graphEdgeCount;
+	private final long graphChecksum;
+
+	//edges u -> v with rank[v] > rank[u], original or shortcut
+	private final CsrGraph upward;
+
+	//edges u -> v with rank[u] > rank[v], stored reversed at v, so the backward search also only climbs
+	private final CsrGraph downwardReversed;
+
+	private ContractionHierarchy(int[] rank, long graphEdgeCount, long graphChecksum, CsrGraph upward, CsrGraph downwardReversed) {
+		this.rank = rank;
+		this.graphEdgeCount = graphEdgeCount;
+		this.graphChecksum = graphChecksum;
+		this.upward = upward;
+		this.downwardReversed = downwardReversed;
+	}
+
+	/**
+	 * Contracts every vertex of a graph
+	 * @param graph weighted graph
+	 * @return the index
+	 */
+	public static ContractionHierarchy build(Graph graph) {
+		if (!graph.isWeighted())
+			throw new IllegalArgumentException("Contraction hierarchies need a weighted graph");
+		return new Contraction(graph).run(graph.edgeCount(), checksum(graph));
+	}
+
+	/**
+	 * Hashes the adjacency lists of a graph in order: each vertex's degree, then its targets and weights.
+	 * Equal for the same graph whatever its representation, text, binary or compressed
+	 * @param graph
+	 * @return the checksum
+	 */
+	static long checksum(Graph graph) {
+		long hash = graph.vertexCount();
+		NeighborCursor cursor = graph.cursor();
+		for (int u = 0; u < graph.vertexCount(); u++) {
+			cursor.reset(u);
+			int degree = 0;
+			while (cursor.next()) {
+				hash = hash * 31 + cursor.target();
+				hash = hash * 31 + cursor.weight();
+				degree++;
+			}
+			hash = hash * 1000003 + degree;
+		}
+		return hash;
+	}
+
+	public int vertexCount() {
+		return rank.length;
+	}
+
+	/**
+	 * @param v
+	 * @return position of v in the contraction order
+	 */
+	public int rank(int v) {
+		return rank[v];
+	}
+
+	/**
+	 * @return the number of upward and downward edges, shortcuts included
+	 */
+	public long edgeCount() {
+		return upward.edgeCount() + downwardReversed.edgeCount();
+	}
+
+	Graph upward() {
+		return upward;
+	}
+
+	Graph downwardReversed() {
+		return downwardReversed;
+	}
+
+	/**
+	 * Writes the index to a file
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save(File file) throws IOException {
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			output.setLength(0);
+			ChannelBuffer buffer = ChannelBuffer.writer(output.getChannel());
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(rank.length).putLong(graphEdgeCount).putLong(graphChecksum)
+					.putInt((int) upward.edgeCount()).putInt((int) downwardReversed.edgeCount());
+			buffer.putInts(rank);
+			for (CsrGraph half : new CsrGraph[] { upward, downwardReversed })
+				buffer.putInts(half.offsets()).putInts(half.targets()).putInts(half.weights());
+			buffer.flush();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Reads an index written by save
+	 * @param file
+	 * @param graph the graph the index belongs to
+	 * @return the index
+	 * @throws IOException if the file is not a contraction hierarchy file or was built for a different graph
+	 */
+	public static ContractionHierarchy load(File file, Graph graph) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			ChannelBuffer buffer = ChannelBuffer.reader(channel, "contraction hierarchy file: " + file);
+			if (buffer.getInt() != MAGIC)
+				throw new IOException("Not a contraction hierarchy file: " + file);
+			int version = buffer.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported contraction hierarchy file version " + version + ": " + file);
+			int n = buffer.getInt();
+			long m = buffer.getLong();
+			long checksum = buffer.getLong();
+			int up = buffer.getInt();
+			int down = buffer.getInt();
+			if (n != graph.vertexCount() || m != graph.edgeCount() || checksum != checksum(graph))
+				throw new IOException("Contraction hierarchy file was built for a different graph: " + file);
+			if (n < 0 || up < 0 || down < 0 || channel.size() != HEADER_BYTES + 4L * (3L * n + 2 + 2L * up + 2L * down))
+				throw new IOException("Contraction hierarchy file size does not match its header: " + file);
+			int[] rank = new int[n];
+			buffer.getInts(rank);
+			CsrGraph[] halves = new CsrGraph[2];
+			int[] sizes = new int[] { up, down };
+			for (int i = 0; i < 2; i++) {
+				int[] offsets = new int[n + 1];
+				int[] targets = new int[sizes[i]];
+				int[] weights = new int[sizes[i]];
+				buffer.getInts(offsets);
+				buffer.getInts(targets);
+				buffer.getInts(weights);
+				halves[i] = new CsrGraph(offsets, targets, weights);
+			}
+			return new ContractionHierarchy(rank, m, checksum, halves[0], halves[1]);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * State of one build: the remaining graph as growable in and out adjacency lists, plus the witness search
+	 */
+	private static class Contraction {
+		final int n;
+		final int[][] outTargets;
+		final int[][] outWeights;
+		final int[] outSizes;
+		final int[][] inTargets;
+		final int[][] inWeights;
+		final int[] inSizes;
+		final boolean[] contracted;
+
+		//number of contracted neighbors of each vertex, spreads contraction evenly over the graph
+		final int[] deletedNeighbors;
+
+		//neighbor updates made for the current contraction, so a vertex linked both ways is only counted once
+		final int[] lastUpdate;
+		int updateStamp;
+
+		//witness search state, reset through the touched list
+		final long[] distances;
+		final IndexedDHeap heap;
+		int[] touched = new int[16];
+		int touchedCount;
+
+		//edges recorded for the index as vertices are contracted
+		final CsrGraph.Builder upward;
+		final CsrGraph.Builder downwardReversed;
+
+		Contraction(Graph graph) {
+			n = graph.vertexCount();
+			outTargets = new int[n][];
+			outWeights = new int[n][];
+			outSizes = new int[n];
+			inTargets = new int[n][];
+			inWeights = new int[n][];
+			inSizes = new int[n];
+			contracted = new boolean[n];
+			deletedNeighbors = new int[n];
+			lastUpdate = new int[n];
+			Arrays.fill(lastUpdate, -1);
+			distances = new long[n];
+			Arrays.fill(distances, DijkstraSolver.UNREACHED);
+			heap = new IndexedDHeap(n);
+			for (int v = 0; v < n; v++) {
+				outTargets[v] = new int[4];
+				outWeights[v] = new int[4];
+				inTargets[v] = new int[4];
+				inWeights[v] = new int[4];
+			}
+			NeighborCursor cursor = graph.cursor();
+			for (int u = 0; u < n; u++) {
+				cursor.reset(u);
+				while (cursor.next())
+					addEdge(u, cursor.target(), cursor.weight());
+			}
+			upward = new CsrGraph.Builder(true);
+			downwardReversed = new CsrGraph.Builder(true);
+			if (n > 0) {
+				upward.addVertex(n - 1);
+				downwardReversed.addVertex(n - 1);
+			}
+		}
+
+		/**
+		 * @param graphEdgeCount edge count of the graph being contracted, recorded in the index
+		 * @param graphChecksum its checksum, recorded in the index
+		 */
+		ContractionHierarchy run(long graphEdgeCount, long graphChecksum) {
+			//vertices keyed by edge difference, updated lazily
+			IndexedDHeap order = new IndexedDHeap(n);
+			for (int v = 0; v < n; v++)
+				order.insert(v, priority(v));
+			int[] rank = new int[n];
+			int next = 0;
+			while (!order.isEmpty()) {
+				int v = order.removeMin();
+				//neighbors contracted since v was keyed may have made it more expensive
+				long current = priority(v);
+				if (!order.isEmpty() && current > order.minPriority()) {
+					order.insert(v, current);
+					continue;
+				}
+				rank[v] = next++;
+				contract(v);
+				updateStamp++;
+				for (int i = 0; i < outSizes[v]; i++)
+					update(order, outTargets[v][i]);
+				for (int i = 0; i < inSizes[v]; i++)
+					update(order, inTargets[v][i]);
+			}
+			return new ContractionHierarchy(rank, graphEdgeCount, graphChecksum, upward.build(), downwardReversed.build());
+		}
+
+		/**
+		 * Counts a contracted neighbor. Its shortcuts changed too, but recomputing them for every neighbor of every
+		 * contracted vertex dominates the build once the remaining graph gets dense, so that is left to the lazy check
+		 */
+		private void update(IndexedDHeap order, int neighbor) {
+			if (contracted[neighbor] || lastUpdate[neighbor] == updateStamp)
+				return;
+			lastUpdate[neighbor] = updateStamp;
+			deletedNeighbors[neighbor]++;
+			order.put(neighbor, order.priority(neighbor) + 1);
+		}
+
+		/**
+		 * Edge difference of contracting v now, plus its contracted neighbors
+		 */
+		private long priority(int v) {
+			return (long) shortcuts(v, false) - outSizes[v] - inSizes[v] + deletedNeighbors[v];
+		}
+
+		/**
+		 * Records the remaining edges of v in the index and removes v from the graph, adding the shortcuts it needs.
+		 * Contracted vertices are unlinked from their neighbors, so the adjacency lists only ever hold remaining vertices
+		 */
+		private void contract(int v) {
+			for (int i = 0; i < outSizes[v]; i++)
+				upward.addEdge(v, outTargets[v][i], outWeights[v][i]);
+			for (int i = 0; i < inSizes[v]; i++)
+				downwardReversed.addEdge(v, inTargets[v][i], inWeights[v][i]);
+			shortcuts(v, true);
+			contracted[v] = true;
+			for (int i = 0; i < outSizes[v]; i++) {
+				int w = outTargets[v][i];
+				inSizes[w] = unlink(inTargets[w], inWeights[w], inSizes[w], v);
+			}
+			for (int i = 0; i < inSizes[v]; i++) {
+				int u = inTargets[v][i];
+				outSizes[u] = unlink(outTargets[u], outWeights[u], outSizes[u], v);
+			}
+		}
+
+		/**
+		 * Removes the entry for a vertex from an adjacency list by moving the last entry into its slot
+		 * @return the new size of the list
+		 */
+		private static int unlink(int[] targets, int[] weights, int size, int v) {
+			for (int i = 0; i < size; i++) {
+				if (targets[i] == v) {
+					targets[i] = targets[--size];
+					weights[i] = weights[size];
+					return size;
+				}
+			}
+			return size;
+		}
+
+		/**
+		 * Finds the shortcuts contracting v needs
+		 * @param v
+		 * @param add whether to add them to the graph or only count them
+		 * @return the number of shortcuts
+		 */
+		private int shortcuts(int v, boolean add) {
+			int count = 0;
+			for (int i = 0; i < inSizes[v]; i++) {
+				int u = inTargets[v][i];
+				if (u == v)
+					continue;
+				long toV = inWeights[v][i];
+				long limit = 0;
+				for (int j = 0; j < outSizes[v]; j++) {
+					int w = outTargets[v][j];
+					if (w != u && w != v)
+						limit = Math.max(limit, toV + outWeights[v][j]);
+				}
+				witnessSearch(u, v, limit, add ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+				for (int j = 0; j < outSizes[v]; j++) {
+					int w = outTargets[v][j];
+					if (w == u || w == v)
+						continue;
+					long through = toV + outWeights[v][j];
+					if (distances[w] > through) {
+						count++;
+						if (add) {
+							if (through > Integer.MAX_VALUE)
+								throw new IllegalArgumentException("Shortcut weight does not fit in an int: " + through);
+							addEdge(u, w, (int) through);
+						}
+					}
+				}
+				resetWitness();
+			}
+			return count;
+		}
+
+		/**
+		 * Dijkstra from u over the remaining graph without v, up to a distance limit and a settle limit
+		 */
+		private void witnessSearch(int u, int v, long limit, int settleLimit) {
+			distances[u] = 0;
+			touch(u);
+			heap.insert(u, 0);
+			int settled = 0;
+			while (!heap.isEmpty() && heap.minPriority() <= limit && settled < settleLimit) {
+				int x = heap.removeMin();
+				settled++;
+				long distance = distances[x];
+				for (int i = 0; i < outSizes[x]; i++) {
+					int y = outTargets[x][i];
+					if (y == v)
+						continue;
+					long candidate = distance + outWeights[x][i];
+					if (candidate < distances[y]) {
+						if (distances[y] == DijkstraSolver.UNREACHED) {
+							heap.insert(y, candidate);
+							touch(y);
+						} else if (heap.contains(y)) {
+							heap.decreaseKey(y, candidate);
+						} else {
+							continue;
+						}
+						distances[y] = candidate;
+					}
+				}
+			}
+		}
+
+		private void touch(int v) {
+			if (touchedCount == touched.length)
+				touched = Arrays.copyOf(touched, touchedCount * 2);
+			touched[touchedCount++] = v;
+		}
+
+		private void resetWitness() {
+			for (int i = 0; i < touchedCount; i++)
+				distances[touched[i]] = DijkstraSolver.UNREACHED;
+			touchedCount = 0;
+			heap.clear();
+		}
+
+		/**
+		 * Adds an edge u -> w, or lowers the weight of an existing one
+		 */
+		private void addEdge(int u, int w, int weight) {
+			if (u == w)
+				return;
+			for (int i = 0; i < outSizes[u]; i++) {
+				if (outTargets[u][i] == w) {
+					if (weight < outWeights[u][i]) {
+						outWeights[u][i] = weight;
+						for (int j = 0; j < inSizes[w]; j++) {
+							if (inTargets[w][j] == u)
+								inWeights[w][j] = weight;
+						}
+					}
+					return;
+				}
+			}
+			if (outSizes[u] == outTargets[u].length) {
+				outTargets[u] = Arrays.copyOf(outTargets[u], outSizes[u] * 2);
+				outWeights[u] = Arrays.copyOf(outWeights[u], outSizes[u] * 2);
+			}
+			outTargets[u][outSizes[u]] = w;
+			outWeights[u][outSizes[u]++] = weight;
+			if (inSizes[w] == inTargets[w].length) {
+				inTargets[w] = Arrays.copyOf(inTargets[w], inSizes[w] * 2);
+				inWeights[w] = Arrays.copyOf(inWeights[w], inSizes[w] * 2);
+			}
+			inTargets[w][inSizes[w]] = u;
+			inWeights[w][inSizes[w]++] = weight;
+		}
+	}
+}
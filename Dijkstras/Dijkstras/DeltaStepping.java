@@ -0,0 +1,412 @@
+package Dijkstras;
+
+import graph.CsrGraph;
+import graph.Graph;
+import graph.NeighborCursor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel single source shortest paths using Meyer and Sanders' delta-stepping.
+ * Tentative distances are grouped into buckets of width delta. The vertices of the lowest bucket are expanded in parallel,
+ * first repeatedly over light edges (weight <= delta), which can only refill the same bucket, and then once over heavy edges.
+ * Distances are lowered with compare-and-set, so relaxations from different threads never lose an update.
+ * Every thread files the vertices it improves into its own ring of bucket lists, so no vertex passes through the
+ * calling thread: between phases it only hands the lists of each thread's slot to the next phase. A vertex is filed
+ * once per improvement, and stale or repeated entries are skipped when the bucket is expanded.
+ * Gives the same distances as DijkstraSolver.
+ * @author sandasai
+ *
+ */
+public class DeltaStepping {
+
+	//frontier size below which a task relaxes its vertices itself instead of splitting
+	private static final int SEQUENTIAL_THRESHOLD = 256;
+	//most buckets a ring holds; vertices filed further ahead wait in an overflow list
+	private static final int RING_LIMIT = 1 << 16;
+
+	private final int vertexCount;
+	private final long delta;
+	private final ForkJoinPool pool;
+
+	//the graph split by edge weight
+	private final CsrGraph light;
+	private final CsrGraph heavy;
+
+	//slots of the bucket ring, enough that no relaxation reaches past the ring unless it is capped at RING_LIMIT
+	private final int ringSize;
+
+	private final AtomicLongArray distances;
+
+	//light phase a vertex was last expanded in, so a vertex filed twice into one bucket is expanded once per phase
+	private final AtomicIntegerArray expandedIn;
+
+	//bucket a vertex was last settled in, so each vertex is on a bucket's settled lists once
+	private final long[] settledIn;
+
+	//the buffers of every thread that took part in a solve
+	private final List<Buffers> allBuffers = new ArrayList<Buffers>();
+	private final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+		protected Buffers initialValue() {
+			Buffers created = new Buffers(ringSize);
+			synchronized (allBuffers) {
+				allBuffers.add(created);
+			}
+			return created;
+		}
+	};
+
+	//lists handed out by the calling thread to replace the ones it takes
+	private final ArrayDeque<IntList> spares = new ArrayDeque<IntList>();
+
+	//bucket being expanded, and the light phase, both only changed by the calling thread between phases
+	private long current;
+	private int phase;
+
+	/**
+	 * Creates a solver running on the common fork-join pool
+	 * @param graph weighted graph
+	 * @param delta bucket width, larger values expose more parallelism but cause more re-relaxations
+	 */
+	DeltaStepping(Graph graph, long delta) {
+		this(graph, delta, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param graph weighted graph
+	 * @param delta bucket width, larger values expose more parallelism but cause more re-relaxations
+	 * @param pool pool that runs the relaxations
+	 */
+	DeltaStepping(Graph graph, long delta, ForkJoinPool pool) {
+		if (!graph.isWeighted())
+			throw new IllegalArgumentException("Delta-stepping needs a weighted graph");
+		if (delta < 1)
+			throw new IllegalArgumentException("Delta must be positive: " + delta);
+		this.vertexCount = graph.vertexCount();
+		this.delta = delta;
+		this.pool = pool;
+		this.light = split(graph, delta, true);
+		this.heavy = split(graph, delta, false);
+		int maxWeight = 0;
+		for (int weight : heavy.weights())
+			maxWeight = Math.max(maxWeight, weight);
+		//an edge from bucket i reaches at most bucket i + ceil(maxWeight / delta)
+		this.ringSize = (int) Math.min(RING_LIMIT, maxWeight / delta + 2);
+		this.distances = new AtomicLongArray(vertexCount);
+		this.expandedIn = new AtomicIntegerArray(vertexCount);
+		this.settledIn = new long[vertexCount];
+	}
+
+	/**
+	 * Solve shortest paths to all vertices from a source
+	 * @param source
+	 */
+	public void solve(int source) {
+		for (int v = 0; v < vertexCount; v++) {
+			distances.set(v, DijkstraSolver.UNREACHED);
+			expandedIn.set(v, 0);
+		}
+		Arrays.fill(settledIn, -1);
+		for (Buffers each : snapshot())
+			each.clear();
+		phase = 0;
+		if (source < 0 || source >= vertexCount)
+			return;
+
+		distances.set(source, 0);
+		current = 0;
+		buffers.get().file(source, 0, current);
+		while (nextBucket()) {
+			int slot = (int) (current % ringSize);
+			//light edges can put vertices back into this bucket, so repeat until it stays empty
+			while (true) {
+				Frontier frontier = take(slot);
+				if (frontier == null)
+					break;
+				phase++;
+				pool.invoke(new Relaxation(light, frontier, 0, frontier.size, true));
+				recycle(frontier);
+			}
+			//heavy edges always lead past this bucket, so one pass over everything settled in it is enough
+			Frontier settled = take(-1);
+			if (settled != null) {
+				pool.invoke(new Relaxation(heavy, settled, 0, settled.size, false));
+				recycle(settled);
+			}
+			current++;
+		}
+	}
+
+	/**
+	 * @param v
+	 * @return the shortest distance from the source of the last solve to v, or DijkstraSolver.UNREACHED
+	 */
+	public long getDistance(int v) {
+		if (v < 0 || v >= vertexCount)
+			return DijkstraSolver.UNREACHED;
+		return distances.get(v);
+	}
+
+	/**
+	 * Moves current to the lowest bucket with filed vertices. Ring slots past the lowest overflow bucket wait until
+	 * the overflow entries are filed into a ring starting there
+	 * @return false when no vertex is filed anywhere
+	 */
+	private boolean nextBucket() {
+		Buffers[] all = snapshot();
+		while (true) {
+			long overflow = Long.MAX_VALUE;
+			for (Buffers each : all)
+				overflow = Math.min(overflow, each.overflowLowest);
+			for (int i = 0; i < ringSize && current + i < overflow; i++) {
+				int slot = (int) ((current + i) % ringSize);
+				for (Buffers each : all) {
+					if (each.slots[slot] != null && each.slots[slot].size > 0) {
+						current += i;
+						return true;
+					}
+				}
+			}
+			if (overflow == Long.MAX_VALUE)
+				return false;
+			refill(all, overflow);
+		}
+	}
+
+	/**
+	 * Moves the ring to start at the lowest overflow bucket and files the overflow entries into it again. The ring
+	 * size rules this out unless it is capped at RING_LIMIT
+	 * @param lowest - lowest bucket of an overflow entry, no bucket before it has vertices left
+	 */
+	private void refill(Buffers[] all, long lowest) {
+		current = lowest;
+		Buffers mine = buffers.get();
+		for (Buffers each : all) {
+			IntList overflow = each.overflow;
+			each.overflow = new IntList();
+			each.overflowLowest = Long.MAX_VALUE;
+			for (int i = 0; i < overflow.size; i++) {
+				int v = overflow.values[i];
+				long bucket = distances.get(v) / delta;
+				//vertices that moved to an earlier bucket were expanded there
+				if (bucket >= current)
+					mine.file(v, bucket, current);
+			}
+		}
+	}
+
+	/**
+	 * Takes the lists of one slot, or the settled lists, from every thread, leaving empty ones in their place
+	 * @param slot - ring slot, -1 for the settled lists
+	 * @return the taken lists, null if they were all empty
+	 */
+	private Frontier take(int slot) {
+		Buffers[] all = snapshot();
+		IntList[] parts = new IntList[all.length];
+		int count = 0;
+		for (Buffers each : all) {
+			IntList list = slot < 0 ? each.settled : each.slots[slot];
+			if (list == null || list.size == 0)
+				continue;
+			parts[count++] = list;
+			IntList spare = spares.isEmpty() ? new IntList() : spares.pop();
+			if (slot < 0)
+				each.settled = spare;
+			else
+				each.slots[slot] = spare;
+		}
+		return count == 0 ? null : new Frontier(parts, count);
+	}
+
+	/**
+	 * Keeps the lists of an expanded frontier for reuse
+	 */
+	private void recycle(Frontier frontier) {
+		for (int i = 0; i < frontier.count; i++) {
+			frontier.parts[i].size = 0;
+			spares.push(frontier.parts[i]);
+		}
+	}
+
+	private Buffers[] snapshot() {
+		synchronized (allBuffers) {
+			return allBuffers.toArray(new Buffers[allBuffers.size()]);
+		}
+	}
+
+	/**
+	 * Copies the light (weight <= delta) or heavy edges of a graph
+	 */
+	private static CsrGraph split(Graph graph, long delta, boolean lightEdges) {
+		int n = graph.vertexCount();
+		NeighborCursor cursor = graph.cursor();
+		int[] offsets = new int[n + 1];
+		for (int u = 0; u < n; u++) {
+			int count = 0;
+			cursor.reset(u);
+			while (cursor.next()) {
+				if ((cursor.weight() <= delta) == lightEdges)
+					count++;
+			}
+			offsets[u + 1] = offsets[u] + count;
+		}
+		int[] targets = new int[offsets[n]];
+		int[] weights = new int[offsets[n]];
+		int e = 0;
+		for (int u = 0; u < n; u++) {
+			cursor.reset(u);
+			while (cursor.next()) {
+				if ((cursor.weight() <= delta) == lightEdges) {
+					targets[e] = cursor.target();
+					weights[e++] = cursor.weight();
+				}
+			}
+		}
+		return new CsrGraph(offsets, targets, weights);
+	}
+
+	/**
+	 * Relaxes the edges of a range of frontier vertices, splitting the range across the pool. Each task files the
+	 * vertices it improves into the buffers of its own thread
+	 */
+	private class Relaxation extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final CsrGraph edges;
+		private final Frontier frontier;
+		private final int from;
+		private final int to;
+		//light phases skip entries that are stale or already expanded, and settle the others
+		private final boolean expand;
+
+		Relaxation(CsrGraph edges, Frontier frontier, int from, int to, boolean expand) {
+			this.edges = edges;
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+			this.expand = expand;
+		}
+
+		protected void compute() {
+			if (to - from > SEQUENTIAL_THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Relaxation(edges, frontier, from, middle, expand),
+						new Relaxation(edges, frontier, middle, to, expand));
+				return;
+			}
+			int[] offsets = edges.offsets();
+			int[] targets = edges.targets();
+			int[] weights = edges.weights();
+			Buffers local = buffers.get();
+			long bucket = current;
+			int part = 0;
+			while (frontier.starts[part + 1] <= from)
+				part++;
+			for (int i = from; i < to; i++) {
+				while (frontier.starts[part + 1] <= i)
+					part++;
+				int u = frontier.parts[part].values[i - frontier.starts[part]];
+				long distance = distances.get(u);
+				if (expand) {
+					//filed again after moving to a lower bucket, or filed twice into this one
+					if (distance / delta != bucket || expandedIn.getAndSet(u, phase) == phase)
+						continue;
+					if (settledIn[u] != bucket) {
+						settledIn[u] = bucket;
+						local.settled.add(u);
+					}
+				}
+				for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+					int v = targets[e];
+					long candidate = distance + weights[e];
+					long tentative = distances.get(v);
+					while (candidate < tentative) {
+						if (distances.compareAndSet(v, tentative, candidate)) {
+							local.file(v, candidate / delta, bucket);
+							break;
+						}
+						tentative = distances.get(v);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Lists taken from several threads, read as one array of vertices
+	 */
+	private static class Frontier {
+		final IntList[] parts;
+		final int count;
+		final int[] starts;	//index of the first vertex of each part, then the total
+		final int size;
+
+		Frontier(IntList[] parts, int count) {
+			this.parts = parts;
+			this.count = count;
+			this.starts = new int[count + 1];
+			for (int i = 0; i < count; i++)
+				starts[i + 1] = starts[i] + parts[i].size;
+			this.size = starts[count];
+		}
+	}
+
+	/**
+	 * The bucket ring, settled list and overflow list of one thread
+	 */
+	private static class Buffers {
+		final IntList[] slots;
+		IntList settled = new IntList();
+		IntList overflow = new IntList();
+		long overflowLowest = Long.MAX_VALUE;	//lowest bucket filed into overflow
+
+		Buffers(int ringSize) {
+			slots = new IntList[ringSize];
+		}
+
+		/**
+		 * Files a vertex into a bucket at or after the one being expanded
+		 */
+		void file(int v, long bucket, long current) {
+			if (bucket - current >= slots.length) {
+				overflow.add(v);
+				overflowLowest = Math.min(overflowLowest, bucket);
+				return;
+			}
+			int slot = (int) (bucket % slots.length);
+			if (slots[slot] == null)
+				slots[slot] = new IntList();
+			slots[slot].add(v);
+		}
+
+		void clear() {
+			for (IntList slot : slots) {
+				if (slot != null)
+					slot.size = 0;
+			}
+			settled.size = 0;
+			overflow.size = 0;
+			overflowLowest = Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Growable list of ints
+	 */
+	private static class IntList {
+		int[] values = new int[16];
+		int size;
+
+		void add(int value) {
+			if (size == values.length)
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package Dijkstras;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Dial's bucket queue for non-negative integer priorities when edge lengths are small. While Dijkstra runs, every
+ * tentative distance lies within maxWeight of the last removed minimum, so a circular array of maxWeight + 1 buckets
+ * indexed by priority modulo its length holds the whole frontier. All operations are O(1) apart from scanning past
+ * empty buckets, which costs at most O(maxWeight) per removal.
+ * Priorities must never be smaller than the last removed minimum.
+ * @author sandasai
+ *
+ */
+public class DialQueue implements VertexQueue {
+
+	private static final int NONE = -1;
+	private static final long UNSET = -1;
+
+	//first vertex of each bucket's doubly linked list
+	private final int[] head;
+
+	//per vertex list links and priority
+	private final int[] next;
+	private final int[] previous;
+	private final boolean[] queued;
+	private final long[] keys;
+
+	//priority of the bucket the scan is at, no vertex in the queue has a smaller priority.
+	//UNSET until the first insert after construction or clear()
+	private long current = UNSET;
+	private int size;
+
+	/**
+	 * @param capacity one more than the largest vertex id
+	 * @param maxWeight the largest edge length in the graph
+	 */
+	DialQueue(int capacity, int maxWeight) {
+		if (maxWeight < 0)
+			throw new IllegalArgumentException("Edge lengths must not be negative");
+		head = new int[maxWeight + 1];
+		next = new int[capacity];
+		previous = new int[capacity];
+		queued = new boolean[capacity];
+		keys = new long[capacity];
+		Arrays.fill(head, NONE);
+	}
+
+	public void insert(int vertex, long priority) {
+		if (queued[vertex])
+			throw new IllegalArgumentException("Vertex already in queue: " + vertex);
+		if (current == UNSET)
+			current = priority;
+		checkRange(priority);
+		keys[vertex] = priority;
+		link(vertex);
+		size++;
+	}
+
+	public void decreaseKey(int vertex, long priority) {
+		if (!queued[vertex])
+			throw new NoSuchElementException("Vertex not in queue: " + vertex);
+		if (priority > keys[vertex])
+			throw new IllegalArgumentException("New priority is larger than the current priority");
+		checkRange(priority);
+		unlink(vertex);
+		keys[vertex] = priority;
+		link(vertex);
+	}
+
+	public int removeMin() {
+		int vertex = head[advance()];
+		unlink(vertex);
+		size--;
+		return vertex;
+	}
+
+	public boolean remove(int vertex) {
+		if (!queued[vertex])
+			return false;
+		unlink(vertex);
+		size--;
+		return true;
+	}
+
+	public int peekMin() {
+		return head[advance()];
+	}
+
+	public long minPriority() {
+		advance();
+		return current;
+	}
+
+	public boolean contains(int vertex) {
+		return queued[vertex];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		for (int b = 0; b < head.length; b++) {
+			for (int v = head[b]; v != NONE; v = next[v])
+				queued[v] = false;
+			head[b] = NONE;
+		}
+		size = 0;
+		current = UNSET;
+	}
+
+	/**
+	 * Moves the scan to the first non-empty bucket
+	 * @return index of that bucket
+	 */
+	private int advance() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		int b = (int) (current % head.length);
+		while (head[b] == NONE) {
+			current++;
+			b = b + 1 == head.length ? 0 : b + 1;
+		}
+		return b;
+	}
+
+	private void checkRange(long priority) {
+		if (priority < current || priority - current >= head.length)
+			throw new IllegalArgumentException("Priority " + priority + " is outside the window of the queue starting at " + current);
+	}
+
+	private void link(int vertex) {
+		int bucket = (int) (keys[vertex] % head.length);
+		queued[vertex] = true;
+		previous[vertex] = NONE;
+		next[vertex] = head[bucket];
+		if (head[bucket] != NONE)
+			previous[head[bucket]] = vertex;
+		head[bucket] = vertex;
+	}
+
+	private void unlink(int vertex) {
+		int bucket = (int) (keys[vertex] % head.length);
+		if (previous[vertex] == NONE)
+			head[bucket] = next[vertex];
+		else
+			next[previous[vertex]] = next[vertex];
+		if (next[vertex] != NONE)
+			previous[next[vertex]] = previous[vertex];
+		queued[vertex] = false;
+	}
+}
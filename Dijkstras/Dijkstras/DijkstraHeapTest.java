@@ -1,3 +1,5 @@
+package Dijkstras;
+
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
@@ -1,8 +1,13 @@
-import java.util.ArrayList;
-import java.util.Hashtable;
+package Dijkstras;
+
+import graph.CsrGraph;
+import graph.Graph;
+import graph.Instrumentation;
+import graph.NeighborCursor;
+
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 
 /**
  * DijkstraSolver for vertices and weights represented by Integers
@@ -10,99 +15,326 @@ import java.util.NoSuchElementException;
  *
  */
 public class DijkstraSolver {
-	
-	//shortest paths to vertices not yet explored {vertex:totalDistance}
-	Map<Integer, Integer> shortestPaths;
-	
-	//edges that lead to a specific vertex;
-	Map<Integer, List<Edge>> edgesToVertex;
-	
+
+	//distance used for vertices that have not been reached
+	public static final long UNREACHED = Long.MAX_VALUE;
+
+	//tentative distance from the source to each vertex, final once the vertex is settled
+	long[] distances;
+
+	//vertices whose shortest distance is final
+	boolean[] settled;
+
+	//vertex before each reached vertex on its shortest known path, -1 for the source
+	int[] predecessors;
+
 	//Original graph
-	Map<Integer, List<Edge>> graph;
-		
-	//shortest paths to vertices not yet explored
-	DijkstraHeap<Integer, Integer> heap;
-	
+	Graph graph;
+	NeighborCursor cursor;
+
+	//frontier of reached but unsettled vertices keyed by tentative distance
+	VertexQueue heap;
+
+	//vertices reached by the last solve, so the next solve only resets what was touched
+	int[] touched;
+	int touchedCount;
+
+	//marks the target vertices of the current solve
+	boolean[] isTarget;
+
+	int settledCount;
+
+	//A* potential of the current solve, null for plain Dijkstra, and the potential of each touched vertex
+	Potential potential;
+	long[] estimates;
+
+	//heap operations of the current solve, only counted when instrumentation is enabled
+	long inserts;
+	long removes;
+	long decreaseKeys;
+	long relaxations;
+
 	DijkstraSolver(Map<Integer, List<Edge>> graph) {
+		this(graph, 4);
+	}
+
+	/**
+	 * @param graph
+	 * @param arity number of children per heap node (2, 4 or 8)
+	 */
+	DijkstraSolver(Map<Integer, List<Edge>> graph, int arity) {
+		this(toCsr(graph), arity);
+	}
+
+	public DijkstraSolver(Graph graph) {
+		this(graph, 4);
+	}
+
+	/**
+	 * @param graph weighted graph
+	 * @param arity number of children per heap node (2, 4 or 8)
+	 */
+	DijkstraSolver(Graph graph, int arity) {
+		this(graph, new IndexedDHeap(graph.vertexCount(), arity));
+	}
+
+	/**
+	 * @param graph weighted graph
+	 * @param queueType frontier priority queue to use
+	 */
+	DijkstraSolver(Graph graph, QueueType queueType) {
+		this(graph, queueType.create(graph));
+	}
+
+	/**
+	 * @param graph weighted graph
+	 * @param heap empty frontier queue with room for every vertex of the graph
+	 */
+	private DijkstraSolver(Graph graph, VertexQueue heap) {
+		if (!graph.isWeighted())
+			throw new IllegalArgumentException("Dijkstra needs a weighted graph");
 		this.graph = graph;
-		this.heap = new DijkstraHeap<Integer, Integer>();
-		this.shortestPaths = new Hashtable<Integer, Integer>();
-		this.edgesToVertex = new Hashtable<Integer, List<Edge>>();
+		this.cursor = graph.cursor();
+		int vertexCount = graph.vertexCount();
+		this.heap = heap;
+		this.distances = new long[vertexCount];
+		this.settled = new boolean[vertexCount];
+		this.predecessors = new int[vertexCount];
+		this.touched = new int[16];
+		this.isTarget = new boolean[vertexCount];
+		Arrays.fill(distances, UNREACHED);
 	}
-	
+
 	/**
 	 * Solve shortest paths to all vertices from vertex 1
 	 */
 	public void solve() {
-		Integer lastVertex = 1;
-		shortestPaths.put(lastVertex, 0);
-		List<Edge> edges = graph.get(lastVertex);
-		
-		//add to heap
-		for (Edge edge : edges) {
-			heap.put(edge.l, edge.v);
-			List<Edge> newEdgeList = new ArrayList<Edge>();
-			newEdgeList.add(edge);
-			edgesToVertex.put(edge.v, newEdgeList);
+		solve(1, null, UNREACHED);
+	}
+
+	/**
+	 * Solve shortest paths to all vertices from a source
+	 * @param source
+	 */
+	public void solve(int source) {
+		solve(source, null, UNREACHED);
+	}
+
+	/**
+	 * Solve shortest paths from a source, stopping as soon as every target is settled or the next closest
+	 * vertex is farther than maxDistance. Only the vertices that were reached are touched, so a query
+	 * near its source costs far less than the whole graph.
+	 * Afterwards getShortestPath is exact for every target and for every other settled vertex, and null for the rest.
+	 * @param source
+	 * @param targets vertices whose distances are needed, or null to settle every reachable vertex
+	 * @param maxDistance radius beyond which vertices are not settled, UNREACHED for no limit
+	 */
+	public void solve(int source, int[] targets, long maxDistance) {
+		run(source, targets, maxDistance, null);
+	}
+
+	/**
+	 * A* search from a source to a single target: vertices are settled in order of distance plus the potential's
+	 * lower bound on their remaining distance, so the search heads towards the target. Vertices that the potential
+	 * reports cannot reach the target are never queued.
+	 * Afterwards getShortestPath is exact for the target and for every other settled vertex.
+	 * A consistent potential keeps the priorities monotone, so the radix heap works too, but not the Dial queue:
+	 * shifted edge lengths can exceed the largest edge weight it was sized for.
+	 * @param source
+	 * @param target
+	 * @param potential consistent lower bounds on the distance to the target
+	 */
+	public void solveTowards(int source, int target, Potential potential) {
+		if (estimates == null)
+			estimates = new long[distances.length];
+		run(source, new int[] { target }, UNREACHED, potential);
+	}
+
+	/**
+	 * Dijkstra or A* search shared by the public solve methods
+	 */
+	private void run(int source, int[] targets, long maxDistance, Potential potential) {
+		Instrumentation.Timer timer = Instrumentation.ENABLED ? Instrumentation.start(Instrumentation.Phase.DIJKSTRA_SOLVE) : null;
+		search(source, targets, maxDistance, potential);
+		if (Instrumentation.ENABLED) {
+			timer.stop(settledCount);
+			Instrumentation.add(Instrumentation.Counter.DIJKSTRA_SOLVES, 1);
+			Instrumentation.add(Instrumentation.Counter.DIJKSTRA_HEAP_INSERTS, inserts);
+			Instrumentation.add(Instrumentation.Counter.DIJKSTRA_HEAP_REMOVES, removes);
+			Instrumentation.add(Instrumentation.Counter.DIJKSTRA_DECREASE_KEYS, decreaseKeys);
+			Instrumentation.add(Instrumentation.Counter.DIJKSTRA_RELAXATIONS, relaxations);
+			inserts = removes = decreaseKeys = relaxations = 0;
 		}
-		
-		while(heap.size() > 0) {
-			//get shortest path
-			DijkstraHeap<Integer, Integer>.Data data = heap.removeMin();
-			
-			//record shortest distance to that vertex
-			Integer nextVertex = data.vertex;
-			shortestPaths.put(nextVertex, shortestPaths.get(lastVertex) + data.distance);
-			
-			//update shortest distances in the heap
-			List<Edge> newEdges = graph.get(nextVertex);
-			
-			//for each newly discovered edge from the vertex that was just incorporated
-			for (Edge newEdge : newEdges) {
-				if (shortestPaths.get(newEdge.v) != null)
-					continue;
-				Integer endVertex = newEdge.v;
-				List<Edge> existingEdgesToVertex;
-				//if one of the new edges leads to a vertex that already has atleast one crossing edge
-				if (edgesToVertex.containsKey(endVertex)) {
-					existingEdgesToVertex = edgesToVertex.get(endVertex);
-					existingEdgesToVertex.add(newEdge);
-				} 
-				//this is a newly undiscovered vertex, no mapping in edgesToVertex exists
-				else {					
-					//include the mapping between edges from nextVertex and the newly discovered vertex
-					existingEdgesToVertex = new ArrayList<Edge>();
-					existingEdgesToVertex.add(newEdge);
-					edgesToVertex.put(endVertex, existingEdgesToVertex);
+	}
+
+	private void search(int source, int[] targets, long maxDistance, Potential potential) {
+		reset();
+		this.potential = potential;
+		if (source < 0 || source >= distances.length)
+			return;
+		int pendingTargets = 0;
+		if (targets != null) {
+			for (int target : targets) {
+				if (target >= 0 && target < isTarget.length && !isTarget[target]) {
+					isTarget[target] = true;
+					pendingTargets++;
 				}
-				recalculateShortestPath(endVertex);
+			}
+			if (pendingTargets == 0)
+				return;
+		}
+
+		long estimate = potential == null ? 0 : potential.estimate(source);
+		//a source the potential rules out cannot reach the target, so nothing is queued
+		if (estimate != UNREACHED) {
+			if (potential != null)
+				estimates[source] = estimate;
+			distances[source] = 0;
+			predecessors[source] = -1;
+			touch(source);
+			heap.insert(source, estimate);
+			if (Instrumentation.ENABLED)
+				inserts++;
+		}
+		while (!heap.isEmpty()) {
+			if (heap.minPriority() > maxDistance)
+				break;
+			//the closest unsettled vertex is final
+			int vertex = heap.removeMin();
+			settled[vertex] = true;
+			settledCount++;
+			if (Instrumentation.ENABLED)
+				removes++;
+			if (isTarget[vertex] && --pendingTargets == 0)
+				break;
+			long distance = distances[vertex];
+			cursor.reset(vertex);
+			while (cursor.next()) {
+				relax(vertex, cursor.target(), distance + cursor.weight(), maxDistance);
+			}
+		}
+		if (targets != null) {
+			for (int target : targets) {
+				if (target >= 0 && target < isTarget.length)
+					isTarget[target] = false;
 			}
 		}
 	}
-	
+
+	/**
+	 * @param v
+	 * @return the shortest distance from the source of the last solve to v, or UNREACHED if v was not settled
+	 */
+	public long getDistance(int v) {
+		if (v < 0 || v >= settled.length || !settled[v])
+			return UNREACHED;
+		return distances[v];
+	}
+
 	/**
-	 * Returns the shortest Path from vertex 1 to vertex v 
 	 * @param v
-	 * @return the shortest Path from vertex 1 to vertex v
+	 * @return the vertex before v on the shortest path from the source of the last solve, or -1 if v is the source or was not settled
+	 */
+	public int getPredecessor(int v) {
+		if (v < 0 || v >= settled.length || !settled[v])
+			return -1;
+		return predecessors[v];
+	}
+
+	/**
+	 * @return the number of vertices settled by the last solve
+	 */
+	public int getSettledCount() {
+		return settledCount;
+	}
+
+	/**
+	 * Returns the shortest Path from the source of the last solve (vertex 1 by default) to vertex v. Distances are
+	 * longs; new callers should use getDistance
+	 * @param v
+	 * @return the shortest Path to vertex v, or null if v is unreachable or was not settled
+	 * @throws ArithmeticException if the distance does not fit in an int
 	 */
 	public Integer getShortestPath(Integer v) {
-		return shortestPaths.get(v);
+		if (v < 0 || v >= settled.length || !settled[v])
+			return null;
+		if (distances[v] > Integer.MAX_VALUE)
+			throw new ArithmeticException("Distance to " + v + " is " + distances[v] + ", use getDistance");
+		return (int) distances[v];
 	}
-	
+
 	/**
-	 * Recalculate the shortest path to a vertex and updates the heap
+	 * Lowers the tentative distance to a vertex if a shorter path has been found
+	 * @param fromVertex the vertex that was just settled
 	 * @param toVertex
+	 * @param distance length of the path through the vertex that was just settled
+	 * @param maxDistance paths longer than this are dropped
+	 */
+	private void relax(int fromVertex, int toVertex, long distance, long maxDistance) {
+		if (Instrumentation.ENABLED)
+			relaxations++;
+		if (settled[toVertex] || distance >= distances[toVertex] || distance > maxDistance)
+			return;
+		long estimate = 0;
+		if (potential != null) {
+			if (distances[toVertex] == UNREACHED) {
+				estimate = potential.estimate(toVertex);
+				if (estimate == UNREACHED)
+					return;
+				estimates[toVertex] = estimate;
+			} else {
+				estimate = estimates[toVertex];
+			}
+		}
+		if (distances[toVertex] == UNREACHED) {
+			heap.insert(toVertex, distance + estimate);
+			touch(toVertex);
+			if (Instrumentation.ENABLED)
+				inserts++;
+		} else {
+			heap.decreaseKey(toVertex, distance + estimate);
+			if (Instrumentation.ENABLED)
+				decreaseKeys++;
+		}
+		distances[toVertex] = distance;
+		predecessors[toVertex] = fromVertex;
+	}
+
+	/**
+	 * Records a vertex whose state has to be reset before the next solve
+	 * @param v
+	 */
+	private void touch(int v) {
+		if (touchedCount == touched.length)
+			touched = Arrays.copyOf(touched, touchedCount * 2);
+		touched[touchedCount++] = v;
+	}
+
+	/**
+	 * Clears the state left by the previous solve in time proportional to the vertices it reached
+	 */
+	private void reset() {
+		for (int i = 0; i < touchedCount; i++) {
+			distances[touched[i]] = UNREACHED;
+			settled[touched[i]] = false;
+		}
+		touchedCount = 0;
+		settledCount = 0;
+		heap.clear();
+	}
+
+	/**
+	 * Copies an Edge adjacency map into a CsrGraph
+	 * @param graph
+	 * @return the same graph in compressed sparse row form
 	 */
-	private void recalculateShortestPath(Integer toVertex) {
-		List<Edge> existingEdges = edgesToVertex.get(toVertex);
-		heap.remove(toVertex);
-		Integer minDistance = Integer.MAX_VALUE;
-		Integer distance;
-		for (Edge edge : existingEdges) {
-			distance = edge.l + shortestPaths.get(edge.origin);
-			if (distance < minDistance)
-				minDistance = distance;
+	static CsrGraph toCsr(Map<Integer, List<Edge>> graph) {
+		CsrGraph.Builder builder = new CsrGraph.Builder(true);
+		for (Map.Entry<Integer, List<Edge>> entry : graph.entrySet()) {
+			builder.addVertex(entry.getKey());
+			for (Edge edge : entry.getValue())
+				builder.addEdge(entry.getKey(), edge.v, edge.l);
 		}
-		heap.put(minDistance, toVertex);
+		return builder.build();
 	}
 }
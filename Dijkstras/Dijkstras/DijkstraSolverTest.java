@@ -0,0 +1,472 @@
+package Dijkstras;
+
+import static org.junit.Assert.*;
+
+import graph.CsrGraph;
+import graph.Relabeling;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DijkstraSolverTest {
+
+	/**
+	 * 1 -> 2:1, 3:4
+	 * 2 -> 3:2, 4:6
+	 * 3 -> 4:3
+	 * 5 is unreachable
+	 */
+	Map<Integer, List<Edge>> graph;
+
+	//random graph with vertices 1..n
+	Map<Integer, List<Edge>> randomGraph;
+	int n = 500;
+
+	@Before
+	public void setup() {
+		graph = new Hashtable<Integer, List<Edge>>();
+		addEdge(graph, 1, 2, 1);
+		addEdge(graph, 1, 3, 4);
+		addEdge(graph, 2, 3, 2);
+		addEdge(graph, 2, 4, 6);
+		addEdge(graph, 3, 4, 3);
+		addEdge(graph, 5, 1, 1);
+
+		randomGraph = new Hashtable<Integer, List<Edge>>();
+		Random r = new Random(7);
+		for (int i = 0; i < n * 4; i++) {
+			addEdge(randomGraph, 1 + r.nextInt(n), 1 + r.nextInt(n), r.nextInt(100));
+		}
+	}
+
+	@Test
+	public void smallGraph() {
+		DijkstraSolver solver = new DijkstraSolver(graph);
+		solver.solve();
+		assertEquals(Integer.valueOf(0), solver.getShortestPath(1));
+		assertEquals(Integer.valueOf(1), solver.getShortestPath(2));
+		assertEquals(Integer.valueOf(3), solver.getShortestPath(3));
+		assertEquals(Integer.valueOf(6), solver.getShortestPath(4));
+		assertNull(solver.getShortestPath(5));
+		assertNull(solver.getShortestPath(100));
+	}
+
+	@Test
+	public void distancesBeyondIntOnlyThroughGetDistance() {
+		Map<Integer, List<Edge>> chain = new Hashtable<Integer, List<Edge>>();
+		addEdge(chain, 1, 2, Integer.MAX_VALUE);
+		addEdge(chain, 2, 3, Integer.MAX_VALUE);
+		DijkstraSolver solver = new DijkstraSolver(chain);
+		solver.solve();
+		assertEquals(Integer.valueOf(Integer.MAX_VALUE), solver.getShortestPath(2));
+		assertEquals(2L * Integer.MAX_VALUE, solver.getDistance(3));
+		try {
+			solver.getShortestPath(3);
+			fail("Distance beyond an int was cut");
+		} catch (ArithmeticException e) {
+		}
+	}
+
+	@Test
+	public void matchesBellmanFord() {
+		long[] expected = bellmanFord(randomGraph, n, 1);
+		int[] arities = new int[] { 2, 4, 8 };
+		for (int arity : arities) {
+			DijkstraSolver solver = new DijkstraSolver(randomGraph, arity);
+			solver.solve();
+			for (int v = 1; v <= n; v++) {
+				Integer actual = solver.getShortestPath(v);
+				if (expected[v] == Long.MAX_VALUE)
+					assertNull(actual);
+				else
+					assertEquals(Integer.valueOf((int) expected[v]), actual);
+			}
+		}
+	}
+
+	@Test
+	public void everyQueueTypeMatchesBellmanFord() {
+		long[] expected = bellmanFord(randomGraph, n, 1);
+		for (QueueType type : QueueType.values()) {
+			DijkstraSolver solver = new DijkstraSolver(DijkstraSolver.toCsr(randomGraph), type);
+			solver.solve();
+			for (int v = 1; v <= n; v++)
+				assertEquals(type.name(), expected[v], solver.getDistance(v));
+		}
+	}
+
+	@Test
+	public void arbitrarySources() {
+		DijkstraSolver solver = new DijkstraSolver(randomGraph);
+		int[] sources = new int[] { 2, 17, 250, 499 };
+		for (int source : sources) {
+			long[] expected = bellmanFord(randomGraph, n, source);
+			solver.solve(source);
+			for (int v = 1; v <= n; v++)
+				assertEquals(expected[v], solver.getDistance(v));
+		}
+	}
+
+	@Test
+	public void stoppingAtTargets() {
+		long[] expected = bellmanFord(randomGraph, n, 1);
+		DijkstraSolver solver = new DijkstraSolver(randomGraph);
+		solver.solve();
+		int all = solver.getSettledCount();
+		//the closest reachable vertex other than the source
+		int nearest = 0;
+		for (int v = 2; v <= n; v++) {
+			if (expected[v] != Long.MAX_VALUE && (nearest == 0 || expected[v] < expected[nearest]))
+				nearest = v;
+		}
+		solver.solve(1, new int[] { nearest }, DijkstraSolver.UNREACHED);
+		assertEquals(expected[nearest], solver.getDistance(nearest));
+		assertTrue(solver.getSettledCount() < all);
+
+		solver.solve(1, new int[] { 3, 4 }, DijkstraSolver.UNREACHED);
+		assertEquals(expected[3], solver.getDistance(3));
+		assertEquals(expected[4], solver.getDistance(4));
+	}
+
+	@Test
+	public void boundingByRadius() {
+		long[] expected = bellmanFord(randomGraph, n, 1);
+		DijkstraSolver solver = new DijkstraSolver(randomGraph);
+		solver.solve(1, null, 150);
+		for (int v = 1; v <= n; v++) {
+			if (expected[v] <= 150)
+				assertEquals(expected[v], solver.getDistance(v));
+			else
+				assertNull(solver.getShortestPath(v));
+		}
+	}
+
+	@Test
+	public void relabeledGraphKeepsDistances() {
+		CsrGraph csr = DijkstraSolver.toCsr(randomGraph);
+		DijkstraSolver solver = new DijkstraSolver(csr);
+		solver.solve(1);
+		long[] expected = new long[csr.vertexCount()];
+		for (int v = 0; v < expected.length; v++)
+			expected[v] = solver.getDistance(v);
+		for (Relabeling.Order order : Relabeling.Order.values()) {
+			Relabeling relabeling = Relabeling.of(csr, order);
+			DijkstraSolver relabeled = new DijkstraSolver(relabeling.apply(csr));
+			relabeled.solve(relabeling.toNew(1));
+			long[] distances = new long[expected.length];
+			for (int v = 0; v < distances.length; v++)
+				distances[v] = relabeled.getDistance(v);
+			assertEquals(order.name(), Arrays.toString(expected), Arrays.toString(relabeling.toOriginal(distances)));
+		}
+	}
+
+	@Test
+	public void bidirectionalMatchesSolver() {
+		DijkstraSolver solver = new DijkstraSolver(randomGraph);
+		BidirectionalDijkstra bidirectional = new BidirectionalDijkstra(DijkstraSolver.toCsr(randomGraph));
+		Random r = new Random(3);
+		for (int i = 0; i < 50; i++) {
+			int source = 1 + r.nextInt(n);
+			int target = 1 + r.nextInt(n);
+			solver.solve(source);
+			assertEquals(solver.getDistance(target), bidirectional.query(source, target));
+		}
+		assertEquals(0, bidirectional.query(5, 5));
+		assertEquals(DijkstraSolver.UNREACHED, bidirectional.query(1, n + 1));
+	}
+
+	@Test
+	public void deltaSteppingMatchesSolver() {
+		DijkstraSolver solver = new DijkstraSolver(randomGraph);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		long[] deltas = new long[] { 1, 10, 50, 1000 };
+		for (long delta : deltas) {
+			DeltaStepping deltaStepping = new DeltaStepping(DijkstraSolver.toCsr(randomGraph), delta, pool);
+			int[] sources = new int[] { 1, 42, 300 };
+			for (int source : sources) {
+				solver.solve(source);
+				deltaStepping.solve(source);
+				for (int v = 0; v <= n; v++)
+					assertEquals(solver.getDistance(v), deltaStepping.getDistance(v));
+			}
+		}
+		pool.shutdown();
+	}
+
+	@Test
+	public void deltaSteppingBeyondTheBucketRing() {
+		//edges up to 3000000 long with buckets of 2 reach further ahead than the ring holds, so vertices wait in
+		//the overflow lists while the ring moves on
+		ForkJoinPool pool = new ForkJoinPool(3);
+		Random r = new Random(13);
+		for (int graph = 0; graph < 10; graph++) {
+			Map<Integer, List<Edge>> far = new Hashtable<Integer, List<Edge>>();
+			for (int i = 0; i < 400; i++)
+				addEdge(far, 1 + r.nextInt(80), 1 + r.nextInt(80), r.nextInt(3000000));
+			CsrGraph csr = DijkstraSolver.toCsr(far);
+			DijkstraSolver solver = new DijkstraSolver(csr);
+			DeltaStepping deltaStepping = new DeltaStepping(csr, 2, pool);
+			for (int source = 1; source <= 80; source += 20) {
+				solver.solve(source);
+				deltaStepping.solve(source);
+				for (int v = 0; v < csr.vertexCount(); v++)
+					assertEquals(solver.getDistance(v), deltaStepping.getDistance(v));
+			}
+		}
+		pool.shutdown();
+	}
+
+	@Test
+	public void batchMatchesSolver() throws InterruptedException {
+		final Map<Integer, long[]> rows = new ConcurrentHashMap<Integer, long[]>();
+		int[] sources = new int[40];
+		for (int i = 0; i < sources.length; i++)
+			sources[i] = 1 + i * 12;
+		BatchShortestPaths batch = new BatchShortestPaths(DijkstraSolver.toCsr(randomGraph), 4, QueueType.BINARY_HEAP);
+		batch.run(sources, new BatchShortestPaths.DistanceSink() {
+			public void accept(int source, long[] distances) {
+				rows.put(source, distances.clone());
+			}
+		});
+		assertEquals(sources.length, rows.size());
+		DijkstraSolver solver = new DijkstraSolver(randomGraph);
+		for (int source : sources) {
+			solver.solve(source);
+			for (int v = 0; v <= n; v++)
+				assertEquals(solver.getDistance(v), rows.get(source)[v]);
+		}
+	}
+
+	@Test
+	public void altMatchesSolver() throws IOException {
+		CsrGraph csr = DijkstraSolver.toCsr(randomGraph);
+		DijkstraSolver solver = new DijkstraSolver(randomGraph);
+		File file = File.createTempFile("landmarks", ".alt");
+		try {
+			Landmarks[] tables = new Landmarks[] { Landmarks.farthest(csr, 8, 1), Landmarks.random(csr, 8, 1), null };
+			tables[0].save(file);
+			tables[2] = Landmarks.load(file, csr);
+			assertArrayEquals(tables[0].landmarks(), tables[2].landmarks());
+			for (Landmarks landmarks : tables) {
+				AltQuery alt = new AltQuery(csr, landmarks);
+				Random r = new Random(3);
+				for (int i = 0; i < 50; i++) {
+					int source = 1 + r.nextInt(n);
+					int target = 1 + r.nextInt(n);
+					solver.solve(source);
+					assertEquals(solver.getDistance(target), alt.query(source, target));
+					assertTrue(alt.getSettledCount() <= solver.getSettledCount());
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void contractionHierarchyMatchesSolver() throws IOException {
+		DijkstraSolver solver = new DijkstraSolver(randomGraph);
+		CsrGraph csr = DijkstraSolver.toCsr(randomGraph);
+		ContractionHierarchy built = ContractionHierarchy.build(csr);
+		File file = File.createTempFile("hierarchy", ".ch");
+		try {
+			built.save(file);
+			ContractionHierarchy[] hierarchies = new ContractionHierarchy[] { built, ContractionHierarchy.load(file, csr) };
+			for (ContractionHierarchy hierarchy : hierarchies) {
+				HierarchyQuery query = new HierarchyQuery(hierarchy);
+				int[] sources = new int[] { 1, 42, 300 };
+				for (int source : sources) {
+					solver.solve(source);
+					for (int v = 0; v <= n; v++)
+						assertEquals(solver.getShortestPath(v), query.getShortestPath(source, v));
+				}
+			}
+		} finally {
+			file.delete();
+		}
+		HierarchyQuery small = new HierarchyQuery(ContractionHierarchy.build(DijkstraSolver.toCsr(graph)));
+		assertEquals(Integer.valueOf(6), small.getShortestPath(1, 4));
+		assertEquals(Integer.valueOf(7), small.getShortestPath(5, 4));
+		assertNull(small.getShortestPath(1, 5));
+	}
+
+	@Test
+	public void contractionHierarchyFileKeepsToItsGraph() throws IOException {
+		CsrGraph csr = DijkstraSolver.toCsr(randomGraph);
+		File file = File.createTempFile("hierarchy", ".ch");
+		try {
+			ContractionHierarchy.build(csr).save(file);
+			//same vertex and edge counts, one weight changed
+			int[] weights = csr.weights().clone();
+			weights[weights.length / 2]++;
+			assertRejected(file, new CsrGraph(csr.offsets(), csr.targets(), weights));
+			int[] targets = csr.targets().clone();
+			targets[0] = targets[0] == 0 ? 1 : 0;
+			assertRejected(file, new CsrGraph(csr.offsets(), targets, csr.weights()));
+			assertRejected(file, DijkstraSolver.toCsr(graph));
+			assertEquals(csr.vertexCount(), ContractionHierarchy.load(file, csr).vertexCount());
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static void assertRejected(File hierarchyFile, CsrGraph other) {
+		try {
+			ContractionHierarchy.load(hierarchyFile, other);
+			fail("Loaded a contraction hierarchy for a different graph");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().startsWith("Contraction hierarchy file was built for a different graph"));
+		}
+	}
+
+	@Test
+	public void predecessorsFormShortestPaths() {
+		DijkstraSolver solver = new DijkstraSolver(graph);
+		solver.solve();
+		assertEquals(-1, solver.getPredecessor(1));
+		assertEquals(1, solver.getPredecessor(2));
+		assertEquals(2, solver.getPredecessor(3));
+		assertEquals(3, solver.getPredecessor(4));
+		assertEquals(-1, solver.getPredecessor(5));
+		ShortestPathTree tree = new ShortestPathTree(solver, 1, 0);
+		assertArrayEquals(new int[] { 1, 2, 3, 4 }, tree.path(4));
+		assertArrayEquals(new int[] { 1 }, tree.path(1));
+		assertNull(tree.path(5));
+	}
+
+	@Test
+	public void treeCacheEvictsAndInvalidates() {
+		CsrGraph csr = DijkstraSolver.toCsr(randomGraph);
+		DijkstraSolver solver = new DijkstraSolver(csr);
+		//room for two trees
+		ShortestPathTreeCache cache = new ShortestPathTreeCache(csr, 2 * 12L * csr.vertexCount());
+		solver.solve(7);
+		for (int v = 0; v <= n; v++)
+			assertEquals(solver.getDistance(v), cache.distance(7, v));
+		assertEquals(1, cache.misses());
+		assertEquals(n, cache.hits());
+		cache.get(8);
+		cache.get(7);
+		cache.get(9);
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.evictions());
+		long misses = cache.misses();
+		cache.get(7);
+		assertEquals(misses, cache.misses());
+		cache.get(8);
+		assertEquals(misses + 1, cache.misses());
+
+		//a new graph version must not be answered from trees of the old one
+		Map<Integer, List<Edge>> changed = new Hashtable<Integer, List<Edge>>(randomGraph);
+		addEdge(changed, 7, 500, 0);
+		cache.setGraph(DijkstraSolver.toCsr(changed));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.distance(7, 500));
+		assertEquals(2, cache.get(7).version());
+	}
+
+	@Test
+	public void dynamicMatchesSolverAfterBatches() {
+		DynamicShortestPaths dynamic = new DynamicShortestPaths(DijkstraSolver.toCsr(randomGraph), 1);
+		//current weight of every edge by from * (n + 1) + to, parallel edges merged into the shortest
+		Map<Long, Integer> edges = new HashMap<Long, Integer>();
+		for (List<Edge> list : randomGraph.values()) {
+			for (Edge edge : list) {
+				long key = (long) edge.origin * (n + 1) + edge.v;
+				if (!edges.containsKey(key) || edge.l < edges.get(key))
+					edges.put(key, edge.l);
+			}
+		}
+		Random r = new Random(11);
+		for (int batch = 0; batch < 20; batch++) {
+			for (int i = 0; i < 25; i++) {
+				int u = 1 + r.nextInt(n);
+				int v = 1 + r.nextInt(n);
+				long key = (long) u * (n + 1) + v;
+				if (edges.containsKey(key) && r.nextBoolean()) {
+					assertTrue(dynamic.removeEdge(u, v));
+					edges.remove(key);
+				} else {
+					int weight = r.nextInt(100);
+					dynamic.setEdge(u, v, weight);
+					edges.put(key, weight);
+				}
+			}
+			dynamic.update();
+
+			Map<Integer, List<Edge>> rebuilt = new Hashtable<Integer, List<Edge>>();
+			for (Map.Entry<Long, Integer> edge : edges.entrySet())
+				addEdge(rebuilt, (int) (edge.getKey() / (n + 1)), (int) (edge.getKey() % (n + 1)), edge.getValue());
+			addEdge(rebuilt, n, n, 0);
+			DijkstraSolver solver = new DijkstraSolver(rebuilt);
+			solver.solve(1);
+			for (int v = 1; v <= n; v++) {
+				assertEquals(solver.getDistance(v), dynamic.getDistance(v));
+				int predecessor = dynamic.getPredecessor(v);
+				if (predecessor >= 0)
+					assertEquals(dynamic.getDistance(v), dynamic.getDistance(predecessor) + edges.get((long) predecessor * (n + 1) + v));
+			}
+		}
+	}
+
+	@Test
+	public void dynamicSpreadsDropOfRebuiltSubtree() {
+		//one batch lengthens the tree edge into 2 and shortens another edge into it, so 2 ends below its old distance
+		Map<Integer, List<Edge>> small = new Hashtable<Integer, List<Edge>>();
+		addEdge(small, 0, 1, 2);
+		addEdge(small, 1, 2, 2);
+		addEdge(small, 0, 3, 1);
+		addEdge(small, 3, 2, 10);
+		addEdge(small, 2, 4, 2);
+		addEdge(small, 0, 4, 5);
+		DynamicShortestPaths dynamic = new DynamicShortestPaths(DijkstraSolver.toCsr(small), 0);
+		assertEquals(4, dynamic.getDistance(2));
+		assertEquals(5, dynamic.getDistance(4));
+		dynamic.setEdge(1, 2, 100);
+		dynamic.setEdge(3, 2, 0);
+		dynamic.update();
+		assertEquals(1, dynamic.getDistance(2));
+		assertEquals(3, dynamic.getDistance(4));
+		assertEquals(2, dynamic.getPredecessor(4));
+	}
+
+	static void addEdge(Map<Integer, List<Edge>> graph, int from, int to, int length) {
+		if (!graph.containsKey(from))
+			graph.put(from, new ArrayList<Edge>());
+		graph.get(from).add(new Edge(to, length, from));
+	}
+
+	/**
+	 * Reference distances computed by repeatedly relaxing every edge
+	 */
+	static long[] bellmanFord(Map<Integer, List<Edge>> graph, int n, int source) {
+		long[] distances = new long[n + 1];
+		Arrays.fill(distances, Long.MAX_VALUE);
+		distances[source] = 0;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (List<Edge> edges : graph.values()) {
+				for (Edge edge : edges) {
+					if (distances[edge.origin] != Long.MAX_VALUE && distances[edge.origin] + edge.l < distances[edge.v]) {
+						distances[edge.v] = distances[edge.origin] + edge.l;
+						changed = true;
+					}
+				}
+			}
+		}
+		return distances;
+	}
+}
@@ -0,0 +1,351 @@
+package Dijkstras;
+
+import graph.Graph;
+import graph.NeighborCursor;
+
+import java.util.Arrays;
+
+/**
+ * Single source shortest paths kept up to date under batches of edge insertions, deletions and weight changes,
+ * repairing only the part of the shortest path tree the batch affects (Ramalingam and Reps' dynamic SSSP).
+ * Edge changes are recorded by setEdge and removeEdge and applied together by update, in two phases:
+ * <ol>
+ * <li>Edges that got longer or were removed invalidate the subtree below them when they were tree edges. Each vertex of
+ * the subtree restarts from its best incoming edge from outside the subtree, and a Dijkstra restricted to the subtree
+ * settles them again.</li>
+ * <li>Edges that got shorter or were added lower the distance of their head, and a Dijkstra from those heads spreads the
+ * improvement for as far as it reaches.</li>
+ * </ol>
+ * Both phases only visit vertices whose distance or predecessor can change, plus their edges, so a small batch costs far
+ * less than solving again. Parallel edges are merged into the shortest one, and the vertex set is fixed at construction.
+ * @author sandasai
+ *
+ */
+public class DynamicShortestPaths {
+
+	private final int n;
+
+	//the graph as growable out and in adjacency lists with matching weights
+	private final int[][] outTargets;
+	private final int[][] outWeights;
+	private final int[] outSizes;
+	private final int[][] inTargets;
+	private final int[][] inWeights;
+	private final int[] inSizes;
+
+	private final long[] distances;
+	private final int[] predecessors;
+
+	//edges changed since the last update: those that got longer or were removed, and those that got shorter or were added
+	private int[] longer = new int[16];
+	private int longerCount;
+	private int[] shorter = new int[16];
+	private int shorterCount;
+
+	//repair state
+	private final IndexedDHeap heap;
+	private final boolean[] affected;
+	private int[] subtree = new int[16];
+	private int[] improved = new int[16];	//vertices outside the subtree that phase one lowered, spread by phase two
+	private int improvedCount;
+
+	/**
+	 * Solves the graph from a source
+	 * @param graph weighted graph
+	 * @param source
+	 */
+	DynamicShortestPaths(Graph graph, int source) {
+		if (!graph.isWeighted())
+			throw new IllegalArgumentException("Dijkstra needs a weighted graph");
+		n = graph.vertexCount();
+		if (source < 0 || source >= n)
+			throw new IllegalArgumentException("Source is not a vertex of the graph: " + source);
+		outTargets = new int[n][];
+		outWeights = new int[n][];
+		outSizes = new int[n];
+		inTargets = new int[n][];
+		inWeights = new int[n][];
+		inSizes = new int[n];
+		for (int v = 0; v < n; v++) {
+			outTargets[v] = new int[Math.max(graph.degree(v), 2)];
+			outWeights[v] = new int[outTargets[v].length];
+			inTargets[v] = new int[2];
+			inWeights[v] = new int[2];
+		}
+		NeighborCursor cursor = graph.cursor();
+		for (int u = 0; u < n; u++) {
+			cursor.reset(u);
+			while (cursor.next()) {
+				int slot = find(outTargets[u], outSizes[u], cursor.target());
+				if (slot < 0)
+					link(u, cursor.target(), cursor.weight());
+				else if (cursor.weight() < outWeights[u][slot])
+					reweight(u, slot, cursor.weight());
+			}
+		}
+
+		DijkstraSolver solver = new DijkstraSolver(graph);
+		solver.solve(source);
+		distances = new long[n];
+		predecessors = new int[n];
+		for (int v = 0; v < n; v++) {
+			distances[v] = solver.getDistance(v);
+			predecessors[v] = solver.getPredecessor(v);
+		}
+		heap = new IndexedDHeap(n);
+		affected = new boolean[n];
+	}
+
+	/**
+	 * Adds an edge, or changes the weight of an existing one. Takes effect at the next update
+	 * @param u
+	 * @param v
+	 * @param weight non-negative
+	 */
+	public void setEdge(int u, int v, int weight) {
+		checkVertex(u);
+		checkVertex(v);
+		if (weight < 0)
+			throw new IllegalArgumentException("Negative edge weight: " + weight);
+		int slot = find(outTargets[u], outSizes[u], v);
+		if (slot < 0) {
+			link(u, v, weight);
+			shorter = record(shorter, shorterCount, u, v);
+			shorterCount += 2;
+		} else if (weight != outWeights[u][slot]) {
+			boolean longerNow = weight > outWeights[u][slot];
+			reweight(u, slot, weight);
+			if (longerNow) {
+				longer = record(longer, longerCount, u, v);
+				longerCount += 2;
+			} else {
+				shorter = record(shorter, shorterCount, u, v);
+				shorterCount += 2;
+			}
+		}
+	}
+
+	/**
+	 * Removes an edge. Takes effect at the next update
+	 * @param u
+	 * @param v
+	 * @return true if the edge existed
+	 */
+	public boolean removeEdge(int u, int v) {
+		checkVertex(u);
+		checkVertex(v);
+		int slot = find(outTargets[u], outSizes[u], v);
+		if (slot < 0)
+			return false;
+		outSizes[u] = unlink(outTargets[u], outWeights[u], outSizes[u], slot);
+		inSizes[v] = unlink(inTargets[v], inWeights[v], inSizes[v], find(inTargets[v], inSizes[v], u));
+		longer = record(longer, longerCount, u, v);
+		longerCount += 2;
+		return true;
+	}
+
+	/**
+	 * Repairs the shortest path tree after the changes recorded since the last update
+	 * @return the number of vertices the repair settled
+	 */
+	public int update() {
+		int settled = repairLonger() + repairShorter();
+		longerCount = 0;
+		shorterCount = 0;
+		return settled;
+	}
+
+	/**
+	 * @param v
+	 * @return the shortest distance from the source to v as of the last update, or DijkstraSolver.UNREACHED
+	 */
+	public long getDistance(int v) {
+		if (v < 0 || v >= n)
+			return DijkstraSolver.UNREACHED;
+		return distances[v];
+	}
+
+	/**
+	 * @param v
+	 * @return the vertex before v on its shortest path as of the last update, or -1 if v is the source or unreachable
+	 */
+	public int getPredecessor(int v) {
+		if (v < 0 || v >= n)
+			return -1;
+		return predecessors[v];
+	}
+
+	/**
+	 * Phase one: recomputes the subtrees hanging from tree edges that got longer or were removed
+	 */
+	private int repairLonger() {
+		//collect the subtrees below the invalidated tree edges, marking each vertex once
+		int size = 0;
+		for (int i = 0; i < longerCount; i += 2) {
+			int v = longer[i + 1];
+			if (predecessors[v] != longer[i] || affected[v])
+				continue;
+			affected[v] = true;
+			subtree = push(subtree, size++, v);
+		}
+		//breadth first over tree children, which are the out-neighbors that name the vertex as predecessor
+		for (int i = 0; i < size; i++) {
+			int x = subtree[i];
+			for (int e = 0; e < outSizes[x]; e++) {
+				int y = outTargets[x][e];
+				if (predecessors[y] == x && !affected[y]) {
+					affected[y] = true;
+					subtree = push(subtree, size++, y);
+				}
+			}
+		}
+		if (size == 0)
+			return 0;
+		for (int i = 0; i < size; i++) {
+			int v = subtree[i];
+			distances[v] = DijkstraSolver.UNREACHED;
+			predecessors[v] = -1;
+		}
+		//each affected vertex restarts from its best edge leaving the unaffected part of the tree
+		for (int i = 0; i < size; i++) {
+			int v = subtree[i];
+			for (int e = 0; e < inSizes[v]; e++) {
+				int u = inTargets[v][e];
+				if (affected[u] || distances[u] == DijkstraSolver.UNREACHED)
+					continue;
+				long candidate = distances[u] + inWeights[v][e];
+				if (candidate < distances[v]) {
+					distances[v] = candidate;
+					predecessors[v] = u;
+				}
+			}
+			if (distances[v] != DijkstraSolver.UNREACHED)
+				heap.insert(v, distances[v]);
+		}
+		int settled = 0;
+		while (!heap.isEmpty()) {
+			int x = heap.removeMin();
+			affected[x] = false;
+			settled++;
+			for (int e = 0; e < outSizes[x]; e++) {
+				int y = outTargets[x][e];
+				long candidate = distances[x] + outWeights[x][e];
+				if (candidate >= distances[y])
+					continue;
+				distances[y] = candidate;
+				predecessors[y] = x;
+				if (affected[y]) {
+					heap.put(y, candidate);
+				} else {
+					//a shorter edge of the same batch can bring x below its old distance, and that reaches past the
+					//subtree, so phase two spreads it
+					improved = push(improved, improvedCount++, y);
+				}
+			}
+		}
+		//whatever is left cannot be reached anymore
+		for (int i = 0; i < size; i++)
+			affected[subtree[i]] = false;
+		return settled;
+	}
+
+	/**
+	 * Phase two: spreads the improvements from edges that got shorter or were added
+	 */
+	private int repairShorter() {
+		for (int i = 0; i < improvedCount; i++)
+			heap.put(improved[i], distances[improved[i]]);
+		improvedCount = 0;
+		for (int i = 0; i < shorterCount; i += 2) {
+			int u = shorter[i];
+			int v = shorter[i + 1];
+			int slot = find(outTargets[u], outSizes[u], v);
+			if (slot < 0 || distances[u] == DijkstraSolver.UNREACHED)
+				continue;
+			long candidate = distances[u] + outWeights[u][slot];
+			if (candidate < distances[v]) {
+				heap.put(v, candidate);
+				distances[v] = candidate;
+				predecessors[v] = u;
+			}
+		}
+		int settled = 0;
+		while (!heap.isEmpty()) {
+			int x = heap.removeMin();
+			settled++;
+			for (int e = 0; e < outSizes[x]; e++) {
+				int y = outTargets[x][e];
+				long candidate = distances[x] + outWeights[x][e];
+				if (candidate < distances[y]) {
+					heap.put(y, candidate);
+					distances[y] = candidate;
+					predecessors[y] = x;
+				}
+			}
+		}
+		return settled;
+	}
+
+	private void checkVertex(int v) {
+		if (v < 0 || v >= n)
+			throw new IllegalArgumentException("Not a vertex of the graph: " + v);
+	}
+
+	private void link(int u, int v, int weight) {
+		if (outSizes[u] == outTargets[u].length) {
+			outTargets[u] = Arrays.copyOf(outTargets[u], outSizes[u] * 2);
+			outWeights[u] = Arrays.copyOf(outWeights[u], outSizes[u] * 2);
+		}
+		outTargets[u][outSizes[u]] = v;
+		outWeights[u][outSizes[u]++] = weight;
+		if (inSizes[v] == inTargets[v].length) {
+			inTargets[v] = Arrays.copyOf(inTargets[v], inSizes[v] * 2);
+			inWeights[v] = Arrays.copyOf(inWeights[v], inSizes[v] * 2);
+		}
+		inTargets[v][inSizes[v]] = u;
+		inWeights[v][inSizes[v]++] = weight;
+	}
+
+	/**
+	 * Changes the weight of u's edge at a slot of its out list, and the matching entry of the head's in list
+	 */
+	private void reweight(int u, int slot, int weight) {
+		int v = outTargets[u][slot];
+		outWeights[u][slot] = weight;
+		inWeights[v][find(inTargets[v], inSizes[v], u)] = weight;
+	}
+
+	private static int find(int[] targets, int size, int v) {
+		for (int i = 0; i < size; i++) {
+			if (targets[i] == v)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes the entry at a slot of an adjacency list by moving the last entry into it
+	 * @return the new size of the list
+	 */
+	private static int unlink(int[] targets, int[] weights, int size, int slot) {
+		size--;
+		targets[slot] = targets[size];
+		weights[slot] = weights[size];
+		return size;
+	}
+
+	private static int[] record(int[] edges, int count, int u, int v) {
+		if (count + 2 > edges.length)
+			edges = Arrays.copyOf(edges, edges.length * 2);
+		edges[count] = u;
+		edges[count + 1] = v;
+		return edges;
+	}
+
+	private static int[] push(int[] values, int size, int value) {
+		if (size == values.length)
+			values = Arrays.copyOf(values, size * 2);
+		values[size] = value;
+		return values;
+	}
+}
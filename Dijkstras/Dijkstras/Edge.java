@@ -1,3 +1,4 @@
+package Dijkstras;
 
 public class Edge implements Comparable<Edge> {
 	public Integer origin;
@@ -0,0 +1,281 @@
+package Dijkstras;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed Fibonacci heap of int vertices keyed by long priorities, with every node's links in flat arrays.
+ * Insert and decrease-key are O(1) amortized: decrease-key cuts the node into the root list and cascades cuts up through
+ * parents that already lost a child. removeMin consolidates the root list so no two roots have the same degree,
+ * in O(log n) amortized.
+ * @author sandasai
+ *
+ */
+public class FibonacciHeap implements VertexQueue {
+
+	private static final int NONE = -1;
+
+	//degrees are bounded by log base phi of the size, under 46 for any int count of vertices
+	private static final int MAX_DEGREE = 48;
+
+	private final int[] parent;
+	private final int[] child;
+
+	//circular doubly linked sibling lists, the root list included
+	private final int[] left;
+	private final int[] right;
+	private final int[] degree;
+	private final boolean[] marked;
+	private final long[] keys;
+	private final boolean[] queued;
+
+	private int min = NONE;
+	private int size;
+
+	//consolidation scratch space
+	private final int[] byDegree = new int[MAX_DEGREE];
+	private int[] roots = new int[16];
+
+	/**
+	 * @param capacity one more than the largest vertex id
+	 */
+	FibonacciHeap(int capacity) {
+		parent = new int[capacity];
+		child = new int[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		degree = new int[capacity];
+		marked = new boolean[capacity];
+		keys = new long[capacity];
+		queued = new boolean[capacity];
+		Arrays.fill(byDegree, NONE);
+	}
+
+	public void insert(int vertex, long priority) {
+		if (queued[vertex])
+			throw new IllegalArgumentException("Vertex already in heap: " + vertex);
+		queued[vertex] = true;
+		keys[vertex] = priority;
+		parent[vertex] = NONE;
+		child[vertex] = NONE;
+		degree[vertex] = 0;
+		marked[vertex] = false;
+		addRoot(vertex);
+		size++;
+	}
+
+	public void decreaseKey(int vertex, long priority) {
+		if (!queued[vertex])
+			throw new NoSuchElementException("Vertex not in heap: " + vertex);
+		if (priority > keys[vertex])
+			throw new IllegalArgumentException("New priority is larger than the current priority");
+		keys[vertex] = priority;
+		int p = parent[vertex];
+		if (p != NONE && priority < keys[p]) {
+			cut(vertex);
+			cascadingCut(p);
+		}
+		if (priority < keys[min])
+			min = vertex;
+	}
+
+	public int removeMin() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		int z = min;
+		//the children of the minimum become roots
+		int c = child[z];
+		while (c != NONE) {
+			int following = right[c] == c ? NONE : right[c];
+			unlinkSibling(c);
+			child[z] = following;
+			parent[c] = NONE;
+			marked[c] = false;
+			splice(c, z);
+			c = following;
+		}
+		int following = right[z];
+		unlinkSibling(z);
+		queued[z] = false;
+		size--;
+		min = following == z ? NONE : following;
+		if (min != NONE)
+			consolidate();
+		return z;
+	}
+
+	public boolean remove(int vertex) {
+		if (!queued[vertex])
+			return false;
+		int p = parent[vertex];
+		if (p != NONE) {
+			cut(vertex);
+			cascadingCut(p);
+		}
+		//as if its priority had dropped below every other
+		min = vertex;
+		removeMin();
+		return true;
+	}
+
+	public int peekMin() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return min;
+	}
+
+	public long minPriority() {
+		return keys[peekMin()];
+	}
+
+	public boolean contains(int vertex) {
+		return queued[vertex];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Empties the heap in O(size) by walking every sibling list
+	 */
+	public void clear() {
+		if (min != NONE) {
+			int[] stack = new int[16];
+			int top = 0;
+			stack[top++] = min;
+			while (top > 0) {
+				int first = stack[--top];
+				int v = first;
+				do {
+					queued[v] = false;
+					if (child[v] != NONE) {
+						if (top == stack.length)
+							stack = Arrays.copyOf(stack, top * 2);
+						stack[top++] = child[v];
+					}
+					v = right[v];
+				} while (v != first);
+			}
+		}
+		min = NONE;
+		size = 0;
+	}
+
+	/**
+	 * Links roots of equal degree until every root has a distinct degree, then finds the new minimum
+	 */
+	private void consolidate() {
+		int count = 0;
+		int v = min;
+		do {
+			if (count == roots.length)
+				roots = Arrays.copyOf(roots, count * 2);
+			roots[count++] = v;
+			v = right[v];
+		} while (v != min);
+		int maxDegree = 0;
+		for (int i = 0; i < count; i++) {
+			int x = roots[i];
+			int d = degree[x];
+			while (byDegree[d] != NONE) {
+				int y = byDegree[d];
+				if (keys[y] < keys[x]) {
+					int swap = x;
+					x = y;
+					y = swap;
+				}
+				//y becomes a child of x
+				unlinkSibling(y);
+				parent[y] = x;
+				marked[y] = false;
+				if (child[x] == NONE) {
+					child[x] = y;
+					left[y] = y;
+					right[y] = y;
+				} else {
+					splice(y, child[x]);
+				}
+				degree[x]++;
+				byDegree[d] = NONE;
+				d++;
+			}
+			byDegree[d] = x;
+			maxDegree = Math.max(maxDegree, d);
+		}
+		min = NONE;
+		for (int d = 0; d <= maxDegree; d++) {
+			int x = byDegree[d];
+			if (x == NONE)
+				continue;
+			byDegree[d] = NONE;
+			if (min == NONE || keys[x] < keys[min])
+				min = x;
+		}
+	}
+
+	/**
+	 * Moves a node, with its subtree, from its parent's child list to the root list
+	 */
+	private void cut(int v) {
+		int p = parent[v];
+		if (child[p] == v)
+			child[p] = right[v] == v ? NONE : right[v];
+		unlinkSibling(v);
+		degree[p]--;
+		parent[v] = NONE;
+		marked[v] = false;
+		splice(v, min);
+	}
+
+	/**
+	 * Cuts parents that lose a second child, so subtree sizes stay exponential in their degree
+	 */
+	private void cascadingCut(int v) {
+		while (parent[v] != NONE) {
+			if (!marked[v]) {
+				marked[v] = true;
+				return;
+			}
+			int p = parent[v];
+			cut(v);
+			v = p;
+		}
+	}
+
+	private void addRoot(int v) {
+		if (min == NONE) {
+			left[v] = v;
+			right[v] = v;
+			min = v;
+		} else {
+			splice(v, min);
+			if (keys[v] < keys[min])
+				min = v;
+		}
+	}
+
+	/**
+	 * Inserts a detached node into the circular list containing another node, to its left
+	 */
+	private void splice(int v, int into) {
+		left[v] = left[into];
+		right[v] = into;
+		right[left[into]] = v;
+		left[into] = v;
+	}
+
+	/**
+	 * Removes a node from its circular sibling list
+	 */
+	private void unlinkSibling(int v) {
+		right[left[v]] = right[v];
+		left[right[v]] = left[v];
+		left[v] = v;
+		right[v] = v;
+	}
+}
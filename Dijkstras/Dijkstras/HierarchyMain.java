@@ -0,0 +1,62 @@
+package Dijkstras;
+
+import graph.Graph;
+import graph.GraphLoader;
+
+import java.io.File;
+import java.io.IOException;
+
+public class HierarchyMain {
+
+	private static Graph graph;
+
+	/**
+	 * @param args 0 - weighted adjacency list file or binary graph file, as for Main
+	 * 			   1 - contraction hierarchy index file, built and saved there if it does not exist or belongs to another graph
+	 * 			   2+ - which vertices to compute shortest path to from vertex 1
+	 */
+	public static void main(String args[]) {
+		File indexFile = new File(args[1]);
+		try {
+			graph = GraphLoader.load(new File(args[0]), true);
+			ContractionHierarchy hierarchy = null;
+			if (indexFile.exists()) {
+				try {
+					hierarchy = ContractionHierarchy.load(indexFile, graph);
+				} catch(IOException exception) {
+					System.out.println(exception.getMessage() + ", rebuilding it");
+				}
+			}
+			if (hierarchy == null) {
+				long start = System.nanoTime();
+				hierarchy = ContractionHierarchy.build(graph);
+				System.out.println("Contracted " + graph.vertexCount() + " vertices in " + (System.nanoTime() - start) / 1000000
+						+ " ms, " + graph.edgeCount() + " edges became " + hierarchy.edgeCount());
+				hierarchy.save(indexFile);
+			}
+			HierarchyQuery query = new HierarchyQuery(hierarchy);
+			for (int i = 2; i < args.length; i++) {
+				int vertex = Integer.parseInt(args[i]);
+				long start = System.nanoTime();
+				Integer path = query.getShortestPath(vertex(1), vertex(vertex));
+				long micros = (System.nanoTime() - start) / 1000;
+				System.out.println("Vertex: " + vertex + " shortest path length: " + path + " (" + micros + " us)");
+			}
+		} catch(IOException exception) {
+			System.out.println(exception);
+		} catch(IllegalArgumentException exception) {
+			System.out.println(exception);
+		}
+	}
+
+	/**
+	 * @param v vertex id in the input file
+	 * @return v
+	 * @throws IllegalArgumentException if the graph has no vertex v
+	 */
+	private static int vertex(int v) {
+		if (v < 0 || v >= graph.vertexCount())
+			throw new IllegalArgumentException("Not a vertex of the graph: " + v);
+		return v;
+	}
+}
@@ -0,0 +1,153 @@
+package Dijkstras;
+
+import graph.NeighborCursor;
+
+import java.util.Arrays;
+
+/**
+ * Point to point shortest paths on a contraction hierarchy. A forward search from the source and a backward search from
+ * the target each only follow edges towards higher ranked vertices, and the shortest path is the best vertex where they meet.
+ * Both searches stay in the small upward cone of their start vertex, so a query settles a few hundred vertices on graphs where
+ * DijkstraSolver would scan most of the graph.
+ * The query is reusable; each query only resets the vertices the previous query touched.
+ * @author sandasai
+ *
+ */
+public class HierarchyQuery {
+
+	private final Side forward;
+	private final Side backward;
+
+	/**
+	 * @param hierarchy
+	 */
+	HierarchyQuery(ContractionHierarchy hierarchy) {
+		forward = new Side(hierarchy.upward().cursor(), hierarchy.vertexCount());
+		backward = new Side(hierarchy.downwardReversed().cursor(), hierarchy.vertexCount());
+	}
+
+	/**
+	 * Computes the shortest distance from source to target
+	 * @param source
+	 * @param target
+	 * @return the distance, or DijkstraSolver.UNREACHED if there is no path
+	 */
+	public long query(int source, int target) {
+		forward.reset();
+		backward.reset();
+		int n = forward.distances.length;
+		if (source < 0 || source >= n || target < 0 || target >= n)
+			return DijkstraSolver.UNREACHED;
+		forward.start(source);
+		backward.start(target);
+		long best = DijkstraSolver.UNREACHED;
+		//unlike plain bidirectional Dijkstra the searches cannot stop at the first meeting, only once neither can still improve on it
+		while (true) {
+			boolean forwardLive = !forward.heap.isEmpty() && forward.heap.minPriority() < best;
+			boolean backwardLive = !backward.heap.isEmpty() && backward.heap.minPriority() < best;
+			if (!forwardLive && !backwardLive)
+				break;
+			if (forwardLive && (!backwardLive || forward.heap.minPriority() <= backward.heap.minPriority()))
+				best = forward.settleNext(backward, best);
+			else
+				best = backward.settleNext(forward, best);
+		}
+		return best;
+	}
+
+	/**
+	 * Same answer as DijkstraSolver.getShortestPath after solving from the source
+	 * @param source
+	 * @param target
+	 * @return the shortest Path from source to target, or null if there is none
+	 * @throws ArithmeticException if the distance does not fit in an int
+	 */
+	public Integer getShortestPath(int source, int target) {
+		long distance = query(source, target);
+		if (distance == DijkstraSolver.UNREACHED)
+			return null;
+		if (distance > Integer.MAX_VALUE)
+			throw new ArithmeticException("Distance from " + source + " to " + target + " is " + distance + ", use query");
+		return (int) distance;
+	}
+
+	/**
+	 * @return the number of vertices settled by both searches in the last query
+	 */
+	public int getSettledCount() {
+		return forward.settledCount + backward.settledCount;
+	}
+
+	/**
+	 * One upward search
+	 */
+	private static class Side {
+		final NeighborCursor cursor;
+		final long[] distances;
+		final boolean[] settled;
+		final IndexedDHeap heap;
+		int[] touched = new int[16];
+		int touchedCount;
+		int settledCount;
+
+		Side(NeighborCursor cursor, int n) {
+			this.cursor = cursor;
+			distances = new long[n];
+			settled = new boolean[n];
+			heap = new IndexedDHeap(n);
+			Arrays.fill(distances, DijkstraSolver.UNREACHED);
+		}
+
+		void start(int vertex) {
+			distances[vertex] = 0;
+			touch(vertex);
+			heap.insert(vertex, 0);
+		}
+
+		/**
+		 * Settles the closest vertex of this side and relaxes its upward edges
+		 * @param other - the opposite search
+		 * @param best - shortest source to target path found so far
+		 * @return the shortest path found so far, including a meeting at the settled vertex
+		 */
+		long settleNext(Side other, long best) {
+			int vertex = heap.removeMin();
+			settled[vertex] = true;
+			settledCount++;
+			long distance = distances[vertex];
+			if (other.distances[vertex] != DijkstraSolver.UNREACHED && distance + other.distances[vertex] < best)
+				best = distance + other.distances[vertex];
+			cursor.reset(vertex);
+			while (cursor.next()) {
+				int to = cursor.target();
+				long candidate = distance + cursor.weight();
+				if (!settled[to] && candidate < distances[to]) {
+					if (distances[to] == DijkstraSolver.UNREACHED) {
+						heap.insert(to, candidate);
+						touch(to);
+					} else {
+						heap.decreaseKey(to, candidate);
+					}
+					distances[to] = candidate;
+				}
+			}
+			return best;
+		}
+
+		private void touch(int v) {
+			if (touchedCount == touched.length)
+				touched = Arrays.copyOf(touched, touchedCount * 2);
+			touched[touchedCount++] = v;
+		}
+
+		void reset() {
+			for (int i = 0; i < touchedCount; i++) {
+				distances[touched[i]] = DijkstraSolver.UNREACHED;
+				settled[touched[i]] = false;
+			}
+			touchedCount = 0;
+			settledCount = 0;
+			heap.clear();
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package Dijkstras;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed d-ary min heap of int vertices keyed by long priorities.
+ * Vertices are ids in [0, capacity) and their heap slots are tracked in a flat position array,
+ * so lookups, decrease-key and removal by vertex never touch a map or allocate.
+ * @author sandasai
+ *
+ */
+public class IndexedDHeap implements VertexQueue {
+
+	//position value for vertices that are not in the heap
+	private static final int ABSENT = -1;
+
+	//vertex stored at each heap slot
+	private int[] heap;
+
+	//priority of the vertex stored at each heap slot
+	private long[] keys;
+
+	//heap slot of each vertex, or ABSENT
+	private int[] position;
+
+	//log2 of the arity, children of slot i are at (i << shift) + 1 ... (i << shift) + arity
+	private final int shift;
+	private final int arity;
+
+	private int size;
+
+	/**
+	 * Creates a 4-ary heap for vertices in [0, capacity)
+	 * @param capacity one more than the largest vertex id
+	 */
+	IndexedDHeap(int capacity) {
+		this(capacity, 4);
+	}
+
+	/**
+	 * Creates a heap for vertices in [0, capacity)
+	 * @param capacity one more than the largest vertex id
+	 * @param arity number of children per node, a power of two such as 2, 4 or 8
+	 */
+	IndexedDHeap(int capacity, int arity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("Capacity must not be negative");
+		if (arity < 2 || Integer.bitCount(arity) != 1)
+			throw new IllegalArgumentException("Arity must be a power of two: " + arity);
+		this.arity = arity;
+		this.shift = Integer.numberOfTrailingZeros(arity);
+		heap = new int[Math.max(capacity, 1)];
+		keys = new long[heap.length];
+		position = new int[capacity];
+		Arrays.fill(position, ABSENT);
+	}
+
+	/**
+	 * Adds a vertex to the heap, or moves it to the new priority if it is already in the heap
+	 * @param vertex
+	 * @param priority
+	 */
+	public void put(int vertex, long priority) {
+		int i = position[vertex];
+		if (i == ABSENT) {
+			insert(vertex, priority);
+		} else if (priority < keys[i]) {
+			keys[i] = priority;
+			siftUp(i);
+		} else {
+			keys[i] = priority;
+			siftDown(i);
+		}
+	}
+
+	/**
+	 * Adds a vertex that is not in the heap
+	 * @param vertex
+	 * @param priority
+	 */
+	public void insert(int vertex, long priority) {
+		if (position[vertex] != ABSENT)
+			throw new IllegalArgumentException("Vertex already in heap: " + vertex);
+		int i = size++;
+		heap[i] = vertex;
+		keys[i] = priority;
+		position[vertex] = i;
+		siftUp(i);
+	}
+
+	/**
+	 * Lowers the priority of a vertex already in the heap
+	 * @param vertex
+	 * @param priority must not be larger than the current priority
+	 */
+	public void decreaseKey(int vertex, long priority) {
+		int i = position[vertex];
+		if (i == ABSENT)
+			throw new NoSuchElementException("Vertex not in heap: " + vertex);
+		if (priority > keys[i])
+			throw new IllegalArgumentException("New priority is larger than the current priority");
+		keys[i] = priority;
+		siftUp(i);
+	}
+
+	/**
+	 * Removes the vertex with the smallest priority
+	 * @return the removed vertex
+	 */
+	public int removeMin() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		int min = heap[0];
+		removeAt(0);
+		return min;
+	}
+
+	/**
+	 * Removes a vertex from the heap
+	 * @param vertex
+	 * @return true if the vertex was in the heap
+	 */
+	public boolean remove(int vertex) {
+		int i = position[vertex];
+		if (i == ABSENT)
+			return false;
+		removeAt(i);
+		return true;
+	}
+
+	/**
+	 * @return the vertex with the smallest priority, without removing it
+	 */
+	public int peekMin() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return heap[0];
+	}
+
+	/**
+	 * @return the smallest priority in the heap
+	 */
+	public long minPriority() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return keys[0];
+	}
+
+	/**
+	 * @param vertex
+	 * @return the priority of a vertex in the heap
+	 */
+	public long priority(int vertex) {
+		int i = position[vertex];
+		if (i == ABSENT)
+			throw new NoSuchElementException("Vertex not in heap: " + vertex);
+		return keys[i];
+	}
+
+	public boolean contains(int vertex) {
+		return position[vertex] != ABSENT;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int arity() {
+		return arity;
+	}
+
+	/**
+	 * Empties the heap. Costs O(size) rather than O(capacity) so the heap can be reused between solves
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++)
+			position[heap[i]] = ABSENT;
+		size = 0;
+	}
+
+	/**
+	 * Removes the node at a heap slot by moving the last node into it
+	 * @param i
+	 */
+	private void removeAt(int i) {
+		position[heap[i]] = ABSENT;
+		int last = --size;
+		if (i == last)
+			return;
+		int moved = heap[last];
+		long movedKey = keys[last];
+		heap[i] = moved;
+		keys[i] = movedKey;
+		position[moved] = i;
+		//the moved node may belong above or below the hole
+		if (i > 0 && movedKey < keys[(i - 1) >> shift])
+			siftUp(i);
+		else
+			siftDown(i);
+	}
+
+	/**
+	 * Heapify moving from child -> parent. The node is held aside and written once at its final slot
+	 * @param i
+	 */
+	private void siftUp(int i) {
+		int vertex = heap[i];
+		long key = keys[i];
+		while (i > 0) {
+			int parent = (i - 1) >> shift;
+			if (keys[parent] <= key)
+				break;
+			heap[i] = heap[parent];
+			keys[i] = keys[parent];
+			position[heap[i]] = i;
+			i = parent;
+		}
+		heap[i] = vertex;
+		keys[i] = key;
+		position[vertex] = i;
+	}
+
+	/**
+	 * Heapify moving from parent -> smallest child
+	 * @param i
+	 */
+	private void siftDown(int i) {
+		int vertex = heap[i];
+		long key = keys[i];
+		while (true) {
+			int first = (i << shift) + 1;
+			if (first >= size)
+				break;
+			int last = Math.min(first + arity, size);
+			int smallest = first;
+			long smallestKey = keys[first];
+			for (int c = first + 1; c < last; c++) {
+				if (keys[c] < smallestKey) {
+					smallest = c;
+					smallestKey = keys[c];
+				}
+			}
+			if (key <= smallestKey)
+				break;
+			heap[i] = heap[smallest];
+			keys[i] = smallestKey;
+			position[heap[i]] = i;
+			i = smallest;
+		}
+		heap[i] = vertex;
+		keys[i] = key;
+		position[vertex] = i;
+	}
+
+	public String toString() {
+		StringBuilder returnString = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			returnString.append(' ').append(keys[i]).append(':').append(heap[i]);
+		}
+		return returnString.toString().trim();
+	}
+}
@@ -0,0 +1,105 @@
+package Dijkstras;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndexedDHeapTest {
+
+	//priority:	{1, 2, 10, 5, 7, 13, 17, 50, 14, 89, 100 }
+	//vertex:	{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }
+	List<Long> list;
+	IndexedDHeap testHeap;
+
+	@Before
+	public void setup() {
+		list = new ArrayList<Long>();
+		testHeap = new IndexedDHeap(100);
+		long[] elements = new long[] {1, 2, 10, 5, 7, 13, 17, 50, 14, 89, 100 };
+		for (int i = 0; i < elements.length; i++) {
+			list.add(elements[i]);
+			testHeap.insert(i, elements[i]);
+		}
+	}
+
+	@Test
+	public void expectingMins() {
+		Collections.sort(list);
+		for (int i = 0; i < list.size(); i++) {
+			assertEquals((long) list.get(i), testHeap.minPriority());
+			testHeap.removeMin();
+		}
+		assertTrue(testHeap.isEmpty());
+	}
+
+	@Test
+	public void decreasingKeys() {
+		testHeap.decreaseKey(10, 0);
+		testHeap.decreaseKey(9, 3);
+		assertEquals(10, testHeap.removeMin());
+		assertEquals(0, testHeap.removeMin());
+		assertEquals(1, testHeap.removeMin());
+		assertEquals(9, testHeap.removeMin());
+		assertEquals(3, testHeap.removeMin());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void decreaseKeyRejectsLargerPriority() {
+		testHeap.decreaseKey(0, 1000);
+	}
+
+	@Test
+	public void removingAtSpecificVertex() {
+		assertTrue(testHeap.remove(3));
+		assertFalse(testHeap.remove(3));
+		assertFalse(testHeap.contains(3));
+		testHeap.put(3, 6);
+		testHeap.put(7, 4);
+		long[] priorities = new long[] { 1, 2, 4, 6, 7, 10, 13, 14, 17, 89, 100 };
+		int[] vertices = new int[] { 0, 1, 7, 3, 4, 2, 5, 8, 6, 9, 10 };
+		for (int i = 0; i < priorities.length; i++) {
+			assertEquals(priorities[i], testHeap.minPriority());
+			assertEquals(vertices[i], testHeap.removeMin());
+		}
+		assertEquals(0, testHeap.size());
+	}
+
+	@Test
+	public void puttingRandomsAndRemovingMinsForEachArity() {
+		int[] arities = new int[] { 2, 4, 8 };
+		Random r = new Random(11);
+		for (int arity : arities) {
+			IndexedDHeap heap = new IndexedDHeap(10000, arity);
+			for (int i = 0; i < 20000; i++) {
+				int vertex = r.nextInt(10000);
+				if (r.nextInt(4) == 0)
+					heap.remove(vertex);
+				else
+					heap.put(vertex, r.nextInt(100000));
+			}
+			long previous = Long.MIN_VALUE;
+			while (!heap.isEmpty()) {
+				long next = heap.minPriority();
+				heap.removeMin();
+				assertTrue(previous <= next);
+				previous = next;
+			}
+		}
+	}
+
+	@Test
+	public void clearingForReuse() {
+		testHeap.clear();
+		assertEquals(0, testHeap.size());
+		for (int i = 0; i < 11; i++)
+			assertFalse(testHeap.contains(i));
+		testHeap.insert(5, 42);
+		assertEquals(5, testHeap.peekMin());
+	}
+}
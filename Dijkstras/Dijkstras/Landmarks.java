@@ -0,0 +1,258 @@
+package Dijkstras;
+
+import graph.ChannelBuffer;
+import graph.CsrGraph;
+import graph.Graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Landmark distance tables for ALT (A*, landmarks, triangle inequality) queries.
+ * For each landmark L the distances d(L, v) and d(v, L) to every vertex are precomputed, and by the triangle inequality
+ * d(v, t) >= d(L, t) - d(L, v) and d(v, t) >= d(v, L) - d(t, L), which gives A* a consistent lower bound towards any target.
+ * The tables take 16 bytes per vertex and landmark, and can be saved so they are only computed once per graph.
+ * <pre>
+ * offset  size                   field
+ * 0       4                      magic "ALTL"
+ * 4       4                      version (1)
+ * 8       4                      vertex count n
+ * 12      8                      edge count m of the graph the tables were built for
+ * 20      4                      landmark count k
+ * 24      4 * k                  landmark vertices
+ * ...     8 * n * k              d(L, v) for each landmark, then d(v, L) for each landmark
+ * </pre>
+ * @author sandasai
+ *
+ */
+public class Landmarks {
+
+	static final int MAGIC = 0x4c544c41; //"ALTL" read as a little-endian int
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 24;
+
+	private final int vertexCount;
+	private final long edgeCount;
+	private final int[] landmarks;
+
+	//fromLandmark[i][v] = d(landmarks[i], v), toLandmark[i][v] = d(v, landmarks[i])
+	private final long[][] fromLandmark;
+	private final long[][] toLandmark;
+
+	private Landmarks(int vertexCount, long edgeCount, int[] landmarks, long[][] fromLandmark, long[][] toLandmark) {
+		this.vertexCount = vertexCount;
+		this.edgeCount = edgeCount;
+		this.landmarks = landmarks;
+		this.fromLandmark = fromLandmark;
+		this.toLandmark = toLandmark;
+	}
+
+	/**
+	 * Picks landmarks by farthest point selection: each new landmark is the vertex farthest from the landmarks chosen so far,
+	 * which spreads them over the edge of the graph where they give the tightest bounds. Vertices no landmark reaches count as
+	 * farthest, so every component gets a landmark before any component gets a second one.
+	 * @param graph weighted graph
+	 * @param count number of landmarks
+	 * @param seed picks the first landmark
+	 * @return the tables
+	 */
+	public static Landmarks farthest(Graph graph, int count, long seed) {
+		int n = graph.vertexCount();
+		CsrGraph reversed = CsrGraph.transpose(graph);
+		int[] candidates = candidates(graph, reversed);
+		count = Math.min(count, candidates.length);
+		int[] landmarks = new int[count];
+		long[][] fromLandmark = new long[count][];
+		long[] nearest = new long[n];
+		Arrays.fill(nearest, DijkstraSolver.UNREACHED);
+		boolean[] chosen = new boolean[n];
+		DijkstraSolver solver = new DijkstraSolver(graph);
+		Random random = new Random(seed);
+		for (int i = 0; i < count; i++) {
+			int landmark;
+			if (i == 0) {
+				landmark = candidates[random.nextInt(candidates.length)];
+			} else {
+				landmark = -1;
+				for (int v : candidates) {
+					if (!chosen[v] && (landmark < 0 || nearest[v] > nearest[landmark]))
+						landmark = v;
+				}
+			}
+			chosen[landmark] = true;
+			landmarks[i] = landmark;
+			solver.solve(landmark);
+			fromLandmark[i] = Arrays.copyOf(solver.distances, n);
+			for (int v = 0; v < n; v++)
+				nearest[v] = Math.min(nearest[v], fromLandmark[i][v]);
+		}
+		return new Landmarks(n, graph.edgeCount(), landmarks, fromLandmark, distances(reversed, landmarks));
+	}
+
+	/**
+	 * Picks landmarks uniformly at random among the vertices that have edges
+	 * @param graph weighted graph
+	 * @param count number of landmarks
+	 * @param seed
+	 * @return the tables
+	 */
+	public static Landmarks random(Graph graph, int count, long seed) {
+		CsrGraph reversed = CsrGraph.transpose(graph);
+		int[] candidates = candidates(graph, reversed);
+		count = Math.min(count, candidates.length);
+		//partial Fisher-Yates shuffle of the candidates
+		Random random = new Random(seed);
+		for (int i = 0; i < count; i++) {
+			int j = i + random.nextInt(candidates.length - i);
+			int swap = candidates[i];
+			candidates[i] = candidates[j];
+			candidates[j] = swap;
+		}
+		int[] landmarks = Arrays.copyOf(candidates, count);
+		return new Landmarks(graph.vertexCount(), graph.edgeCount(), landmarks,
+				distances(graph, landmarks), distances(reversed, landmarks));
+	}
+
+	/**
+	 * @return the vertices with at least one incoming or outgoing edge, so unused vertex ids never become landmarks
+	 */
+	private static int[] candidates(Graph graph, Graph reversed) {
+		int[] candidates = new int[graph.vertexCount()];
+		int size = 0;
+		for (int v = 0; v < candidates.length; v++) {
+			if (graph.degree(v) > 0 || reversed.degree(v) > 0)
+				candidates[size++] = v;
+		}
+		return Arrays.copyOf(candidates, size);
+	}
+
+	/**
+	 * Full shortest path trees from every landmark, solved in parallel
+	 */
+	private static long[][] distances(Graph graph, final int[] landmarks) {
+		final long[][] rows = new long[landmarks.length][];
+		final int[] index = new int[graph.vertexCount()];
+		for (int i = 0; i < landmarks.length; i++)
+			index[landmarks[i]] = i;
+		try {
+			new BatchShortestPaths(graph).run(landmarks, new BatchShortestPaths.DistanceSink() {
+				public void accept(int source, long[] distances) {
+					rows[index[source]] = distances.clone();
+				}
+			});
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while computing landmark distances", e);
+		}
+		return rows;
+	}
+
+	/**
+	 * Lower bounds on the distance to one target, taken as the best bound over all landmarks.
+	 * Also rules out vertices that provably cannot reach the target: those reached by a landmark that does not reach the target,
+	 * and those that cannot reach a landmark the target reaches.
+	 * @param target
+	 * @return a consistent potential for DijkstraSolver.solveTowards
+	 */
+	public Potential potential(final int target) {
+		return new Potential() {
+			public long estimate(int v) {
+				long best = 0;
+				for (int i = 0; i < landmarks.length; i++) {
+					long[] from = fromLandmark[i];
+					long[] to = toLandmark[i];
+					if (from[v] != DijkstraSolver.UNREACHED) {
+						if (from[target] == DijkstraSolver.UNREACHED)
+							return DijkstraSolver.UNREACHED;
+						best = Math.max(best, from[target] - from[v]);
+					}
+					if (to[target] != DijkstraSolver.UNREACHED) {
+						if (to[v] == DijkstraSolver.UNREACHED)
+							return DijkstraSolver.UNREACHED;
+						best = Math.max(best, to[v] - to[target]);
+					}
+				}
+				return best;
+			}
+		};
+	}
+
+	/**
+	 * @return the landmark vertices
+	 */
+	public int[] landmarks() {
+		return landmarks.clone();
+	}
+
+	public int vertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Writes the tables to a file
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save(File file) throws IOException {
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			output.setLength(0);
+			ChannelBuffer buffer = ChannelBuffer.writer(output.getChannel());
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(vertexCount).putLong(edgeCount).putInt(landmarks.length);
+			buffer.putInts(landmarks);
+			for (long[][] table : new long[][][] { fromLandmark, toLandmark }) {
+				for (long[] row : table) {
+					for (long distance : row)
+						buffer.putLong(distance);
+				}
+			}
+			buffer.flush();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Reads tables written by save
+	 * @param file
+	 * @param graph the graph the tables belong to
+	 * @return the tables
+	 * @throws IOException if the file is not a landmark file or was built for a graph of a different size
+	 */
+	public static Landmarks load(File file, Graph graph) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			ChannelBuffer buffer = ChannelBuffer.reader(channel, "landmark file: " + file);
+			if (buffer.getInt() != MAGIC)
+				throw new IOException("Not a landmark file: " + file);
+			int version = buffer.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported landmark file version " + version + ": " + file);
+			int n = buffer.getInt();
+			long m = buffer.getLong();
+			int k = buffer.getInt();
+			if (n != graph.vertexCount() || m != graph.edgeCount())
+				throw new IOException("Landmark file was built for a different graph: " + file);
+			if (k < 0 || channel.size() != HEADER_BYTES + 4L * k + 16L * k * n)
+				throw new IOException("Landmark file size does not match its header: " + file);
+			int[] landmarks = new int[k];
+			buffer.getInts(landmarks);
+			long[][] fromLandmark = new long[k][n];
+			long[][] toLandmark = new long[k][n];
+			for (long[][] table : new long[][][] { fromLandmark, toLandmark }) {
+				for (long[] row : table) {
+					for (int v = 0; v < n; v++)
+						row[v] = buffer.getLong();
+				}
+			}
+			return new Landmarks(n, m, landmarks, fromLandmark, toLandmark);
+		} finally {
+			input.close();
+		}
+	}
+}
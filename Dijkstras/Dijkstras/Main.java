@@ -1,56 +1,66 @@
+package Dijkstras;
+
+import graph.Graph;
+import graph.GraphLoader;
+import graph.Relabeling;
+
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
-import java.util.Map;
-import java.util.Scanner;
-import java.util.Set;
 
 public class Main {
-	static Map<Integer, List<Edge>> graph;
+	static Graph graph;
+	static Relabeling relabeling;
 	static DijkstraSolver solver;
 
 	/**
-	 * @param args 0 - file integers with each row representing an adjacency list with weights
+	 * @param args 0 - file integers with each row representing an adjacency list with weights, or a binary graph file
 	 * 			   1+ - which vertices to compute shortest path to from vertex 1
+	 * The frontier queue can be chosen with -Dqueue=NAME, one of the QueueType names, FOUR_ARY_HEAP by default,
+	 * and the graph relabeled for locality with -Dgraph.reorder=NAME, one of the Relabeling.Order names
 	 */
 	public static void main(String args[]) {
 		File dijkstraData = new File(args[0]);
-		graph = new Hashtable<Integer, List<Edge>>();
 		try {
-			@SuppressWarnings("resource")
-			Scanner input = new Scanner(dijkstraData);
-			while (input.hasNextLine()) {
-				String line = input.nextLine();
-				String[] lineArr = line.split("\\s+");
-				
-				Integer vertex;
-				List<Edge> edges = new ArrayList<Edge>();
-				
-				vertex = Integer.parseInt(lineArr[0]);
-				for (int i = 1; i < lineArr.length; i++) {
-					String[] parsedEdge = lineArr[i].split(",");
-					edges.add(new Edge(Integer.parseInt(parsedEdge[0]), Integer.parseInt(parsedEdge[1]), vertex));
-				}
-				graph.put(vertex, edges);
-			}
+			graph = GraphLoader.load(dijkstraData, true);
+			relabeling = Relabeling.forProperty(graph);
+			if (relabeling != null)
+				graph = relabeling.apply(graph);
 			List<Integer> vertices = new ArrayList<Integer>();
 			//Solve shortest paths for these vertices
 			for (int i = 1; i < args.length; i++) {
 				vertices.add(Integer.parseInt(args[i]));
 			}
 			solve(vertices);
-		} catch(FileNotFoundException exception) {
+		} catch(IOException exception) {
+			System.out.println(exception);
+		} catch(IllegalArgumentException exception) {
 			System.out.println(exception);
 		}
 	}
 	
 	public static void solve(List<Integer> vertices) {
-		solver = new DijkstraSolver(graph);
-		solver.solve();
+		solver = new DijkstraSolver(graph, QueueType.valueOf(System.getProperty("queue", QueueType.FOUR_ARY_HEAP.name())));
+		int[] targets = new int[vertices.size()];
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = vertex(vertices.get(i));
+		}
+		//stop once every requested vertex is settled
+		solver.solve(vertex(1), targets, DijkstraSolver.UNREACHED);
 		for (int i = 0; i < vertices.size(); i++) {
-			System.out.println("Vertex: " + vertices.get(i) + " shortest path length: " + solver.getShortestPath(vertices.get(i)));
+			System.out.println("Vertex: " + vertices.get(i) + " shortest path length: " + solver.getShortestPath(vertex(vertices.get(i))));
 		}
 	}
+
+	/**
+	 * @param v vertex id in the input file
+	 * @return its id in the graph being solved
+	 * @throws IllegalArgumentException if the graph has no vertex v
+	 */
+	private static int vertex(int v) {
+		if (v < 0 || v >= graph.vertexCount())
+			throw new IllegalArgumentException("Not a vertex of the graph: " + v);
+		return relabeling == null ? v : relabeling.toNew(v);
+	}
 }
@@ -1,3 +1,5 @@
+package Dijkstras;
+
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.NoSuchElementException;
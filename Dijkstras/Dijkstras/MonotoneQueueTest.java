@@ -0,0 +1,90 @@
+package Dijkstras;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MonotoneQueueTest {
+
+	/**
+	 * Simulates Dijkstra's use of a queue: priorities never drop below the last removed minimum
+	 * and never exceed it by more than maxWeight
+	 */
+	private void removingMinsInOrder(VertexQueue queue, int maxWeight) {
+		Random r = new Random(5);
+		int n = 5000;
+		long[] priorities = new long[n];
+		boolean[] done = new boolean[n];
+		queue.insert(0, 0);
+		priorities[0] = 0;
+		long previous = 0;
+		int removed = 0;
+		while (!queue.isEmpty()) {
+			long min = queue.minPriority();
+			int vertex = queue.removeMin();
+			assertEquals(priorities[vertex], min);
+			assertTrue(previous <= min);
+			previous = min;
+			done[vertex] = true;
+			removed++;
+			for (int i = 0; i < 3; i++) {
+				int to = r.nextInt(n);
+				long candidate = min + r.nextInt(maxWeight + 1);
+				if (done[to])
+					continue;
+				if (!queue.contains(to)) {
+					queue.insert(to, candidate);
+					priorities[to] = candidate;
+				} else if (candidate < priorities[to]) {
+					queue.decreaseKey(to, candidate);
+					priorities[to] = candidate;
+				}
+			}
+		}
+		assertTrue(removed > 1);
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void radixHeapRemovesMinsInOrder() {
+		removingMinsInOrder(new RadixHeap(5000), 1000000);
+	}
+
+	@Test
+	public void dialQueueRemovesMinsInOrder() {
+		removingMinsInOrder(new DialQueue(5000, 20), 20);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void radixHeapRejectsPrioritiesBelowTheMinimum() {
+		RadixHeap heap = new RadixHeap(10);
+		heap.insert(1, 10);
+		heap.removeMin();
+		heap.insert(2, 12);
+		heap.insert(3, 9);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void dialQueueRejectsPrioritiesOutsideItsWindow() {
+		DialQueue queue = new DialQueue(10, 5);
+		queue.insert(1, 10);
+		queue.insert(2, 16);
+	}
+
+	@Test
+	public void clearingForReuse() {
+		VertexQueue[] queues = new VertexQueue[] { new RadixHeap(10), new DialQueue(10, 5) };
+		for (VertexQueue queue : queues) {
+			queue.insert(1, 100);
+			queue.insert(2, 103);
+			queue.clear();
+			assertFalse(queue.contains(1));
+			queue.insert(1, 1);
+			queue.insert(2, 3);
+			assertEquals(1, queue.removeMin());
+			assertEquals(3, queue.minPriority());
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package Dijkstras;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed pairing heap of int vertices keyed by long priorities. The heap is a multiway tree stored in flat child,
+ * sibling and back link arrays. Insert and decrease-key cut the node out and link it with the root in O(1), and all the
+ * work is deferred to removeMin, which pairs up the children of the old root in two passes.
+ * @author sandasai
+ *
+ */
+public class PairingHeap implements VertexQueue {
+
+	private static final int NONE = -1;
+
+	//first child, next sibling, and parent for a first child or previous sibling otherwise
+	private final int[] child;
+	private final int[] sibling;
+	private final int[] back;
+	private final long[] keys;
+	private final boolean[] queued;
+
+	private int root = NONE;
+	private int size;
+
+	//subtrees waiting for the second pairing pass
+	private int[] pairs = new int[16];
+
+	/**
+	 * @param capacity one more than the largest vertex id
+	 */
+	PairingHeap(int capacity) {
+		child = new int[capacity];
+		sibling = new int[capacity];
+		back = new int[capacity];
+		keys = new long[capacity];
+		queued = new boolean[capacity];
+	}
+
+	public void insert(int vertex, long priority) {
+		if (queued[vertex])
+			throw new IllegalArgumentException("Vertex already in heap: " + vertex);
+		queued[vertex] = true;
+		keys[vertex] = priority;
+		child[vertex] = NONE;
+		sibling[vertex] = NONE;
+		back[vertex] = NONE;
+		root = root == NONE ? vertex : link(root, vertex);
+		size++;
+	}
+
+	public void decreaseKey(int vertex, long priority) {
+		if (!queued[vertex])
+			throw new NoSuchElementException("Vertex not in heap: " + vertex);
+		if (priority > keys[vertex])
+			throw new IllegalArgumentException("New priority is larger than the current priority");
+		keys[vertex] = priority;
+		if (vertex != root) {
+			cut(vertex);
+			root = link(root, vertex);
+		}
+	}
+
+	public int removeMin() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		int min = root;
+		root = combine(child[min]);
+		queued[min] = false;
+		size--;
+		return min;
+	}
+
+	public boolean remove(int vertex) {
+		if (!queued[vertex])
+			return false;
+		if (vertex == root) {
+			removeMin();
+			return true;
+		}
+		cut(vertex);
+		int rest = combine(child[vertex]);
+		if (rest != NONE)
+			root = link(root, rest);
+		queued[vertex] = false;
+		size--;
+		return true;
+	}
+
+	public int peekMin() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return root;
+	}
+
+	public long minPriority() {
+		return keys[peekMin()];
+	}
+
+	public boolean contains(int vertex) {
+		return queued[vertex];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Empties the heap in O(size) by walking the tree from the root
+	 */
+	public void clear() {
+		if (root != NONE) {
+			int[] stack = new int[16];
+			int top = 0;
+			stack[top++] = root;
+			while (top > 0) {
+				for (int v = stack[--top]; v != NONE; v = sibling[v]) {
+					queued[v] = false;
+					if (child[v] != NONE) {
+						if (top == stack.length)
+							stack = Arrays.copyOf(stack, top * 2);
+						stack[top++] = child[v];
+					}
+				}
+			}
+		}
+		root = NONE;
+		size = 0;
+	}
+
+	/**
+	 * Links two roots, the one with the larger priority becomes the first child of the other
+	 * @return the new root
+	 */
+	private int link(int a, int b) {
+		if (keys[b] < keys[a]) {
+			int swap = a;
+			a = b;
+			b = swap;
+		}
+		sibling[b] = child[a];
+		if (child[a] != NONE)
+			back[child[a]] = b;
+		child[a] = b;
+		back[b] = a;
+		return a;
+	}
+
+	/**
+	 * Detaches a non-root node, with its subtree, from its parent's child list
+	 */
+	private void cut(int v) {
+		int previous = back[v];
+		if (child[previous] == v)
+			child[previous] = sibling[v];
+		else
+			sibling[previous] = sibling[v];
+		if (sibling[v] != NONE)
+			back[sibling[v]] = previous;
+		sibling[v] = NONE;
+		back[v] = NONE;
+	}
+
+	/**
+	 * Two pass pairing: links the siblings in pairs from left to right, then links the pairs from right to left
+	 * @param first first node of a child list
+	 * @return root of the combined tree, NONE for an empty list
+	 */
+	private int combine(int first) {
+		int count = 0;
+		int a = first;
+		while (a != NONE) {
+			int b = sibling[a];
+			int following = b == NONE ? NONE : sibling[b];
+			sibling[a] = NONE;
+			back[a] = NONE;
+			if (b != NONE) {
+				sibling[b] = NONE;
+				back[b] = NONE;
+				a = link(a, b);
+			}
+			if (count == pairs.length)
+				pairs = Arrays.copyOf(pairs, count * 2);
+			pairs[count++] = a;
+			a = following;
+		}
+		if (count == 0)
+			return NONE;
+		int result = pairs[--count];
+		while (count > 0)
+			result = link(pairs[--count], result);
+		return result;
+	}
+}
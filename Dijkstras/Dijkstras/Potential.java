@@ -0,0 +1,17 @@
+package Dijkstras;
+
+/**
+ * A* potential for DijkstraSolver: a lower bound on the distance from a vertex to the target of a query.
+ * The bound must be consistent, estimate(u) <= length(u, v) + estimate(v) for every edge, so that
+ * vertices are still final when they are settled.
+ * @author sandasai
+ *
+ */
+public interface Potential {
+
+	/**
+	 * @param v
+	 * @return a lower bound on the distance from v to the target, or DijkstraSolver.UNREACHED if v cannot reach the target
+	 */
+	long estimate(int v);
+}
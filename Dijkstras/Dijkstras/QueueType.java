@@ -0,0 +1,65 @@
+package Dijkstras;
+
+import graph.Graph;
+import graph.NeighborCursor;
+
+/**
+ * The frontier priority queues DijkstraSolver can run on
+ * @author sandasai
+ *
+ */
+public enum QueueType {
+	BINARY_HEAP,
+	FOUR_ARY_HEAP,
+	EIGHT_ARY_HEAP,
+	/** pairing heap, O(1) insert and amortized sublogarithmic decrease-key */
+	PAIRING_HEAP,
+	/** Fibonacci heap, O(1) amortized insert and decrease-key */
+	FIBONACCI_HEAP,
+	/** monotone radix heap, needs integer edge lengths */
+	RADIX_HEAP,
+	/** Dial's bucket queue, for small maximum edge lengths */
+	DIAL;
+
+	/**
+	 * Creates an empty queue sized for a graph
+	 * @param graph
+	 * @return the queue
+	 */
+	VertexQueue create(Graph graph) {
+		int capacity = graph.vertexCount();
+		switch (this) {
+		case BINARY_HEAP:
+			return new IndexedDHeap(capacity, 2);
+		case FOUR_ARY_HEAP:
+			return new IndexedDHeap(capacity, 4);
+		case EIGHT_ARY_HEAP:
+			return new IndexedDHeap(capacity, 8);
+		case PAIRING_HEAP:
+			return new PairingHeap(capacity);
+		case FIBONACCI_HEAP:
+			return new FibonacciHeap(capacity);
+		case RADIX_HEAP:
+			return new RadixHeap(capacity);
+		case DIAL:
+			return new DialQueue(capacity, maxWeight(graph));
+		default:
+			throw new IllegalStateException();
+		}
+	}
+
+	/**
+	 * @param graph
+	 * @return the largest edge weight in the graph, 0 if it has no edges
+	 */
+	static int maxWeight(Graph graph) {
+		NeighborCursor cursor = graph.cursor();
+		int max = 0;
+		for (int v = 0; v < graph.vertexCount(); v++) {
+			cursor.reset(v);
+			while (cursor.next())
+				max = Math.max(max, cursor.weight());
+		}
+		return max;
+	}
+}
@@ -0,0 +1,169 @@
+package Dijkstras;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Monotone radix heap for non-negative integer priorities, as used by Dijkstra with integer edge lengths.
+ * A vertex with priority k sits in the bucket numbered by the highest bit in which k differs from the last removed
+ * minimum, so buckets only ever move vertices downwards and nothing is compared with compareTo.
+ * Pushes and decrease-keys are O(1) and removeMin is amortized O(log C) for a maximum edge length C.
+ * Priorities must never be smaller than the last removed minimum.
+ * @author sandasai
+ *
+ */
+public class RadixHeap implements VertexQueue {
+
+	private static final int NONE = -1;
+	private static final int BUCKETS = 65;
+
+	//first vertex of each bucket's doubly linked list
+	private final int[] head = new int[BUCKETS];
+
+	//per vertex list links, bucket and priority
+	private final int[] next;
+	private final int[] previous;
+	private final int[] bucketOf;
+	private final long[] keys;
+
+	//the last removed minimum, every priority in the heap is at least this
+	private long last;
+	private int size;
+
+	/**
+	 * @param capacity one more than the largest vertex id
+	 */
+	RadixHeap(int capacity) {
+		next = new int[capacity];
+		previous = new int[capacity];
+		bucketOf = new int[capacity];
+		keys = new long[capacity];
+		Arrays.fill(bucketOf, NONE);
+		Arrays.fill(head, NONE);
+	}
+
+	public void insert(int vertex, long priority) {
+		if (bucketOf[vertex] != NONE)
+			throw new IllegalArgumentException("Vertex already in heap: " + vertex);
+		if (priority < last)
+			throw new IllegalArgumentException("Priority is smaller than the last removed minimum: " + priority);
+		keys[vertex] = priority;
+		link(vertex, bucket(priority));
+		size++;
+	}
+
+	public void decreaseKey(int vertex, long priority) {
+		if (bucketOf[vertex] == NONE)
+			throw new NoSuchElementException("Vertex not in heap: " + vertex);
+		if (priority > keys[vertex])
+			throw new IllegalArgumentException("New priority is larger than the current priority");
+		if (priority < last)
+			throw new IllegalArgumentException("Priority is smaller than the last removed minimum: " + priority);
+		keys[vertex] = priority;
+		int bucket = bucket(priority);
+		if (bucket != bucketOf[vertex]) {
+			unlink(vertex);
+			link(vertex, bucket);
+		}
+	}
+
+	public int removeMin() {
+		settleMinimum();
+		int vertex = head[0];
+		unlink(vertex);
+		size--;
+		return vertex;
+	}
+
+	public boolean remove(int vertex) {
+		if (bucketOf[vertex] == NONE)
+			return false;
+		unlink(vertex);
+		size--;
+		return true;
+	}
+
+	public int peekMin() {
+		settleMinimum();
+		return head[0];
+	}
+
+	public long minPriority() {
+		settleMinimum();
+		return last;
+	}
+
+	public boolean contains(int vertex) {
+		return bucketOf[vertex] != NONE;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		for (int b = 0; b < BUCKETS; b++) {
+			for (int v = head[b]; v != NONE; v = next[v])
+				bucketOf[v] = NONE;
+			head[b] = NONE;
+		}
+		size = 0;
+		last = 0;
+	}
+
+	/**
+	 * Makes bucket 0 hold the minimum: if it is empty, the lowest non-empty bucket is emptied into lower buckets
+	 * relative to its smallest priority, which becomes the new last minimum
+	 */
+	private void settleMinimum() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		if (head[0] != NONE)
+			return;
+		int b = 1;
+		while (head[b] == NONE)
+			b++;
+		long min = Long.MAX_VALUE;
+		for (int v = head[b]; v != NONE; v = next[v])
+			min = Math.min(min, keys[v]);
+		last = min;
+		int v = head[b];
+		head[b] = NONE;
+		while (v != NONE) {
+			int following = next[v];
+			link(v, bucket(keys[v]));
+			v = following;
+		}
+	}
+
+	/**
+	 * @return 0 for the last minimum itself, otherwise one more than the highest bit where priority and last differ
+	 */
+	private int bucket(long priority) {
+		return priority == last ? 0 : 64 - Long.numberOfLeadingZeros(priority ^ last);
+	}
+
+	private void link(int vertex, int bucket) {
+		bucketOf[vertex] = bucket;
+		previous[vertex] = NONE;
+		next[vertex] = head[bucket];
+		if (head[bucket] != NONE)
+			previous[head[bucket]] = vertex;
+		head[bucket] = vertex;
+	}
+
+	private void unlink(int vertex) {
+		int bucket = bucketOf[vertex];
+		if (previous[vertex] == NONE)
+			head[bucket] = next[vertex];
+		else
+			next[previous[vertex]] = next[vertex];
+		if (next[vertex] != NONE)
+			previous[next[vertex]] = previous[vertex];
+		bucketOf[vertex] = NONE;
+	}
+}
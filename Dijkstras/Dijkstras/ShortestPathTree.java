@@ -0,0 +1,87 @@
+package Dijkstras;
+
+import java.util.Arrays;
+
+/**
+ * Completed shortest path tree from one source: the distance to and the predecessor of every vertex.
+ * Immutable, so one tree can be shared by any number of threads.
+ * @author sandasai
+ *
+ */
+public class ShortestPathTree {
+
+	private final int source;
+	private final long version;
+	private final long[] distances;
+	private final int[] predecessors;
+
+	/**
+	 * Copies the result of a full solve
+	 * @param solver solver that has just solved every vertex from source
+	 * @param source
+	 * @param version version of the graph the solver ran on
+	 */
+	ShortestPathTree(DijkstraSolver solver, int source, long version) {
+		int n = solver.distances.length;
+		this.source = source;
+		this.version = version;
+		this.distances = Arrays.copyOf(solver.distances, n);
+		this.predecessors = new int[n];
+		for (int v = 0; v < n; v++)
+			predecessors[v] = solver.getPredecessor(v);
+	}
+
+	public int source() {
+		return source;
+	}
+
+	/**
+	 * @return version of the graph the tree was computed on
+	 */
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * @param v
+	 * @return the shortest distance from the source to v, or DijkstraSolver.UNREACHED
+	 */
+	public long distance(int v) {
+		if (v < 0 || v >= distances.length)
+			return DijkstraSolver.UNREACHED;
+		return distances[v];
+	}
+
+	/**
+	 * @param v
+	 * @return the vertex before v on its shortest path, or -1 if v is the source or unreachable
+	 */
+	public int predecessor(int v) {
+		if (v < 0 || v >= predecessors.length)
+			return -1;
+		return predecessors[v];
+	}
+
+	/**
+	 * @param v
+	 * @return the vertices of the shortest path from the source to v, or null if v is unreachable
+	 */
+	public int[] path(int v) {
+		if (distance(v) == DijkstraSolver.UNREACHED)
+			return null;
+		int length = 1;
+		for (int u = v; u != source; u = predecessors[u])
+			length++;
+		int[] path = new int[length];
+		for (int u = v; length > 0; u = predecessors[u])
+			path[--length] = u;
+		return path;
+	}
+
+	/**
+	 * @return bytes held by the tree's arrays
+	 */
+	public long sizeInBytes() {
+		return 12L * distances.length;
+	}
+}
@@ -0,0 +1,140 @@
+package Dijkstras;
+
+import graph.Graph;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded least recently used cache of completed shortest path trees in front of DijkstraSolver, keyed by source.
+ * On skewed query loads a few hot sources are solved once and every later query from them is an array lookup.
+ * Each tree holds 12 bytes per vertex, so the bound is given in bytes and turned into a number of trees.
+ * Trees are stamped with the graph version they were solved on; replacing the graph bumps the version, and trees from
+ * an older version are never returned, including ones whose solve was still running when the graph changed.
+ * Safe to use from many threads; misses solve outside the lock on solvers kept for reuse.
+ * @author sandasai
+ *
+ */
+public class ShortestPathTreeCache {
+
+	private final long maxBytes;
+
+	//trees by source in access order, guarded by this
+	private final LinkedHashMap<Integer, ShortestPathTree> trees = new LinkedHashMap<Integer, ShortestPathTree>(16, 0.75f, true);
+	private final ArrayDeque<DijkstraSolver> idleSolvers = new ArrayDeque<DijkstraSolver>();
+	private Graph graph;
+	private long version;
+	private int capacity;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param graph weighted graph
+	 * @param maxBytes memory the cached trees may use, at least one tree is always kept
+	 */
+	ShortestPathTreeCache(Graph graph, long maxBytes) {
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("Cache size must not be negative");
+		this.maxBytes = maxBytes;
+		setGraph(graph);
+	}
+
+	/**
+	 * Replaces the graph, for example after edges changed, and drops every cached tree
+	 * @param graph weighted graph
+	 */
+	public synchronized void setGraph(Graph graph) {
+		if (!graph.isWeighted())
+			throw new IllegalArgumentException("Dijkstra needs a weighted graph");
+		this.graph = graph;
+		version++;
+		capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / Math.max(12L * graph.vertexCount(), 1)));
+		evictions.addAndGet(trees.size());
+		trees.clear();
+		idleSolvers.clear();
+	}
+
+	/**
+	 * @return version of the current graph, bumped by every setGraph
+	 */
+	public synchronized long version() {
+		return version;
+	}
+
+	/**
+	 * Returns the shortest path tree from a source, solving it on a miss
+	 * @param source
+	 * @return the tree for the current graph
+	 */
+	public ShortestPathTree get(int source) {
+		Graph solveGraph;
+		long solveVersion;
+		DijkstraSolver solver;
+		synchronized (this) {
+			ShortestPathTree tree = trees.get(source);
+			if (tree != null) {
+				hits.incrementAndGet();
+				return tree;
+			}
+			misses.incrementAndGet();
+			solveGraph = graph;
+			solveVersion = version;
+			solver = idleSolvers.poll();
+		}
+		if (solver == null)
+			solver = new DijkstraSolver(solveGraph);
+		solver.solve(source);
+		ShortestPathTree tree = new ShortestPathTree(solver, source, solveVersion);
+		synchronized (this) {
+			//a tree solved on a graph that has since been replaced is returned to its caller but not cached
+			if (solveVersion == version) {
+				idleSolvers.push(solver);
+				trees.put(source, tree);
+				evict();
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 * @param source
+	 * @param target
+	 * @return the shortest distance from source to target, or DijkstraSolver.UNREACHED
+	 */
+	public long distance(int source, int target) {
+		return get(source).distance(target);
+	}
+
+	/**
+	 * Drops least recently used trees until the cache fits its capacity
+	 */
+	private void evict() {
+		Iterator<Map.Entry<Integer, ShortestPathTree>> eldest = trees.entrySet().iterator();
+		while (trees.size() > capacity) {
+			eldest.next();
+			eldest.remove();
+			evictions.incrementAndGet();
+		}
+	}
+
+	public long hits() {
+		return hits.get();
+	}
+
+	public long misses() {
+		return misses.get();
+	}
+
+	public long evictions() {
+		return evictions.get();
+	}
+
+	public synchronized int size() {
+		return trees.size();
+	}
+}
@@ -0,0 +1,58 @@
+package Dijkstras;
+
+/**
+ * Addressable min priority queue of int vertices in [0, capacity) keyed by long priorities,
+ * the operations Dijkstra's algorithm needs from its frontier. QueueType picks an implementation at runtime
+ * @author sandasai
+ *
+ */
+public interface VertexQueue {
+
+	/**
+	 * Adds a vertex that is not in the queue
+	 * @param vertex
+	 * @param priority
+	 */
+	void insert(int vertex, long priority);
+
+	/**
+	 * Lowers the priority of a vertex already in the queue
+	 * @param vertex
+	 * @param priority must not be larger than the current priority
+	 */
+	void decreaseKey(int vertex, long priority);
+
+	/**
+	 * Removes the vertex with the smallest priority
+	 * @return the removed vertex
+	 */
+	int removeMin();
+
+	/**
+	 * Removes a vertex from the queue
+	 * @param vertex
+	 * @return true if the vertex was in the queue
+	 */
+	boolean remove(int vertex);
+
+	/**
+	 * @return the vertex with the smallest priority, without removing it
+	 */
+	int peekMin();
+
+	/**
+	 * @return the smallest priority in the queue
+	 */
+	long minPriority();
+
+	boolean contains(int vertex);
+
+	int size();
+
+	boolean isEmpty();
+
+	/**
+	 * Empties the queue so it can be reused
+	 */
+	void clear();
+}
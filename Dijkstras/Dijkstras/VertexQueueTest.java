@@ -0,0 +1,86 @@
+package Dijkstras;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class VertexQueueTest {
+
+	/**
+	 * Runs random inserts, decrease-keys, removals and removeMins against a plain array of priorities
+	 */
+	private void matchesReference(VertexQueue queue) {
+		Random r = new Random(9);
+		int n = 2000;
+		long[] priorities = new long[n];
+		boolean[] queued = new boolean[n];
+		int size = 0;
+		for (int step = 0; step < 50000; step++) {
+			int vertex = r.nextInt(n);
+			int operation = r.nextInt(10);
+			if (operation < 4) {
+				if (!queued[vertex]) {
+					priorities[vertex] = r.nextInt(1000000);
+					queue.insert(vertex, priorities[vertex]);
+					queued[vertex] = true;
+					size++;
+				}
+			} else if (operation < 7) {
+				if (queued[vertex]) {
+					priorities[vertex] -= r.nextInt(1000);
+					queue.decreaseKey(vertex, priorities[vertex]);
+				}
+			} else if (operation < 8) {
+				assertEquals(queued[vertex], queue.remove(vertex));
+				if (queued[vertex]) {
+					queued[vertex] = false;
+					size--;
+				}
+			} else if (size > 0) {
+				long min = Long.MAX_VALUE;
+				for (int v = 0; v < n; v++) {
+					if (queued[v])
+						min = Math.min(min, priorities[v]);
+				}
+				assertEquals(min, queue.minPriority());
+				int peeked = queue.peekMin();
+				int removed = queue.removeMin();
+				assertEquals(peeked, removed);
+				assertEquals(min, priorities[removed]);
+				assertTrue(queued[removed]);
+				queued[removed] = false;
+				size--;
+			}
+			assertEquals(size, queue.size());
+			assertEquals(queued[vertex], queue.contains(vertex));
+		}
+		queue.clear();
+		assertTrue(queue.isEmpty());
+		for (int v = 0; v < n; v++)
+			assertFalse(queue.contains(v));
+		queue.insert(3, 5);
+		assertEquals(3, queue.removeMin());
+	}
+
+	@Test
+	public void binaryHeapMatchesReference() {
+		matchesReference(new IndexedDHeap(2000, 2));
+	}
+
+	@Test
+	public void eightAryHeapMatchesReference() {
+		matchesReference(new IndexedDHeap(2000, 8));
+	}
+
+	@Test
+	public void pairingHeapMatchesReference() {
+		matchesReference(new PairingHeap(2000));
+	}
+
+	@Test
+	public void fibonacciHeapMatchesReference() {
+		matchesReference(new FibonacciHeap(2000));
+	}
+}
@@ -0,0 +1,137 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes or reads the little-endian values of a binary file through one 64 KB direct buffer, so the channel is
+ * called once per buffer rather than once per value. Used by the formats that are read whole instead of mapped.
+ * @author sandasai
+ *
+ */
+public final class ChannelBuffer {
+
+	static final int BUFFER_BYTES = 1 << 16;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final String description;	//what is read, for the truncation message
+
+	private ChannelBuffer(FileChannel channel, String description) {
+		this.channel = channel;
+		this.description = description;
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * @param channel - channel positioned where writing starts
+	 * @return an empty buffer writing to the channel; call flush when done
+	 */
+	public static ChannelBuffer writer(FileChannel channel) {
+		return new ChannelBuffer(channel, null);
+	}
+
+	/**
+	 * @param channel - channel positioned where reading starts
+	 * @param description - what the channel holds, such as "landmark file"
+	 * @return a buffer reading from the channel
+	 */
+	public static ChannelBuffer reader(FileChannel channel, String description) {
+		ChannelBuffer reader = new ChannelBuffer(channel, description);
+		reader.buffer.flip();
+		return reader;
+	}
+
+	public ChannelBuffer putInt(int value) throws IOException {
+		writeIfFull(4);
+		buffer.putInt(value);
+		return this;
+	}
+
+	public ChannelBuffer putLong(long value) throws IOException {
+		writeIfFull(8);
+		buffer.putLong(value);
+		return this;
+	}
+
+	/**
+	 * Writes every value, copying as many as fit into the buffer at once
+	 * @param values
+	 * @return this buffer
+	 * @throws IOException
+	 */
+	public ChannelBuffer putInts(int[] values) throws IOException {
+		int written = 0;
+		while (written < values.length) {
+			writeIfFull(4);
+			int count = Math.min(buffer.remaining() / 4, values.length - written);
+			IntBuffer ints = buffer.asIntBuffer();
+			ints.put(values, written, count);
+			buffer.position(buffer.position() + 4 * count);
+			written += count;
+		}
+		return this;
+	}
+
+	/**
+	 * Writes whatever is left in the buffer to the channel
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	public int getInt() throws IOException {
+		readAtLeast(4);
+		return buffer.getInt();
+	}
+
+	public long getLong() throws IOException {
+		readAtLeast(8);
+		return buffer.getLong();
+	}
+
+	/**
+	 * Fills an array, copying as many values as the buffer holds at once
+	 * @param values
+	 * @throws IOException if the channel ends first
+	 */
+	public void getInts(int[] values) throws IOException {
+		int read = 0;
+		while (read < values.length) {
+			readAtLeast(4);
+			int count = Math.min(buffer.remaining() / 4, values.length - read);
+			buffer.asIntBuffer().get(values, read, count);
+			buffer.position(buffer.position() + 4 * count);
+			read += count;
+		}
+	}
+
+	/**
+	 * Flushes the buffer to the channel when it has less than the given number of bytes left
+	 */
+	private void writeIfFull(int bytes) throws IOException {
+		if (buffer.remaining() < bytes)
+			flush();
+	}
+
+	/**
+	 * Refills the buffer from the channel when it has less than the given number of bytes left to read
+	 */
+	private void readAtLeast(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes)
+			return;
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) < 0)
+				throw new IOException("Truncated " + description);
+		}
+		buffer.flip();
+	}
+}
@@ -0,0 +1,57 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ChannelBufferTest {
+
+	@Test
+	public void valuesRoundTripAcrossBuffers() throws IOException {
+		Random r = new Random(3);
+		//several buffers of ints, with a long and an odd int between them so no bulk copy starts aligned to a buffer
+		int[] first = new int[ChannelBuffer.BUFFER_BYTES / 4 * 3 + 7];
+		int[] second = new int[ChannelBuffer.BUFFER_BYTES / 4 + 1];
+		for (int i = 0; i < first.length; i++)
+			first[i] = r.nextInt();
+		for (int i = 0; i < second.length; i++)
+			second[i] = r.nextInt();
+		File file = File.createTempFile("values", ".bin");
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			ChannelBuffer buffer = ChannelBuffer.writer(output.getChannel());
+			buffer.putInt(42).putInts(first).putLong(Long.MIN_VALUE + 5).putInt(-1).putInts(second).putInts(new int[0]);
+			buffer.flush();
+		} finally {
+			output.close();
+		}
+		assertEquals(4 + 4L * first.length + 8 + 4 + 4L * second.length, file.length());
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			ChannelBuffer buffer = ChannelBuffer.reader(input.getChannel(), "test file");
+			assertEquals(42, buffer.getInt());
+			int[] values = new int[first.length];
+			buffer.getInts(values);
+			assertArrayEquals(first, values);
+			assertEquals(Long.MIN_VALUE + 5, buffer.getLong());
+			assertEquals(-1, buffer.getInt());
+			values = new int[second.length];
+			buffer.getInts(values);
+			assertArrayEquals(second, values);
+			try {
+				buffer.getInt();
+				fail("Read past the end");
+			} catch (IOException e) {
+				assertEquals("Truncated test file", e.getMessage());
+			}
+		} finally {
+			input.close();
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,480 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable graph with its adjacency lists compressed in the style of WebGraph, for graphs whose CsrGraph would not fit
+ * the memory budget. Each list is sorted by target and written as variable length bytes (7 bits per byte):
+ * <pre>
+ * degree
+ * weightBytes weight ...                  weighted graphs only, zigzag coded, in target order
+ * reference                               0, or r to copy part of the list of vertex v - r
+ * blockCount block ...                    reference only: alternating copy/skip run lengths over the referenced list
+ * firstExtra gap gap ...                  targets not copied: first as zigzag(target - v), then target - previous
+ * </pre>
+ * The reference is picked among the previous window vertices as the one giving the shortest encoding, and reference
+ * chains are capped so a cursor never decodes more than maxReferenceChain lists to produce one. Runs of neighbors shared
+ * with a nearby vertex and small gaps between sorted targets are what make this pay off, so graphs with locality (grids,
+ * crawled or reordered graphs) compress best; random graphs mostly gain from the gaps alone.
+ * Sorting the lists changes the order in which a vertex's edges are visited, not the edges themselves; parallel edges are
+ * kept (gaps may be 0).
+ * @author sandasai
+ *
+ */
+public final class CompressedGraph implements Graph {
+
+	//defaults used by WebGraph
+	public static final int DEFAULT_WINDOW = 7;
+	public static final int DEFAULT_MAX_REFERENCE_CHAIN = 3;
+
+	private final int[] offsets;
+	private final byte[] data;
+	private final long edgeCount;
+	private final boolean weighted;
+	private final int maxReferenceChain;
+
+	private CompressedGraph(int[] offsets, byte[] data, long edgeCount, boolean weighted, int maxReferenceChain) {
+		this.offsets = offsets;
+		this.data = data;
+		this.edgeCount = edgeCount;
+		this.weighted = weighted;
+		this.maxReferenceChain = maxReferenceChain;
+	}
+
+	/**
+	 * Compresses any graph with the default window and reference chain
+	 * @param graph
+	 * @return the compressed graph
+	 */
+	public static CompressedGraph compress(Graph graph) {
+		return compress(graph, DEFAULT_WINDOW, DEFAULT_MAX_REFERENCE_CHAIN);
+	}
+
+	/**
+	 * Compresses any graph, reading it once vertex by vertex
+	 * @param graph
+	 * @param window how many previous vertices are tried as a reference, 0 for gap coding only
+	 * @param maxReferenceChain longest chain of references, bounding the decode cost of one list
+	 * @return the compressed graph
+	 */
+	public static CompressedGraph compress(Graph graph, int window, int maxReferenceChain) {
+		if (window < 0 || maxReferenceChain < 0)
+			throw new IllegalArgumentException("Window and reference chain must not be negative");
+		int n = graph.vertexCount();
+		boolean weighted = graph.isWeighted();
+		Encoder encoder = new Encoder(window + 1, weighted);
+		int[] offsets = new int[n + 1];
+		int[] chain = new int[n];
+		NeighborCursor cursor = graph.cursor();
+		long edges = 0;
+		for (int v = 0; v < n; v++) {
+			offsets[v] = encoder.output.size;
+			int degree = encoder.load(v, cursor);
+			edges += degree;
+			int bestReference = 0;
+			if (degree > 0) {
+				int bestSize = encoder.encode(v, 0, encoder.candidate);
+				for (int r = 1; r <= window && r <= v; r++) {
+					if (chain[v - r] >= maxReferenceChain || !encoder.hasEdges(v - r))
+						continue;
+					int size = encoder.encode(v, r, encoder.candidate);
+					if (size < bestSize) {
+						bestSize = size;
+						bestReference = r;
+					}
+				}
+				chain[v] = bestReference == 0 ? 0 : chain[v - bestReference] + 1;
+			}
+			encoder.output.writeVarint(degree);
+			if (degree > 0) {
+				if (weighted) {
+					encoder.weightBytes.size = 0;
+					for (int i = 0; i < degree; i++)
+						encoder.weightBytes.writeVarint(zigzag(encoder.weights[i]));
+					encoder.output.writeVarint(encoder.weightBytes.size);
+					encoder.output.write(encoder.weightBytes);
+				}
+				encoder.encode(v, bestReference, encoder.output);
+			}
+		}
+		offsets[n] = encoder.output.size;
+		if (edges != graph.edgeCount())
+			throw new IllegalStateException("Graph reported " + graph.edgeCount() + " edges but listed " + edges);
+		return new CompressedGraph(offsets, Arrays.copyOf(encoder.output.bytes, encoder.output.size), edges, weighted,
+				maxReferenceChain);
+	}
+
+	public int vertexCount() {
+		return offsets.length - 1;
+	}
+
+	public long edgeCount() {
+		return edgeCount;
+	}
+
+	public boolean isWeighted() {
+		return weighted;
+	}
+
+	public int degree(int v) {
+		int position = offsets[v];
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			byte b = data[position++];
+			value |= (b & 0x7f) << shift;
+			if (b >= 0)
+				return value;
+		}
+	}
+
+	/**
+	 * @return bytes used by the compressed lists and the per-vertex offsets
+	 */
+	public long sizeInBytes() {
+		return data.length + 4L * offsets.length;
+	}
+
+	/**
+	 * @return average compressed size of one edge in bits, weights included
+	 */
+	public double bitsPerEdge() {
+		return edgeCount == 0 ? 0 : 8.0 * data.length / edgeCount;
+	}
+
+	public NeighborCursor cursor() {
+		return new Cursor();
+	}
+
+	private static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Walks one list at a time. Targets that are not copied from a reference are decoded lazily as next() reaches them;
+	 * a referenced list is decoded in full into a scratch buffer per chain level and merged with them.
+	 */
+	private class Cursor implements NeighborCursor {
+
+		private int position;
+		private int weightPosition;
+		private int remaining;
+		private int extrasLeft;
+		private int nextExtra;
+		private int[] copied = new int[16];
+		private int copiedLength;
+		private int copiedIndex;
+		private int target;
+		private int weight;
+		private final int[][] scratch = new int[maxReferenceChain + 2][16];
+
+		//lengths of the list last returned by decode and last written by copyBlocks
+		private int decodedLength;
+		private int copiedCount;
+
+		public void reset(int v) {
+			position = offsets[v];
+			remaining = readVarint();
+			copiedLength = 0;
+			copiedIndex = 0;
+			extrasLeft = 0;
+			if (remaining == 0)
+				return;
+			if (weighted) {
+				int weightBytes = readVarint();
+				weightPosition = position;
+				position += weightBytes;
+			}
+			int reference = readVarint();
+			if (reference > 0) {
+				int[] list = decode(v - reference, 1);
+				copied = copyBlocks(list, decodedLength, copied);
+				copiedLength = copiedCount;
+			}
+			extrasLeft = remaining - copiedLength;
+			if (extrasLeft > 0)
+				nextExtra = v + unzigzag(readVarint());
+		}
+
+		public boolean next() {
+			if (remaining == 0)
+				return false;
+			remaining--;
+			if (copiedIndex < copiedLength && (extrasLeft == 0 || copied[copiedIndex] <= nextExtra)) {
+				target = copied[copiedIndex++];
+			} else {
+				target = nextExtra;
+				if (--extrasLeft > 0)
+					nextExtra += readVarint();
+			}
+			if (weighted)
+				weight = readWeight();
+			return true;
+		}
+
+		public int target() {
+			return target;
+		}
+
+		public int weight() {
+			return weight;
+		}
+
+		/**
+		 * Decodes the whole sorted target list of a vertex, following its own reference one level deeper
+		 * @return the scratch buffer of this level, holding decodedLength targets
+		 */
+		private int[] decode(int u, int level) {
+			int saved = position;
+			position = offsets[u];
+			int degree = readVarint();
+			if (scratch[level].length < degree)
+				scratch[level] = new int[Math.max(degree, scratch[level].length * 2)];
+			int[] out = scratch[level];
+			if (weighted) {
+				int weightBytes = readVarint();
+				position += weightBytes;
+			}
+			int reference = readVarint();
+			int[] copy = null;
+			int copyLength = 0;
+			if (reference > 0) {
+				//the copied part is filtered in place over the referenced list
+				copy = decode(u - reference, level + 1);
+				copy = copyBlocks(copy, decodedLength, copy);
+				copyLength = copiedCount;
+			}
+			int extras = degree - copyLength;
+			int extra = extras > 0 ? u + unzigzag(readVarint()) : 0;
+			int c = 0;
+			for (int i = 0; i < degree; i++) {
+				if (c < copyLength && (extras == 0 || copy[c] <= extra)) {
+					out[i] = copy[c++];
+				} else {
+					out[i] = extra;
+					if (--extras > 0)
+						extra += readVarint();
+				}
+			}
+			position = saved;
+			decodedLength = degree;
+			return out;
+		}
+
+		/**
+		 * Reads the copy blocks at the current position and keeps the copied part of a referenced list.
+		 * into may be the list itself, since the copied part never runs ahead of the list
+		 * @return the array holding the copied targets, copiedCount of them
+		 */
+		private int[] copyBlocks(int[] list, int listLength, int[] into) {
+			if (into.length < listLength)
+				into = new int[Math.max(listLength, into.length * 2)];
+			int blocks = readVarint();
+			int length = 0;
+			int index = 0;
+			boolean copy = true;
+			for (int b = 0; b < blocks; b++) {
+				int run = readVarint() + (b == 0 ? 0 : 1);
+				if (copy) {
+					System.arraycopy(list, index, into, length, run);
+					length += run;
+				}
+				index += run;
+				copy = !copy;
+			}
+			//the rest of the list continues the alternation
+			if (copy) {
+				System.arraycopy(list, index, into, length, listLength - index);
+				length += listLength - index;
+			}
+			copiedCount = length;
+			return into;
+		}
+
+		private int readVarint() {
+			byte first = data[position++];
+			if (first >= 0)
+				return first;
+			int value = first & 0x7f;
+			for (int shift = 7;; shift += 7) {
+				byte b = data[position++];
+				value |= (b & 0x7f) << shift;
+				if (b >= 0)
+					return value;
+			}
+		}
+
+		/**
+		 * Weights are a separate run of varints ahead of the targets, read in step with them
+		 */
+		private int readWeight() {
+			byte first = data[weightPosition++];
+			if (first >= 0)
+				return unzigzag(first);
+			int value = first & 0x7f;
+			for (int shift = 7;; shift += 7) {
+				byte b = data[weightPosition++];
+				value |= (b & 0x7f) << shift;
+				if (b >= 0)
+					return unzigzag(value);
+			}
+		}
+	}
+
+	/**
+	 * Keeps the sorted lists of the last few vertices so each new list can be encoded against them
+	 */
+	private static class Encoder {
+
+		final Bytes output = new Bytes();
+		final Bytes candidate = new Bytes();
+		final Bytes weightBytes = new Bytes();
+
+		private final int[][] lists;
+		private final int[] lengths;
+		private final boolean weighted;
+		private long[] edges = new long[16];
+		int[] weights = new int[16];
+		private boolean[] copied = new boolean[16];
+		private int[] extras = new int[16];
+		private int[] runs = new int[16];
+
+		/**
+		 * @param slots window + 1, the current list and the ones it may reference
+		 */
+		Encoder(int slots, boolean weighted) {
+			this.lists = new int[slots][16];
+			this.lengths = new int[slots];
+			this.weighted = weighted;
+		}
+
+		/**
+		 * Reads the out-edges of v and sorts them by target, keeping each weight with its target
+		 * @return the degree of v
+		 */
+		int load(int v, NeighborCursor cursor) {
+			int degree = 0;
+			cursor.reset(v);
+			while (cursor.next()) {
+				if (degree == edges.length)
+					edges = Arrays.copyOf(edges, degree * 2);
+				edges[degree++] = ((long) cursor.target() << 32) | (cursor.weight() & 0xffffffffL);
+			}
+			Arrays.sort(edges, 0, degree);
+			int slot = v % lists.length;
+			if (lists[slot].length < degree)
+				lists[slot] = new int[Math.max(degree, lists[slot].length * 2)];
+			if (weighted && weights.length < degree)
+				weights = new int[Math.max(degree, weights.length * 2)];
+			for (int i = 0; i < degree; i++) {
+				lists[slot][i] = (int) (edges[i] >>> 32);
+				if (weighted)
+					weights[i] = (int) edges[i];
+			}
+			lengths[slot] = degree;
+			return degree;
+		}
+
+		boolean hasEdges(int v) {
+			return lengths[v % lists.length] > 0;
+		}
+
+		/**
+		 * Writes the target list of v, copying from the list of v - reference when reference is not 0.
+		 * The candidate buffer is cleared first so references can be compared by size
+		 * @return bytes written
+		 */
+		int encode(int v, int reference, Bytes out) {
+			if (out == candidate)
+				out.size = 0;
+			int start = out.size;
+			int[] list = lists[v % lists.length];
+			int length = lengths[v % lists.length];
+			int extraCount = 0;
+			if (extras.length < length)
+				extras = new int[Math.max(length, extras.length * 2)];
+			out.writeVarint(reference);
+			if (reference == 0) {
+				System.arraycopy(list, 0, extras, 0, length);
+				extraCount = length;
+			} else {
+				int[] referenced = lists[(v - reference) % lists.length];
+				int referencedLength = lengths[(v - reference) % lists.length];
+				if (copied.length < referencedLength)
+					copied = new boolean[Math.max(referencedLength, copied.length * 2)];
+				//match the two sorted lists, parallel edges pair up one to one
+				int i = 0;
+				int j = 0;
+				while (i < referencedLength || j < length) {
+					if (i < referencedLength && j < length && referenced[i] == list[j]) {
+						copied[i++] = true;
+						j++;
+					} else if (j == length || (i < referencedLength && referenced[i] < list[j])) {
+						copied[i++] = false;
+					} else {
+						extras[extraCount++] = list[j++];
+					}
+				}
+				//alternating copy/skip runs starting with copy; the last run is implied
+				int runCount = 0;
+				int run = 0;
+				boolean copy = true;
+				for (i = 0; i < referencedLength; i++) {
+					if (copied[i] != copy) {
+						if (runCount == runs.length)
+							runs = Arrays.copyOf(runs, runCount * 2);
+						runs[runCount++] = run;
+						run = 0;
+						copy = !copy;
+					}
+					run++;
+				}
+				out.writeVarint(runCount);
+				for (int b = 0; b < runCount; b++)
+					out.writeVarint(b == 0 ? runs[b] : runs[b] - 1);
+			}
+			if (extraCount > 0) {
+				out.writeVarint(zigzag(extras[0] - v));
+				for (int i = 1; i < extraCount; i++)
+					out.writeVarint(extras[i] - extras[i - 1]);
+			}
+			return out.size - start;
+		}
+	}
+
+	/**
+	 * Growable byte array with 7 bit variable length writes
+	 */
+	private static class Bytes {
+
+		byte[] bytes = new byte[1024];
+		int size;
+
+		void writeVarint(int value) {
+			ensure(5);
+			while ((value & ~0x7f) != 0) {
+				bytes[size++] = (byte) ((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		void write(Bytes other) {
+			ensure(other.size);
+			System.arraycopy(other.bytes, 0, bytes, size, other.size);
+			size += other.size;
+		}
+
+		private void ensure(int extra) {
+			if (bytes.length - size >= extra)
+				return;
+			long capacity = Math.max((long) size + extra, 2L * bytes.length);
+			if ((long) size + extra > Integer.MAX_VALUE - 8)
+				throw new IllegalArgumentException("Compressed graph does not fit in one array, use a binary graph file instead");
+			bytes = Arrays.copyOf(bytes, (int) Math.min(capacity, Integer.MAX_VALUE - 8));
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CompressedGraphTest {
+
+	/**
+	 * Graph whose neighboring vertices share most of their lists, so references are used, with random extra edges,
+	 * parallel edges, self loops, edges to lower ids and vertices without edges
+	 */
+	static CsrGraph similarLists(int n, boolean weighted, long seed) {
+		CsrGraph.Builder builder = new CsrGraph.Builder(weighted);
+		Random r = new Random(seed);
+		builder.addVertex(n - 1);
+		int[] shared = new int[12];
+		for (int v = 0; v < n; v++) {
+			if (v % 20 == 0) {
+				for (int i = 0; i < shared.length; i++)
+					shared[i] = r.nextInt(n);
+			}
+			if (r.nextInt(10) == 0)
+				continue;
+			for (int i = 0; i < shared.length; i++) {
+				if (r.nextInt(4) != 0)
+					add(builder, weighted, v, shared[i], r);
+			}
+			int extra = r.nextInt(4);
+			for (int i = 0; i < extra; i++)
+				add(builder, weighted, v, r.nextInt(n), r);
+			if (r.nextInt(8) == 0)
+				add(builder, weighted, v, v, r);
+			if (r.nextInt(8) == 0) {
+				int target = r.nextInt(n);
+				add(builder, weighted, v, target, r);
+				add(builder, weighted, v, target, r);
+			}
+		}
+		return builder.build();
+	}
+
+	private static void add(CsrGraph.Builder builder, boolean weighted, int u, int v, Random r) {
+		if (weighted)
+			builder.addEdge(u, v, r.nextInt(3) == 0 ? r.nextInt(Integer.MAX_VALUE) : r.nextInt(50));
+		else
+			builder.addEdge(u, v);
+	}
+
+	/**
+	 * Asserts the compressed graph has the same edges per vertex; compressed lists come back sorted by target, so
+	 * both are compared as sorted (target, weight) pairs
+	 */
+	static void assertSameEdges(Graph expected, Graph actual) {
+		assertEquals(expected.vertexCount(), actual.vertexCount());
+		assertEquals(expected.edgeCount(), actual.edgeCount());
+		assertEquals(expected.isWeighted(), actual.isWeighted());
+		NeighborCursor e = expected.cursor();
+		NeighborCursor a = actual.cursor();
+		for (int v = 0; v < expected.vertexCount(); v++) {
+			assertEquals(expected.degree(v), actual.degree(v));
+			assertEquals("edges of " + v, Arrays.toString(edges(e, v, expected.isWeighted())),
+					Arrays.toString(edges(a, v, actual.isWeighted())));
+		}
+	}
+
+	private static long[] edges(NeighborCursor cursor, int v, boolean weighted) {
+		long[] edges = new long[16];
+		int size = 0;
+		cursor.reset(v);
+		while (cursor.next()) {
+			if (size == edges.length)
+				edges = Arrays.copyOf(edges, size * 2);
+			edges[size++] = ((long) cursor.target() << 32) | (weighted ? cursor.weight() & 0xffffffffL : 0);
+		}
+		edges = Arrays.copyOf(edges, size);
+		Arrays.sort(edges);
+		return edges;
+	}
+
+	@Test
+	public void roundTripsWithAndWithoutReferences() {
+		for (boolean weighted : new boolean[] { false, true }) {
+			CsrGraph graph = similarLists(3000, weighted, weighted ? 1 : 2);
+			assertSameEdges(graph, CompressedGraph.compress(graph));
+			assertSameEdges(graph, CompressedGraph.compress(graph, 0, 0));
+			assertSameEdges(graph, CompressedGraph.compress(graph, 1, 1));
+			assertSameEdges(graph, CompressedGraph.compress(graph, 16, 10));
+		}
+	}
+
+	@Test
+	public void referencesShrinkSimilarLists() {
+		CsrGraph graph = similarLists(3000, false, 3);
+		CompressedGraph gaps = CompressedGraph.compress(graph, 0, 0);
+		CompressedGraph references = CompressedGraph.compress(graph);
+		assertTrue(references.sizeInBytes() < gaps.sizeInBytes());
+		assertTrue(gaps.bitsPerEdge() < 32);
+	}
+
+	@Test
+	public void recompressingKeepsEdges() {
+		CsrGraph graph = similarLists(500, true, 4);
+		CompressedGraph compressed = CompressedGraph.compress(graph);
+		assertSameEdges(graph, CompressedGraph.compress(compressed));
+	}
+
+	@Test
+	public void emptyGraph() {
+		CsrGraph empty = new CsrGraph(new int[] { 0, 0, 0, 0 }, new int[0], null);
+		CompressedGraph compressed = CompressedGraph.compress(empty);
+		assertSameEdges(empty, compressed);
+		assertEquals(0, compressed.edgeCount());
+	}
+}
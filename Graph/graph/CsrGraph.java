@@ -0,0 +1,257 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable directed graph in compressed sparse row form. Vertices are the ids [0, vertexCount());
+ * the out-edges of vertex v are targets[offsets[v]] ... targets[offsets[v + 1] - 1], with matching
+ * entries in weights when the graph is weighted.
+ * A graph costs 4 bytes per vertex plus 4 (unweighted) or 8 (weighted) bytes per edge.
+ * @author sandasai
+ *
+ */
+public final class CsrGraph implements Graph {
+
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] weights; //null for unweighted graphs
+
+	/**
+	 * Wraps already built arrays. The arrays must not be modified afterwards
+	 * @param offsets vertexCount + 1 non-decreasing edge offsets starting at 0
+	 * @param targets edge destinations
+	 * @param weights edge weights aligned with targets, or null
+	 */
+	public CsrGraph(int[] offsets, int[] targets, int[] weights) {
+		if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length)
+			throw new IllegalArgumentException("Offsets do not describe the target array");
+		if (weights != null && weights.length != targets.length)
+			throw new IllegalArgumentException("Weights must be aligned with targets");
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	public int vertexCount() {
+		return offsets.length - 1;
+	}
+
+	public long edgeCount() {
+		return targets.length;
+	}
+
+	public boolean isWeighted() {
+		return weights != null;
+	}
+
+	public int degree(int v) {
+		return offsets[v + 1] - offsets[v];
+	}
+
+	/**
+	 * @return the shared offset array; callers must not modify it
+	 */
+	public int[] offsets() {
+		return offsets;
+	}
+
+	/**
+	 * @return the shared target array; callers must not modify it
+	 */
+	public int[] targets() {
+		return targets;
+	}
+
+	/**
+	 * @return the shared weight array, or null if the graph is unweighted; callers must not modify it
+	 */
+	public int[] weights() {
+		return weights;
+	}
+
+	public NeighborCursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Builds the transpose of this graph, where every edge u -> v becomes v -> u with the same weight.
+	 * In-edges of each vertex keep the order of their sources.
+	 * @return the reversed graph
+	 */
+	public CsrGraph reverse() {
+		return transpose(this);
+	}
+
+	/**
+	 * Builds the transpose of any graph into memory on all cores, see ParallelTranspose
+	 * @param graph
+	 * @return the reversed graph
+	 */
+	public static CsrGraph transpose(Graph graph) {
+		return new ParallelTranspose().transpose(graph);
+	}
+
+	/**
+	 * Copies any graph into memory
+	 * @param graph
+	 * @return graph itself if it already is a CsrGraph, otherwise an in-memory copy
+	 */
+	public static CsrGraph copyOf(Graph graph) {
+		if (graph instanceof CsrGraph)
+			return (CsrGraph) graph;
+		if (graph.edgeCount() > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many edges for an in-memory graph: " + graph.edgeCount());
+		int n = graph.vertexCount();
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[(int) graph.edgeCount()];
+		int[] weights = graph.isWeighted() ? new int[targets.length] : null;
+		NeighborCursor cursor = graph.cursor();
+		int e = 0;
+		for (int u = 0; u < n; u++) {
+			cursor.reset(u);
+			while (cursor.next()) {
+				targets[e] = cursor.target();
+				if (weights != null)
+					weights[e] = cursor.weight();
+				e++;
+			}
+			offsets[u + 1] = e;
+		}
+		return new CsrGraph(offsets, targets, weights);
+	}
+
+	public String toString() {
+		StringBuilder returnString = new StringBuilder();
+		for (int v = 0; v < vertexCount(); v++) {
+			returnString.append(v);
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				returnString.append(' ').append(targets[e]);
+				if (weights != null)
+					returnString.append(',').append(weights[e]);
+			}
+			returnString.append('\n');
+		}
+		return returnString.toString();
+	}
+
+	private class Cursor implements NeighborCursor {
+		private int edge;
+		private int end;
+
+		public void reset(int v) {
+			edge = offsets[v] - 1;
+			end = offsets[v + 1];
+		}
+
+		public boolean next() {
+			return ++edge < end;
+		}
+
+		public int target() {
+			return targets[edge];
+		}
+
+		public int weight() {
+			return weights == null ? 0 : weights[edge];
+		}
+	}
+
+	/**
+	 * Collects edges in any order and sorts them into a CsrGraph. Edges of a vertex keep the order they were added in.
+	 * Vertex ids only need to be non-negative; the graph gets every id up to the largest one seen.
+	 */
+	public static final class Builder {
+
+		private final boolean weighted;
+		private int[] from = new int[16];
+		private int[] to = new int[16];
+		private int[] weight;
+		private int size;
+		private int vertexCount;
+
+		/**
+		 * @param weighted true if every edge carries a weight
+		 */
+		public Builder(boolean weighted) {
+			this.weighted = weighted;
+			if (weighted)
+				weight = new int[16];
+		}
+
+		/**
+		 * Makes sure a vertex exists even if it has no edges
+		 * @param v
+		 */
+		public Builder addVertex(int v) {
+			if (v < 0)
+				throw new IllegalArgumentException("Vertices must not be negative: " + v);
+			if (v >= vertexCount)
+				vertexCount = v + 1;
+			return this;
+		}
+
+		/**
+		 * Adds an unweighted edge
+		 * @param u origin
+		 * @param v destination
+		 */
+		public Builder addEdge(int u, int v) {
+			if (weighted)
+				throw new IllegalStateException("Weighted graphs need an edge weight");
+			append(u, v, 0);
+			return this;
+		}
+
+		/**
+		 * Adds a weighted edge
+		 * @param u origin
+		 * @param v destination
+		 * @param w weight
+		 */
+		public Builder addEdge(int u, int v, int w) {
+			if (!weighted)
+				throw new IllegalStateException("Unweighted graphs do not take edge weights");
+			append(u, v, w);
+			return this;
+		}
+
+		private void append(int u, int v, int w) {
+			addVertex(u);
+			addVertex(v);
+			if (size == from.length) {
+				int length = from.length * 2;
+				from = Arrays.copyOf(from, length);
+				to = Arrays.copyOf(to, length);
+				if (weighted)
+					weight = Arrays.copyOf(weight, length);
+			}
+			from[size] = u;
+			to[size] = v;
+			if (weighted)
+				weight[size] = w;
+			size++;
+		}
+
+		/**
+		 * Counting sort of the collected edges by origin
+		 * @return the graph
+		 */
+		public CsrGraph build() {
+			int[] offsets = new int[vertexCount + 1];
+			for (int i = 0; i < size; i++)
+				offsets[from[i] + 1]++;
+			for (int v = 0; v < vertexCount; v++)
+				offsets[v + 1] += offsets[v];
+			int[] next = Arrays.copyOf(offsets, vertexCount);
+			int[] targets = new int[size];
+			int[] weights = weighted ? new int[size] : null;
+			for (int i = 0; i < size; i++) {
+				int slot = next[from[i]]++;
+				targets[slot] = to[i];
+				if (weighted)
+					weights[slot] = weight[i];
+			}
+			return new CsrGraph(offsets, targets, weights);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package graph;
+
+/**
+ * Read-only directed graph over the int vertices [0, vertexCount()).
+ * Implementations are immutable, so one graph can be shared by any number of solver threads
+ * as long as each thread uses its own cursor.
+ * @author sandasai
+ *
+ */
+public interface Graph {
+
+	int vertexCount();
+
+	long edgeCount();
+
+	/**
+	 * @return true if every edge carries an int weight
+	 */
+	boolean isWeighted();
+
+	int degree(int v);
+
+	/**
+	 * Creates a cursor for walking out-edges. Cursors are not thread safe but can be reset and reused for any vertex
+	 * @return a new cursor
+	 */
+	NeighborCursor cursor();
+}
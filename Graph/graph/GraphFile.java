@@ -0,0 +1,143 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Versioned little-endian binary graph file that can be memory mapped instead of parsed.
+ * <pre>
+ * offset  size                   field
+ * 0       4                      magic "CSRG"
+ * 4       4                      version (1)
+ * 8       4                      flags, bit 0 set for weighted graphs
+ * 12      4                      vertex count n
+ * 16      8                      edge count m
+ * 24      8 * (n + 1)            edge offsets of each vertex as longs
+ * ...     4 * m                  edge targets as ints
+ * ...     4 * m                  edge weights as ints, weighted graphs only
+ * </pre>
+ * 64-bit offsets let a file hold more than 2^31 edges.
+ * @author sandasai
+ *
+ */
+public class GraphFile {
+
+	static final int MAGIC = 0x47525343; //"CSRG" read as a little-endian int
+	static final int VERSION = 1;
+	static final int FLAG_WEIGHTED = 1;
+	static final int HEADER_BYTES = 24;
+
+	private GraphFile() {
+	}
+
+	/**
+	 * Writes a graph to a binary graph file
+	 * @param graph
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void write(Graph graph, File file) throws IOException {
+		int n = graph.vertexCount();
+		long m = graph.edgeCount();
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			output.setLength(0);
+			ChannelBuffer buffer = ChannelBuffer.writer(output.getChannel());
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(graph.isWeighted() ? FLAG_WEIGHTED : 0).putInt(n).putLong(m);
+
+			long offset = 0;
+			for (int v = 0; v < n; v++) {
+				buffer.putLong(offset);
+				offset += graph.degree(v);
+			}
+			buffer.putLong(offset);
+			if (offset != m)
+				throw new IllegalStateException("Degrees do not add up to the edge count");
+
+			NeighborCursor cursor = graph.cursor();
+			for (int v = 0; v < n; v++) {
+				cursor.reset(v);
+				while (cursor.next())
+					buffer.putInt(cursor.target());
+			}
+			if (graph.isWeighted()) {
+				for (int v = 0; v < n; v++) {
+					cursor.reset(v);
+					while (cursor.next())
+						buffer.putInt(cursor.weight());
+				}
+			}
+			buffer.flush();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Maps a binary graph file read-only. Pages are loaded lazily by the OS and shared between processes mapping the same file
+	 * @param file
+	 * @return the mapped graph
+	 * @throws IOException if the file is not a readable graph file
+	 */
+	public static MappedGraph map(File file) throws IOException {
+		Instrumentation.Timer timer = Instrumentation.ENABLED ? Instrumentation.start(Instrumentation.Phase.BINARY_MAP) : null;
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0)
+					throw new IOException("Truncated graph file header: " + file);
+			}
+			header.flip();
+			if (header.getInt() != MAGIC)
+				throw new IOException("Not a graph file: " + file);
+			int version = header.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported graph file version " + version + ": " + file);
+			boolean weighted = (header.getInt() & FLAG_WEIGHTED) != 0;
+			int n = header.getInt();
+			long m = header.getLong();
+			long offsetsAt = HEADER_BYTES;
+			long targetsAt = offsetsAt + 8L * (n + 1);
+			long weightsAt = targetsAt + 4L * m;
+			long expectedSize = weighted ? weightsAt + 4L * m : weightsAt;
+			if (n < 0 || m < 0 || channel.size() != expectedSize)
+				throw new IOException("Graph file size does not match its header: " + file);
+			//the mapping stays valid after the channel is closed
+			MappedGraph graph = new MappedGraph(n, m,
+					new MappedRegion(channel, offsetsAt, 8L * (n + 1)),
+					new MappedRegion(channel, targetsAt, 4L * m),
+					weighted ? new MappedRegion(channel, weightsAt, 4L * m) : null);
+			if (Instrumentation.ENABLED) {
+				//pages are faulted in later, so this only times the mapping itself
+				timer.stop(expectedSize);
+				Instrumentation.add(Instrumentation.Counter.LOADER_BYTES, expectedSize);
+			}
+			return graph;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Checks the magic number at the start of a file
+	 * @param file
+	 * @return true if the file starts like a binary graph file
+	 * @throws IOException
+	 */
+	public static boolean isGraphFile(File file) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			if (input.length() < HEADER_BYTES)
+				return false;
+			return Integer.reverseBytes(input.readInt()) == MAGIC;
+		} finally {
+			input.close();
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+
+public class GraphFileConverter {
+
+	/**
+	 * Converts a text adjacency list file into a binary graph file once, so later runs can map it instead of parsing it
+	 * @param args 0 - "weighted" for rows of "vertex destination,weight ...", "adjacency" for rows of "vertex toVertex ..."
+	 * 			   1 - text input file
+	 * 			   2 - binary output file
+	 */
+	public static void main(String[] args) {
+		if (args.length != 3 || !(args[0].equals("weighted") || args[0].equals("adjacency"))) {
+			System.out.println("usage: GraphFileConverter weighted|adjacency <input.txt> <output.bin>");
+			return;
+		}
+		boolean weighted = args[0].equals("weighted");
+		try {
+			long start = System.nanoTime();
+			ParallelTextParser parser = new ParallelTextParser();
+			Graph graph = parser.parse(new File(args[1]), weighted);
+			System.out.println(String.format("parsed %d lines (%d bytes) in %d ms, %.1f MB/s", parser.linesParsed(),
+					parser.bytesParsed(), parser.elapsedNanos() / 1000000, parser.throughput()));
+			GraphFile.write(graph, new File(args[2]));
+			System.out.println("wrote " + graph.vertexCount() + " vertices and " + graph.edgeCount() + " edges in "
+					+ (System.nanoTime() - start) / 1000000 + " ms");
+		} catch (IOException ex) {
+			System.out.println("Error converting file '" + args[1] + "': " + ex.getMessage());
+		}
+	}
+}
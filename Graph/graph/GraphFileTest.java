@@ -0,0 +1,162 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+
+public class GraphFileTest {
+
+	/**
+	 * Writes a graph file and maps it back
+	 */
+	static MappedGraph roundTrip(Graph graph, File file) throws IOException {
+		GraphFile.write(graph, file);
+		return GraphFile.map(file);
+	}
+
+	@Test
+	public void textToBinaryToMapped() throws IOException {
+		for (boolean weighted : new boolean[] { false, true }) {
+			File text = ParallelTextParserTest.writeGraph(weighted, weighted ? 4 : 5);
+			File binary = File.createTempFile("graph", ".bin");
+			try {
+				CsrGraph expected = weighted ? TextGraphReader.readWeighted(text) : TextGraphReader.readAdjacency(text);
+				MappedGraph mapped = roundTrip(expected, binary);
+				assertEquals(weighted, mapped.isWeighted());
+				CompressedGraphTest.assertSameEdges(expected, mapped);
+				assertEquals(GraphFile.HEADER_BYTES + 8L * (expected.vertexCount() + 1)
+						+ (weighted ? 8L : 4L) * expected.edgeCount(), binary.length());
+				//the loader tells the two formats apart by the magic number
+				assertTrue(GraphFile.isGraphFile(binary));
+				assertFalse(GraphFile.isGraphFile(text));
+				CompressedGraphTest.assertSameEdges(expected, GraphLoader.load(binary, weighted));
+				CompressedGraphTest.assertSameEdges(expected, GraphLoader.load(text, weighted));
+			} finally {
+				text.delete();
+				binary.delete();
+			}
+		}
+	}
+
+	@Test
+	public void largeAndEmptyGraphs() throws IOException {
+		File binary = File.createTempFile("graph", ".bin");
+		try {
+			//several write buffers of offsets, targets and weights
+			CsrGraph graph = CompressedGraphTest.similarLists(20000, true, 9);
+			CompressedGraphTest.assertSameEdges(graph, roundTrip(graph, binary));
+			CsrGraph compressedSource = CompressedGraphTest.similarLists(3000, false, 10);
+			CompressedGraphTest.assertSameEdges(compressedSource, roundTrip(CompressedGraph.compress(compressedSource), binary));
+			CsrGraph empty = new CsrGraph(new int[] { 0 }, new int[0], null);
+			MappedGraph mapped = roundTrip(empty, binary);
+			assertEquals(0, mapped.vertexCount());
+			assertEquals(0, mapped.edgeCount());
+		} finally {
+			binary.delete();
+		}
+	}
+
+	@Test
+	public void unweightedFileIsNotLoadedAsWeighted() throws IOException {
+		File binary = File.createTempFile("graph", ".bin");
+		try {
+			GraphFile.write(CompressedGraphTest.similarLists(100, false, 11), binary);
+			assertFalse(GraphFile.map(binary).isWeighted());
+			try {
+				GraphLoader.load(binary, true);
+				fail("Loaded an unweighted graph file as weighted");
+			} catch (IOException e) {
+			}
+		} finally {
+			binary.delete();
+		}
+	}
+
+	@Test
+	public void rejectsCorruptHeaders() throws IOException {
+		File binary = File.createTempFile("graph", ".bin");
+		try {
+			CsrGraph graph = CompressedGraphTest.similarLists(100, true, 12);
+			GraphFile.write(graph, binary);
+			setInt(binary, 0, 0x12345678);
+			assertFalse(GraphFile.isGraphFile(binary));
+			assertRejected(binary, "magic");
+
+			GraphFile.write(graph, binary);
+			setInt(binary, 4, GraphFile.VERSION + 1);
+			assertRejected(binary, "version");
+
+			//an unweighted flag leaves the weights as trailing bytes
+			GraphFile.write(graph, binary);
+			setInt(binary, 8, 0);
+			assertRejected(binary, "weighted flag");
+
+			GraphFile.write(graph, binary);
+			setInt(binary, 12, graph.vertexCount() + 1);
+			assertRejected(binary, "vertex count");
+
+			GraphFile.write(graph, binary);
+			setInt(binary, 12, -5);
+			assertRejected(binary, "negative vertex count");
+
+			GraphFile.write(graph, binary);
+			setInt(binary, 16, (int) graph.edgeCount() - 1);
+			assertRejected(binary, "edge count");
+		} finally {
+			binary.delete();
+		}
+	}
+
+	@Test
+	public void rejectsTruncatedFiles() throws IOException {
+		File binary = File.createTempFile("graph", ".bin");
+		try {
+			CsrGraph graph = CompressedGraphTest.similarLists(100, false, 13);
+			GraphFile.write(graph, binary);
+			long length = binary.length();
+			truncate(binary, length - 4);
+			assertRejected(binary, "missing last target");
+			truncate(binary, GraphFile.HEADER_BYTES);
+			assertRejected(binary, "header only");
+			truncate(binary, 10);
+			assertFalse(GraphFile.isGraphFile(binary));
+			assertRejected(binary, "part of a header");
+		} finally {
+			binary.delete();
+		}
+	}
+
+	/**
+	 * Overwrites one little-endian int of a file
+	 */
+	private static void setInt(File file, long offset, int value) throws IOException {
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			output.seek(offset);
+			output.writeInt(Integer.reverseBytes(value));
+		} finally {
+			output.close();
+		}
+	}
+
+	private static void truncate(File file, long length) throws IOException {
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			output.setLength(length);
+		} finally {
+			output.close();
+		}
+	}
+
+	private static void assertRejected(File file, String corruption) {
+		try {
+			GraphFile.map(file);
+			fail("Mapped a graph file with a bad " + corruption);
+		} catch (IOException e) {
+		}
+	}
+}
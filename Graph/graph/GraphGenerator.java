@@ -0,0 +1,585 @@
+package graph;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams large synthetic graphs to the text formats and the binary graph file without building them in memory.
+ * The out-edges of every vertex are drawn from a random stream seeded by the generator seed and the vertex alone, so
+ * a vertex's edges can be generated on any thread in any order and the same seed always gives the same graph, whatever
+ * the number of threads. Vertices are numbered 1..n like the text inputs; vertex 0 has no edges.
+ * <ul>
+ * <li>ERDOS_RENYI - directed G(n, p) with p = averageDegree / n: Poisson out-degrees and uniform targets</li>
+ * <li>RMAT - R-MAT, a stochastic Kronecker graph with a 2x2 initiator. n is rounded up to a power of two. Out-degrees
+ * follow the row probabilities of the initiator and each target bit is drawn given the matching row bit.</li>
+ * <li>GRID - square grid with edges both ways between neighbors, shaped like a road network. n is rounded down to a square
+ * and the average degree is ignored. The only model that can be written undirected.</li>
+ * <li>POWER_LAW - Chung-Lu graph with expected degrees following a power law with the given exponent, so in- and
+ * out-degrees both have heavy tails</li>
+ * </ul>
+ * Text output is generated in chunks of vertices on all threads and written in order. Binary output takes two passes:
+ * the first counts the edges of every chunk, which fixes where each chunk's offsets, targets and weights go in the file,
+ * and the second generates the chunks again and writes them at those positions in parallel.
+ * @author sandasai
+ *
+ */
+public class GraphGenerator {
+
+	public enum Model { ERDOS_RENYI, RMAT, GRID, POWER_LAW }
+
+	//vertices generated by one task
+	private static final int CHUNK_VERTICES = 1 << 16;
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final Model model;
+	private final int vertices;
+	private final double averageDegree;
+	private final long seed;
+	private WeightDistribution weights = WeightDistribution.uniform(1, 100);
+	private boolean undirected;
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	//R-MAT initiator, d = 1 - a - b - c
+	private double a = 0.57;
+	private double b = 0.19;
+	private double c = 0.19;
+	private int scale;
+
+	private int side;	//grid rows and columns
+
+	//power law: expected degree of vertex v is degreeScale * v^-beta with beta = 1 / (exponent - 1)
+	private double exponent = 2.5;
+	private double beta;
+	private double degreeScale;
+
+	/**
+	 * @param model
+	 * @param vertices number of vertices n
+	 * @param averageDegree expected number of out-edges per vertex
+	 * @param seed
+	 */
+	public GraphGenerator(Model model, int vertices, double averageDegree, long seed) {
+		if (vertices < 1)
+			throw new IllegalArgumentException("Need at least one vertex: " + vertices);
+		if (averageDegree < 0)
+			throw new IllegalArgumentException("Average degree must not be negative: " + averageDegree);
+		this.model = model;
+		this.averageDegree = averageDegree;
+		this.seed = seed;
+		if (vertices == Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many vertices: " + vertices);
+		if (model == Model.RMAT) {
+			while (scale < 31 && (1 << scale) < vertices)
+				scale++;
+			if (scale == 31)
+				throw new IllegalArgumentException("Too many vertices for R-MAT: " + vertices);
+			vertices = 1 << scale;
+		} else if (model == Model.GRID) {
+			side = (int) Math.sqrt((double) vertices);
+			vertices = side * side;
+		}
+		this.vertices = vertices;
+		setExponent(exponent);
+	}
+
+	/**
+	 * @param weights distribution of the edge weights in weighted output, uniform in 1..100 by default
+	 */
+	public GraphGenerator setWeights(WeightDistribution weights) {
+		this.weights = weights;
+		return this;
+	}
+
+	/**
+	 * Lists every edge from both ends with the same weight, as the min cut input needs. Grids only, since for the random
+	 * models the edges into a vertex are not known without holding the graph.
+	 * @param undirected
+	 */
+	public GraphGenerator setUndirected(boolean undirected) {
+		if (undirected && model != Model.GRID)
+			throw new IllegalArgumentException("Only grids can be generated undirected");
+		this.undirected = undirected;
+		return this;
+	}
+
+	/**
+	 * @param threads number of generating threads, all cores by default
+	 */
+	public GraphGenerator setThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Need at least one thread");
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * Sets the R-MAT initiator probabilities of the four quadrants, the last one is 1 - a - b - c.
+	 * The default 0.57, 0.19, 0.19 is the Graph500 initiator.
+	 * @param a
+	 * @param b
+	 * @param c
+	 */
+	public GraphGenerator setRmatProbabilities(double a, double b, double c) {
+		if (a <= 0 || b <= 0 || c <= 0 || a + b + c >= 1)
+			throw new IllegalArgumentException("Need positive probabilities with a + b + c < 1");
+		this.a = a;
+		this.b = b;
+		this.c = c;
+		return this;
+	}
+
+	/**
+	 * @param exponent power law exponent of the degree distribution, greater than 2, 2.5 by default
+	 */
+	public GraphGenerator setExponent(double exponent) {
+		if (!(exponent > 2))
+			throw new IllegalArgumentException("The power law exponent must be greater than 2: " + exponent);
+		this.exponent = exponent;
+		beta = 1 / (exponent - 1);
+		//sum of v^-beta over 1..n, by Euler-Maclaurin
+		double sum = (Math.pow(vertices, 1 - beta) - 1) / (1 - beta) + (1 + Math.pow(vertices, -beta)) / 2;
+		degreeScale = averageDegree * vertices / sum;
+		return this;
+	}
+
+	/**
+	 * @return number of vertices n after rounding for the model; the output has vertices 1..n
+	 */
+	public int vertices() {
+		return vertices;
+	}
+
+	/**
+	 * Writes rows of "vertex destination,weight ..." (weighted, the Dijkstras format) or "vertex toVertex ..." (the
+	 * StronglyConnectedComponents and KargerMinCut format). Every vertex gets a row, even without edges.
+	 * @param file
+	 * @param weighted
+	 * @return number of edges written
+	 * @throws IOException
+	 */
+	public long writeText(File file, final boolean weighted) throws IOException {
+		FileOutputStream output = new FileOutputStream(file);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			FileChannel channel = output.getChannel();
+			int chunks = chunkCount();
+			//chunks are generated at most two per thread ahead of the one being written
+			ArrayDeque<Future<TextChunk>> pending = new ArrayDeque<Future<TextChunk>>();
+			int submitted = 0;
+			long edges = 0;
+			while (submitted < chunks || !pending.isEmpty()) {
+				while (submitted < chunks && pending.size() < 2 * threads) {
+					final int chunk = submitted++;
+					pending.add(pool.submit(new Callable<TextChunk>() {
+						public TextChunk call() {
+							return text(chunk, weighted);
+						}
+					}));
+				}
+				TextChunk text = pending.poll().get();
+				ByteBuffer buffer = ByteBuffer.wrap(text.bytes, 0, text.size);
+				while (buffer.hasRemaining())
+					channel.write(buffer);
+				edges += text.edges;
+			}
+			return edges;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while generating " + file, e);
+		} catch (ExecutionException e) {
+			throw rethrow(e);
+		} finally {
+			pool.shutdownNow();
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes a binary graph file (see GraphFile for the layout) with vertex count n + 1
+	 * @param file
+	 * @param weighted
+	 * @return number of edges written
+	 * @throws IOException
+	 */
+	public long writeBinary(File file, final boolean weighted) throws IOException {
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			final FileChannel channel = output.getChannel();
+			int chunks = chunkCount();
+
+			//first pass - edges per chunk
+			List<Future<Long>> counts = new ArrayList<Future<Long>>();
+			for (int i = 0; i < chunks; i++) {
+				final int chunk = i;
+				counts.add(pool.submit(new Callable<Long>() {
+					public Long call() {
+						return countEdges(chunk);
+					}
+				}));
+			}
+			final long[] chunkStart = new long[chunks + 1];
+			for (int i = 0; i < chunks; i++)
+				chunkStart[i + 1] = chunkStart[i] + counts.get(i).get();
+			long m = chunkStart[chunks];
+			int n = vertices + 1;
+			final long offsetsAt = GraphFile.HEADER_BYTES;
+			final long targetsAt = offsetsAt + 8L * (n + 1);
+			final long weightsAt = targetsAt + 4L * m;
+			output.setLength(0);
+			output.setLength(weighted ? weightsAt + 4L * m : weightsAt);
+
+			//second pass - every chunk writes its offsets, targets and weights at their final positions
+			List<Future<Long>> writes = new ArrayList<Future<Long>>();
+			for (int i = 0; i < chunks; i++) {
+				final int chunk = i;
+				writes.add(pool.submit(new Callable<Long>() {
+					public Long call() throws IOException {
+						return writeChunk(channel, chunk, chunkStart[chunk], offsetsAt, targetsAt, weighted ? weightsAt : -1);
+					}
+				}));
+			}
+			for (int i = 0; i < chunks; i++) {
+				if (writes.get(i).get() != chunkStart[i + 1] - chunkStart[i])
+					throw new IllegalStateException("Chunk " + i + " generated a different number of edges on the second pass");
+			}
+
+			ByteBuffer header = ByteBuffer.allocate(GraphFile.HEADER_BYTES + 8).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(GraphFile.MAGIC).putInt(GraphFile.VERSION).putInt(weighted ? GraphFile.FLAG_WEIGHTED : 0)
+					.putInt(n).putLong(m).putLong(0);	//vertex 0 has no edges
+			header.flip();
+			writeFully(channel, header, 0);
+			ByteBuffer last = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(m);
+			last.flip();
+			writeFully(channel, last, offsetsAt + 8L * n);
+			return m;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while generating " + file, e);
+		} catch (ExecutionException e) {
+			throw rethrow(e);
+		} finally {
+			pool.shutdownNow();
+			output.close();
+		}
+	}
+
+	private static IOException rethrow(ExecutionException e) {
+		if (e.getCause() instanceof IOException)
+			return (IOException) e.getCause();
+		if (e.getCause() instanceof RuntimeException)
+			throw (RuntimeException) e.getCause();
+		return new IOException(e.getCause());
+	}
+
+	private int chunkCount() {
+		return (int) (((long) vertices + CHUNK_VERTICES - 1) / CHUNK_VERTICES);
+	}
+
+	private int firstVertex(int chunk) {
+		return 1 + chunk * CHUNK_VERTICES;
+	}
+
+	private int lastVertex(int chunk) {
+		return (int) Math.min(vertices, (long) firstVertex(chunk) + CHUNK_VERTICES - 1);
+	}
+
+	private long countEdges(int chunk) {
+		SplitMix random = new SplitMix();
+		long edges = 0;
+		for (int v = firstVertex(chunk), last = lastVertex(chunk); v <= last; v++)
+			edges += degree(v, random);
+		return edges;
+	}
+
+	private TextChunk text(int chunk, boolean weighted) {
+		SplitMix random = new SplitMix();
+		Edges edges = new Edges();
+		TextChunk text = new TextChunk();
+		for (int v = firstVertex(chunk), last = lastVertex(chunk); v <= last; v++) {
+			generate(v, random, edges, weighted);
+			text.append(v);
+			for (int i = 0; i < edges.size; i++) {
+				text.append(weighted ? '\t' : ' ');
+				text.append(edges.targets[i]);
+				if (weighted) {
+					text.append(',');
+					text.append(edges.weights[i]);
+				}
+			}
+			text.append('\n');
+			text.edges += edges.size;
+		}
+		return text;
+	}
+
+	/**
+	 * @param weightsAt file position of the weights, -1 for an unweighted file
+	 * @return number of edges written
+	 */
+	private long writeChunk(FileChannel channel, int chunk, long start, long offsetsAt, long targetsAt, long weightsAt)
+			throws IOException {
+		SplitMix random = new SplitMix();
+		Edges edges = new Edges();
+		int first = firstVertex(chunk);
+		int last = lastVertex(chunk);
+		ByteBuffer offsets = ByteBuffer.allocate(8 * (last - first + 1)).order(ByteOrder.LITTLE_ENDIAN);
+		PositionedBuffer targets = new PositionedBuffer(channel, targetsAt + 4 * start);
+		PositionedBuffer weights = weightsAt < 0 ? null : new PositionedBuffer(channel, weightsAt + 4 * start);
+		long offset = start;
+		for (int v = first; v <= last; v++) {
+			offsets.putLong(offset);
+			generate(v, random, edges, weights != null);
+			for (int i = 0; i < edges.size; i++) {
+				targets.putInt(edges.targets[i]);
+				if (weights != null)
+					weights.putInt(edges.weights[i]);
+			}
+			offset += edges.size;
+		}
+		offsets.flip();
+		writeFully(channel, offsets, offsetsAt + 8L * first);
+		targets.flush();
+		if (weights != null)
+			weights.flush();
+		return offset - start;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining())
+			position += channel.write(buffer, position);
+	}
+
+	/**
+	 * @return out-degree of a vertex, the first draw of its random stream
+	 */
+	private int degree(int v, SplitMix random) {
+		random.reset(seed, v);
+		switch (model) {
+		case ERDOS_RENYI:
+			return random.poisson(averageDegree);
+		case RMAT:
+			double rowProbability = 1;
+			for (int bit = scale - 1; bit >= 0; bit--)
+				rowProbability *= ((v - 1) >>> bit & 1) == 0 ? a + b : 1 - a - b;
+			return random.poisson(averageDegree * vertices * rowProbability);
+		case GRID:
+			int row = (v - 1) / side;
+			int column = (v - 1) % side;
+			return (row > 0 ? 1 : 0) + (column > 0 ? 1 : 0) + (column + 1 < side ? 1 : 0) + (row + 1 < side ? 1 : 0);
+		default:
+			return random.poisson(degreeScale * Math.pow(v, -beta));
+		}
+	}
+
+	/**
+	 * Draws the out-edges of a vertex
+	 */
+	private void generate(int v, SplitMix random, Edges edges, boolean weighted) {
+		int degree = degree(v, random);
+		edges.clear(degree);
+		if (model == Model.GRID) {
+			int row = (v - 1) / side;
+			int column = (v - 1) % side;
+			if (row > 0)
+				addGridEdge(v, v - side, edges, weighted);
+			if (column > 0)
+				addGridEdge(v, v - 1, edges, weighted);
+			if (column + 1 < side)
+				addGridEdge(v, v + 1, edges, weighted);
+			if (row + 1 < side)
+				addGridEdge(v, v + side, edges, weighted);
+			return;
+		}
+		for (int i = 0; i < degree; i++) {
+			int target;
+			if (model == Model.ERDOS_RENYI) {
+				do {
+					target = 1 + random.nextInt(vertices);
+				} while (target == v && vertices > 1);
+			} else if (model == Model.RMAT) {
+				target = 0;
+				for (int bit = scale - 1; bit >= 0; bit--) {
+					double zero = ((v - 1) >>> bit & 1) == 0 ? a / (a + b) : c / (1 - a - b);
+					if (random.nextDouble() >= zero)
+						target |= 1 << bit;
+				}
+				target++;
+			} else {
+				//inverse of the continuous cumulative degree weight, x^(1 - beta) between 1 and n + 1
+				double high = Math.pow(vertices + 1.0, 1 - beta);
+				double x = Math.pow(1 + random.nextDouble() * (high - 1), 1 / (1 - beta));
+				target = (int) Math.min(vertices, Math.max(1, (long) x));
+			}
+			//drawn for unweighted output too, so both have the same targets
+			double weight = random.nextDouble();
+			edges.add(target, weighted ? weights.sample(weight) : 0);
+		}
+	}
+
+	/**
+	 * A grid edge's weight comes from the pair of its ends instead of the vertex stream, so the two directions of an
+	 * undirected edge agree
+	 */
+	private void addGridEdge(int v, int w, Edges edges, boolean weighted) {
+		int weight = 0;
+		if (weighted) {
+			long key = undirected ? (long) Math.min(v, w) << 32 | Math.max(v, w) : (long) v << 32 | w;
+			weight = weights.sample(SplitMix.toDouble(SplitMix.mix(seed + key * GOLDEN_GAMMA)));
+		}
+		edges.add(w, weight);
+	}
+
+	/**
+	 * SplitMix64, a small random generator that can be reseeded per vertex without allocating
+	 */
+	static final class SplitMix {
+
+		private long state;
+
+		void reset(long seed, int vertex) {
+			state = mix(seed ^ mix(vertex * GOLDEN_GAMMA));
+		}
+
+		static long mix(long z) {
+			z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+			z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+			return z ^ (z >>> 31);
+		}
+
+		static double toDouble(long bits) {
+			return (bits >>> 11) * 0x1.0p-53;
+		}
+
+		long nextLong() {
+			state += GOLDEN_GAMMA;
+			return mix(state);
+		}
+
+		double nextDouble() {
+			return toDouble(nextLong());
+		}
+
+		int nextInt(int bound) {
+			return (int) ((nextLong() >>> 33) * bound >>> 31);
+		}
+
+		/**
+		 * Knuth's multiplication method for small means, a rounded normal approximation for large ones
+		 */
+		int poisson(double mean) {
+			if (mean <= 0)
+				return 0;
+			if (mean < 30) {
+				double limit = Math.exp(-mean);
+				double product = nextDouble();
+				int count = 0;
+				while (product > limit) {
+					product *= nextDouble();
+					count++;
+				}
+				return count;
+			}
+			//Box-Muller
+			double gaussian = Math.sqrt(-2 * Math.log(1 - nextDouble())) * Math.cos(2 * Math.PI * nextDouble());
+			return (int) Math.max(0, Math.min(Integer.MAX_VALUE - 8, Math.round(mean + Math.sqrt(mean) * gaussian)));
+		}
+	}
+
+	/**
+	 * Out-edges of the vertex being generated
+	 */
+	private static class Edges {
+		int[] targets = new int[16];
+		int[] weights = new int[16];
+		int size;
+
+		void clear(int capacity) {
+			size = 0;
+			if (capacity > targets.length) {
+				targets = new int[capacity];
+				weights = new int[capacity];
+			}
+		}
+
+		void add(int target, int weight) {
+			targets[size] = target;
+			weights[size++] = weight;
+		}
+	}
+
+	/**
+	 * Rows of one chunk as ASCII bytes
+	 */
+	private static class TextChunk {
+		byte[] bytes = new byte[1 << 16];
+		int size;
+		long edges;
+
+		void append(char ch) {
+			if (size == bytes.length)
+				bytes = Arrays.copyOf(bytes, size * 2);
+			bytes[size++] = (byte) ch;
+		}
+
+		void append(int value) {
+			if (size + 11 > bytes.length)
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			if (value == 0) {
+				bytes[size++] = '0';
+				return;
+			}
+			int start = size;
+			while (value > 0) {
+				bytes[size++] = (byte) ('0' + value % 10);
+				value /= 10;
+			}
+			for (int i = start, j = size - 1; i < j; i++, j--) {
+				byte swap = bytes[i];
+				bytes[i] = bytes[j];
+				bytes[j] = swap;
+			}
+		}
+	}
+
+	/**
+	 * Write buffer for one chunk's run of ints, flushed to consecutive file positions
+	 */
+	private static class PositionedBuffer {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		private long position;
+
+		PositionedBuffer(FileChannel channel, long position) {
+			this.channel = channel;
+			this.position = position;
+		}
+
+		void putInt(int value) throws IOException {
+			if (buffer.remaining() < 4)
+				flush();
+			buffer.putInt(value);
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				position += channel.write(buffer, position);
+			buffer.clear();
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+
+public class GraphGeneratorMain {
+
+	/**
+	 * Generates a synthetic graph file
+	 * @param args 0 - model: erdos-renyi, rmat, grid or power-law
+	 * 			   1 - number of vertices
+	 * 			   2 - average out-degree (ignored for grids)
+	 * 			   3 - seed
+	 * 			   4 - format: "weighted" for the Dijkstras text format, "adjacency" for the StronglyConnectedComponents and
+	 * 				   KargerMinCut text format, "binary" or "weighted-binary" for a binary graph file
+	 * 			   5 - output file
+	 * 			   6... - options: weights=constant:w|uniform:min:max|exponential:mean, undirected (grids only),
+	 * 				   threads=n, rmat=a,b,c, exponent=x
+	 */
+	public static void main(String[] args) {
+		if (args.length < 6) {
+			System.out.println("usage: GraphGeneratorMain erdos-renyi|rmat|grid|power-law <vertices> <averageDegree> <seed> "
+					+ "weighted|adjacency|binary|weighted-binary <output> [weights=...] [undirected] [threads=n] [rmat=a,b,c] [exponent=x]");
+			return;
+		}
+		String format = args[4];
+		File output = new File(args[5]);
+		try {
+			GraphGenerator.Model model = GraphGenerator.Model.valueOf(args[0].toUpperCase().replace('-', '_'));
+			GraphGenerator generator = new GraphGenerator(model, Integer.parseInt(args[1]), Double.parseDouble(args[2]),
+					Long.parseLong(args[3]));
+			for (int i = 6; i < args.length; i++) {
+				String option = args[i];
+				String value = option.substring(option.indexOf('=') + 1);
+				if (option.equals("undirected")) {
+					generator.setUndirected(true);
+				} else if (option.startsWith("weights=")) {
+					generator.setWeights(WeightDistribution.parse(value));
+				} else if (option.startsWith("threads=")) {
+					generator.setThreads(Integer.parseInt(value));
+				} else if (option.startsWith("rmat=")) {
+					String[] quadrants = value.split(",");
+					generator.setRmatProbabilities(Double.parseDouble(quadrants[0]), Double.parseDouble(quadrants[1]),
+							Double.parseDouble(quadrants[2]));
+				} else if (option.startsWith("exponent=")) {
+					generator.setExponent(Double.parseDouble(value));
+				} else {
+					System.out.println("Unknown option '" + option + "'");
+					return;
+				}
+			}
+			long start = System.nanoTime();
+			long edges;
+			if (format.equals("weighted") || format.equals("adjacency"))
+				edges = generator.writeText(output, format.equals("weighted"));
+			else if (format.equals("binary") || format.equals("weighted-binary"))
+				edges = generator.writeBinary(output, format.equals("weighted-binary"));
+			else {
+				System.out.println("Unknown format '" + format + "'");
+				return;
+			}
+			long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+			System.out.println(String.format("wrote %d vertices and %d edges (%d bytes) in %d ms, %.1f MB/s", generator.vertices(),
+					edges, output.length(), millis, output.length() / (1024.0 * 1024.0) / (millis / 1000.0)));
+		} catch (IllegalArgumentException ex) {
+			System.out.println(ex.getMessage());
+		} catch (IOException ex) {
+			System.out.println("Error writing file '" + args[5] + "': " + ex.getMessage());
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class GraphGeneratorTest {
+
+	//a little over two generator chunks, so several threads share the work
+	private static final int VERTICES = 140000;
+
+	static GraphGenerator generator(GraphGenerator.Model model, int threads) {
+		return new GraphGenerator(model, VERTICES, 2, 17).setThreads(threads);
+	}
+
+	@Test
+	public void binaryOutputDoesNotDependOnThreads() throws IOException {
+		File single = File.createTempFile("single", ".bin");
+		File parallel = File.createTempFile("parallel", ".bin");
+		try {
+			for (GraphGenerator.Model model : GraphGenerator.Model.values()) {
+				for (boolean weighted : new boolean[] { false, true }) {
+					long edges = generator(model, 1).writeBinary(single, weighted);
+					assertEquals(model + " edges", edges, generator(model, 4).writeBinary(parallel, weighted));
+					assertTrue(model + " bytes", Arrays.equals(Files.readAllBytes(single.toPath()), Files.readAllBytes(parallel.toPath())));
+					assertEquals(edges, GraphFile.map(single).edgeCount());
+				}
+			}
+		} finally {
+			single.delete();
+			parallel.delete();
+		}
+	}
+
+	@Test
+	public void textAndBinaryOutputsAreTheSameGraph() throws IOException {
+		File text = File.createTempFile("graph", ".txt");
+		File binary = File.createTempFile("graph", ".bin");
+		try {
+			for (GraphGenerator.Model model : GraphGenerator.Model.values()) {
+				for (boolean weighted : new boolean[] { false, true }) {
+					long edges = generator(model, 4).writeText(text, weighted);
+					assertEquals(model + " edges", edges, generator(model, 4).writeBinary(binary, weighted));
+					CsrGraph fromText = weighted ? TextGraphReader.readWeighted(text) : TextGraphReader.readAdjacency(text);
+					CompressedGraphTest.assertSameEdges(fromText, GraphFile.map(binary));
+					assertEquals(edges, fromText.edgeCount());
+				}
+			}
+			//undirected grids list every edge from both ends, with the same weight
+			GraphGenerator grid = new GraphGenerator(GraphGenerator.Model.GRID, 1000, 0, 5).setUndirected(true);
+			grid.writeText(text, true);
+			grid.writeBinary(binary, true);
+			CompressedGraphTest.assertSameEdges(TextGraphReader.readWeighted(text), GraphFile.map(binary));
+		} finally {
+			text.delete();
+			binary.delete();
+		}
+	}
+}
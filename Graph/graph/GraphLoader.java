@@ -0,0 +1,39 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Opens a graph for the solvers from either a binary graph file or one of the text adjacency list formats
+ * @author sandasai
+ *
+ */
+public class GraphLoader {
+
+	//-Dgraph.compress=true keeps loaded graphs as a CompressedGraph
+	static final boolean COMPRESS = Boolean.getBoolean("graph.compress");
+
+	private GraphLoader() {
+	}
+
+	/**
+	 * Maps the file if it is a binary graph file, otherwise parses it as text on all cores.
+	 * With -Dgraph.compress=true either one is then compressed, trading some decode time for a smaller footprint
+	 * @param file
+	 * @param weighted true for the weighted "vertex destination,weight ..." text format,
+	 * false for the "vertex toVertex ..." format
+	 * @return the graph
+	 * @throws IOException
+	 */
+	public static Graph load(File file, boolean weighted) throws IOException {
+		Graph graph;
+		if (GraphFile.isGraphFile(file)) {
+			graph = GraphFile.map(file);
+			if (weighted && !graph.isWeighted())
+				throw new IOException("Expected a weighted graph file: " + file);
+		} else {
+			graph = new ParallelTextParser().parse(file, weighted);
+		}
+		return COMPRESS ? CompressedGraph.compress(graph) : graph;
+	}
+}
@@ -0,0 +1,194 @@
+package graph;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and phase timers shared by the solvers and loaders, switched on with -Dgraph.instrumentation=true.
+ * ENABLED is a static final constant, so when it is off the JIT compiles every "if (Instrumentation.ENABLED)" block away
+ * and the instrumentation costs nothing. Solvers count in plain fields inside their loops and add the totals here once per
+ * solve, so the shared LongAdders are not touched per operation.
+ * When on, the totals are published as the MXBean graph:type=Instrumentation, and every timed phase is also
+ * committed as a JFR event (graph.Phase) when a flight recording is running.
+ * @author sandasai
+ *
+ */
+public class Instrumentation {
+
+	public static final boolean ENABLED = Boolean.getBoolean("graph.instrumentation");
+
+	public enum Counter {
+		DIJKSTRA_SOLVES,
+		DIJKSTRA_HEAP_INSERTS,
+		DIJKSTRA_HEAP_REMOVES,
+		DIJKSTRA_DECREASE_KEYS,
+		DIJKSTRA_RELAXATIONS,
+		SCC_SOLVES,
+		SCC_DFS_PUSHES,
+		SCC_COMPONENTS,
+		MINCUT_TRIALS,
+		MINCUT_CONTRACTIONS,
+		MINCUT_SELF_LOOPS,
+		LOADER_BYTES,
+		LOADER_LINES
+	}
+
+	public enum Phase {
+		DIJKSTRA_SOLVE,
+		SCC_FIRST_PASS,
+		SCC_REVERSE,
+		SCC_SECOND_PASS,
+		SCC_SINGLE_PASS,
+		SCC_TRIM,
+		SCC_FORWARD_BACKWARD,
+		SCC_COLORING,
+		MINCUT_TRIAL,
+		TEXT_PARSE,
+		BINARY_MAP
+	}
+
+	private static final LongAdder[] counters = adders(Counter.values().length);
+	private static final LongAdder[] phaseNanos = adders(Phase.values().length);
+	private static final LongAdder[] phaseCounts = adders(Phase.values().length);
+
+	static {
+		if (ENABLED) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(),
+						new ObjectName("graph:type=Instrumentation"));
+			} catch (JMException e) {
+				//already registered by another class loader, the counters still work
+			}
+		}
+	}
+
+	private Instrumentation() {
+	}
+
+	private static LongAdder[] adders(int count) {
+		LongAdder[] adders = new LongAdder[count];
+		for (int i = 0; i < count; i++)
+			adders[i] = new LongAdder();
+		return adders;
+	}
+
+	/**
+	 * Adds to a counter; callers check ENABLED first
+	 * @param counter
+	 * @param amount
+	 */
+	public static void add(Counter counter, long amount) {
+		counters[counter.ordinal()].add(amount);
+	}
+
+	/**
+	 * Starts timing a phase; callers check ENABLED first
+	 * @param phase
+	 * @return the timer to stop when the phase ends
+	 */
+	public static Timer start(Phase phase) {
+		return new Timer(phase);
+	}
+
+	public static long get(Counter counter) {
+		return counters[counter.ordinal()].sum();
+	}
+
+	/**
+	 * @param phase
+	 * @return total nanoseconds spent in a phase
+	 */
+	public static long nanos(Phase phase) {
+		return phaseNanos[phase.ordinal()].sum();
+	}
+
+	/**
+	 * Sets every counter and timer back to zero
+	 */
+	public static void reset() {
+		for (LongAdder adder : counters)
+			adder.reset();
+		for (LongAdder adder : phaseNanos)
+			adder.reset();
+		for (LongAdder adder : phaseCounts)
+			adder.reset();
+	}
+
+	/**
+	 * One timed run of a phase
+	 */
+	public static final class Timer {
+
+		private final Phase phase;
+		private final long start;
+		private final PhaseEvent event;
+
+		private Timer(Phase phase) {
+			this.phase = phase;
+			this.event = new PhaseEvent();
+			event.begin();
+			this.start = System.nanoTime();
+		}
+
+		/**
+		 * @param items work done in the phase, such as vertices settled or bytes parsed
+		 */
+		public void stop(long items) {
+			phaseNanos[phase.ordinal()].add(System.nanoTime() - start);
+			phaseCounts[phase.ordinal()].increment();
+			event.end();
+			if (event.shouldCommit()) {
+				event.phase = phase.name();
+				event.items = items;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Read-only JMX view of the counters and phase timers
+	 */
+	public interface InstrumentationMXBean {
+
+		Map<String, Long> getCounters();
+
+		Map<String, Long> getPhaseNanos();
+
+		Map<String, Long> getPhaseCounts();
+
+		void reset();
+	}
+
+	private static class Bean implements InstrumentationMXBean {
+
+		public Map<String, Long> getCounters() {
+			Map<String, Long> values = new LinkedHashMap<String, Long>();
+			for (Counter counter : Counter.values())
+				values.put(counter.name(), get(counter));
+			return values;
+		}
+
+		public Map<String, Long> getPhaseNanos() {
+			Map<String, Long> values = new LinkedHashMap<String, Long>();
+			for (Phase phase : Phase.values())
+				values.put(phase.name(), nanos(phase));
+			return values;
+		}
+
+		public Map<String, Long> getPhaseCounts() {
+			Map<String, Long> values = new LinkedHashMap<String, Long>();
+			for (Phase phase : Phase.values())
+				values.put(phase.name(), phaseCounts[phase.ordinal()].sum());
+			return values;
+		}
+
+		public void reset() {
+			Instrumentation.reset();
+		}
+	}
+}
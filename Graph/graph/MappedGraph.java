@@ -0,0 +1,66 @@
+package graph;
+
+/**
+ * Graph backed by a memory mapped binary graph file, see GraphFile. Nothing is copied onto the heap;
+ * edges are read straight from the page cache.
+ * @author sandasai
+ *
+ */
+public final class MappedGraph implements Graph {
+
+	private final int vertexCount;
+	private final long edgeCount;
+	private final MappedRegion offsets;
+	private final MappedRegion targets;
+	private final MappedRegion weights; //null for unweighted graphs
+
+	MappedGraph(int vertexCount, long edgeCount, MappedRegion offsets, MappedRegion targets, MappedRegion weights) {
+		this.vertexCount = vertexCount;
+		this.edgeCount = edgeCount;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	public int vertexCount() {
+		return vertexCount;
+	}
+
+	public long edgeCount() {
+		return edgeCount;
+	}
+
+	public boolean isWeighted() {
+		return weights != null;
+	}
+
+	public int degree(int v) {
+		return (int) (offsets.getLong(v + 1) - offsets.getLong(v));
+	}
+
+	public NeighborCursor cursor() {
+		return new Cursor();
+	}
+
+	private class Cursor implements NeighborCursor {
+		private long edge;
+		private long end;
+
+		public void reset(int v) {
+			edge = offsets.getLong(v) - 1;
+			end = offsets.getLong(v + 1);
+		}
+
+		public boolean next() {
+			return ++edge < end;
+		}
+
+		public int target() {
+			return targets.getInt(edge);
+		}
+
+		public int weight() {
+			return weights == null ? 0 : weights.getInt(edge);
+		}
+	}
+}
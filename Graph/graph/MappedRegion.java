@@ -0,0 +1,55 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only little-endian view of a file region that may be larger than the 2GB limit of a single mapping.
+ * The region is mapped in 1GB segments starting at the region start, so 4 and 8 byte values never straddle two segments.
+ * @author sandasai
+ *
+ */
+class MappedRegion {
+
+	private static final int SEGMENT_SHIFT = 30;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+	private final MappedByteBuffer[] segments;
+
+	/**
+	 * @param channel open channel of the file
+	 * @param position byte position of the region in the file
+	 * @param length length of the region in bytes
+	 * @throws IOException
+	 */
+	MappedRegion(FileChannel channel, long position, long length) throws IOException {
+		int count = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+		segments = new MappedByteBuffer[count];
+		for (int i = 0; i < count; i++) {
+			long start = (long) i << SEGMENT_SHIFT;
+			long size = Math.min(length - start, 1L << SEGMENT_SHIFT);
+			segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + start, size);
+			segments[i].order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	/**
+	 * @param index index of an int in the region
+	 * @return the int
+	 */
+	int getInt(long index) {
+		long at = index << 2;
+		return segments[(int) (at >>> SEGMENT_SHIFT)].getInt((int) (at & SEGMENT_MASK));
+	}
+
+	/**
+	 * @param index index of a long in the region
+	 * @return the long
+	 */
+	long getLong(long index) {
+		long at = index << 3;
+		return segments[(int) (at >>> SEGMENT_SHIFT)].getLong((int) (at & SEGMENT_MASK));
+	}
+}
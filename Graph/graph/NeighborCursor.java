@@ -0,0 +1,37 @@
+package graph;
+
+/**
+ * Reusable iterator over the out-edges of one vertex at a time, used in solver inner loops so
+ * walking an adjacency list allocates nothing:
+ * <pre>
+ * cursor.reset(v);
+ * while (cursor.next())
+ *     visit(cursor.target(), cursor.weight());
+ * </pre>
+ * @author sandasai
+ *
+ */
+public interface NeighborCursor {
+
+	/**
+	 * Positions the cursor before the first out-edge of a vertex
+	 * @param v
+	 */
+	void reset(int v);
+
+	/**
+	 * Advances to the next out-edge
+	 * @return false once every out-edge has been visited
+	 */
+	boolean next();
+
+	/**
+	 * @return destination of the current edge
+	 */
+	int target();
+
+	/**
+	 * @return weight of the current edge, 0 for unweighted graphs
+	 */
+	int weight();
+}
@@ -0,0 +1,334 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses the text adjacency list formats on all cores. The file is split into byte ranges on line boundaries,
+ * each range is read and parsed straight from its bytes into int arrays (no Strings, no regex, no boxing),
+ * and the ranges are merged in file order, so the result is the same graph TextGraphReader builds.
+ * @author sandasai
+ *
+ */
+public class ParallelTextParser {
+
+	//target size of the byte range given to one task
+	private static final int CHUNK_BYTES = 8 << 20;
+
+	private final int threads;
+	private final int chunkBytes;
+
+	//statistics of the last parse
+	private long bytesParsed;
+	private long linesParsed;
+	private long elapsedNanos;
+
+	/**
+	 * Creates a parser using every available core
+	 */
+	public ParallelTextParser() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param threads number of parsing threads
+	 */
+	public ParallelTextParser(int threads) {
+		this(threads, CHUNK_BYTES);
+	}
+
+	/**
+	 * @param threads number of parsing threads
+	 * @param chunkBytes target size of the byte range given to one task, small in tests so ranges split short files
+	 */
+	ParallelTextParser(int threads, int chunkBytes) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Need at least one thread");
+		if (chunkBytes < 1)
+			throw new IllegalArgumentException("Chunks need at least one byte");
+		this.threads = threads;
+		this.chunkBytes = chunkBytes;
+	}
+
+	/**
+	 * Parses a file of rows "vertex destination,weight destination,weight ..." (weighted) or
+	 * "vertex toVertex toVertex ..." (unweighted). A vertex may span several rows.
+	 * @param file
+	 * @param weighted
+	 * @return the graph
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	public CsrGraph parse(File file, boolean weighted) throws IOException {
+		long start = System.nanoTime();
+		Instrumentation.Timer timer = Instrumentation.ENABLED ? Instrumentation.start(Instrumentation.Phase.TEXT_PARSE) : null;
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			FileChannel channel = input.getChannel();
+			long[] bounds = lineAlignedBounds(channel);
+			List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>();
+			for (int i = 0; i + 1 < bounds.length; i++)
+				futures.add(pool.submit(new ChunkParser(channel, bounds[i], bounds[i + 1], weighted)));
+			Chunk[] chunks = new Chunk[futures.size()];
+			for (int i = 0; i < chunks.length; i++)
+				chunks[i] = futures.get(i).get();
+			CsrGraph graph = merge(chunks, weighted);
+			bytesParsed = channel.size();
+			linesParsed = 0;
+			for (Chunk chunk : chunks)
+				linesParsed += chunk.lines;
+			elapsedNanos = System.nanoTime() - start;
+			if (Instrumentation.ENABLED)
+				TextGraphReader.recordParse(timer, bytesParsed, linesParsed);
+			return graph;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while parsing " + file, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IOException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+			input.close();
+		}
+	}
+
+	public long bytesParsed() {
+		return bytesParsed;
+	}
+
+	public long linesParsed() {
+		return linesParsed;
+	}
+
+	public long elapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return parse throughput of the last parse in MB/s
+	 */
+	public double throughput() {
+		if (elapsedNanos == 0)
+			return 0;
+		return (bytesParsed / (1024.0 * 1024.0)) / (elapsedNanos / 1e9);
+	}
+
+	/**
+	 * Splits the file into ranges of about chunkBytes, with every range but the first starting right after a newline
+	 * @return range boundaries, from 0 to the file size
+	 */
+	private long[] lineAlignedBounds(FileChannel channel) throws IOException {
+		long size = channel.size();
+		int count = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 1, (size + chunkBytes - 1) / chunkBytes));
+		long[] bounds = new long[count + 1];
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		int distinct = 1;
+		for (int i = 1; i < count; i++) {
+			long at = Math.max(size * i / count, bounds[distinct - 1]);
+			at = nextLineStart(channel, probe, at, size);
+			if (at > bounds[distinct - 1] && at < size)
+				bounds[distinct++] = at;
+		}
+		bounds[distinct++] = size;
+		return Arrays.copyOf(bounds, distinct);
+	}
+
+	/**
+	 * @return the position after the first newline at or after a position, or the file size
+	 */
+	private static long nextLineStart(FileChannel channel, ByteBuffer probe, long position, long size) throws IOException {
+		while (position < size) {
+			probe.clear();
+			int read = channel.read(probe, position);
+			if (read <= 0)
+				break;
+			for (int i = 0; i < read; i++) {
+				if (probe.get(i) == '\n')
+					return position + i + 1;
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * Sorts the edges of every chunk into one CSR graph, keeping file order within each vertex
+	 */
+	private static CsrGraph merge(Chunk[] chunks, boolean weighted) {
+		long edges = 0;
+		int maxVertex = -1;
+		for (Chunk chunk : chunks) {
+			edges += chunk.size;
+			maxVertex = Math.max(maxVertex, chunk.maxVertex);
+		}
+		if (edges > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Too many edges for an in-memory graph: " + edges + ", convert to a binary graph file instead");
+		int n = maxVertex + 1;
+		int[] offsets = new int[n + 1];
+		for (Chunk chunk : chunks) {
+			for (int i = 0; i < chunk.size; i++)
+				offsets[chunk.from[i] + 1]++;
+		}
+		for (int v = 0; v < n; v++)
+			offsets[v + 1] += offsets[v];
+		int[] next = Arrays.copyOf(offsets, n);
+		int[] targets = new int[(int) edges];
+		int[] weights = weighted ? new int[(int) edges] : null;
+		for (Chunk chunk : chunks) {
+			for (int i = 0; i < chunk.size; i++) {
+				int slot = next[chunk.from[i]]++;
+				targets[slot] = chunk.to[i];
+				if (weighted)
+					weights[slot] = chunk.weight[i];
+			}
+		}
+		return new CsrGraph(offsets, targets, weights);
+	}
+
+	/**
+	 * Edges parsed from one byte range
+	 */
+	private static class Chunk {
+		int[] from;
+		int[] to;
+		int[] weight;
+		int size;
+		int maxVertex = -1;
+		long lines;
+
+		Chunk(int capacity, boolean weighted) {
+			from = new int[capacity];
+			to = new int[capacity];
+			if (weighted)
+				weight = new int[capacity];
+		}
+
+		void add(int u, int v, int w) {
+			if (size == from.length) {
+				int length = from.length * 2;
+				from = Arrays.copyOf(from, length);
+				to = Arrays.copyOf(to, length);
+				if (weight != null)
+					weight = Arrays.copyOf(weight, length);
+			}
+			from[size] = u;
+			to[size] = v;
+			if (weight != null)
+				weight[size] = w;
+			size++;
+			if (v > maxVertex)
+				maxVertex = v;
+		}
+	}
+
+	/**
+	 * Reads one line aligned byte range and parses it
+	 */
+	private static class ChunkParser implements Callable<Chunk> {
+		private final FileChannel channel;
+		private final long start;
+		private final long end;
+		private final boolean weighted;
+
+		//parse position in bytes
+		private byte[] bytes;
+		private int position;
+
+		ChunkParser(FileChannel channel, long start, long end, boolean weighted) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.weighted = weighted;
+		}
+
+		public Chunk call() throws IOException {
+			if (end - start > Integer.MAX_VALUE - 8)
+				throw new IOException("Line too long near byte " + start);
+			bytes = new byte[(int) (end - start)];
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, start + buffer.position()) < 0)
+					throw new IOException("File shrank while parsing");
+			}
+			Chunk chunk = new Chunk(Math.max(16, bytes.length / 8), weighted);
+			int length = bytes.length;
+			while (position < length) {
+				skipBlanks();
+				if (position < length && bytes[position] != '\n') {
+					int vertex = parseInt();
+					if (vertex > chunk.maxVertex)
+						chunk.maxVertex = vertex;
+					skipBlanks();
+					while (position < length && bytes[position] != '\n') {
+						int to = parseInt();
+						int w = 0;
+						if (weighted) {
+							expect(',');
+							w = parseInt();
+						}
+						chunk.add(vertex, to, w);
+						skipBlanks();
+					}
+				}
+				position++; //newline
+				chunk.lines++;
+			}
+			bytes = null;
+			return chunk;
+		}
+
+		private void skipBlanks() {
+			while (position < bytes.length) {
+				byte b = bytes[position];
+				if (b != ' ' && b != '\t' && b != '\r')
+					return;
+				position++;
+			}
+		}
+
+		private void expect(char c) throws IOException {
+			if (position >= bytes.length || bytes[position] != c)
+				throw malformed("expected '" + c + "'");
+			position++;
+		}
+
+		/**
+		 * Parses a non-negative decimal int
+		 */
+		private int parseInt() throws IOException {
+			int begin = position;
+			long value = 0;
+			while (position < bytes.length) {
+				int digit = bytes[position] - '0';
+				if (digit < 0 || digit > 9)
+					break;
+				value = value * 10 + digit;
+				if (value > Integer.MAX_VALUE)
+					throw malformed("number out of range");
+				position++;
+			}
+			if (position == begin)
+				throw malformed("expected a non-negative integer");
+			return (int) value;
+		}
+
+		private IOException malformed(String message) {
+			return new IOException("Malformed graph text at byte " + (start + position) + ": " + message);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ParallelTextParserTest {
+
+	/**
+	 * Writes a random graph as text with the variations the formats allow: tabs and repeated blanks, CRLF line
+	 * ends, blank lines, a vertex spread over several rows, rows without edges and no newline at the end
+	 */
+	static File writeGraph(boolean weighted, long seed) throws IOException {
+		File file = File.createTempFile("graph", ".txt");
+		Random r = new Random(seed);
+		Writer writer = new FileWriter(file);
+		try {
+			for (int row = 0; row < 400; row++) {
+				if (row > 0)
+					writer.write(r.nextInt(5) == 0 ? "\r\n" : "\n");
+				if (r.nextInt(10) == 0)
+					continue;
+				writer.write(Integer.toString(1 + r.nextInt(150)));
+				int edges = r.nextInt(8);
+				for (int e = 0; e < edges; e++) {
+					writer.write(r.nextBoolean() ? "\t" : "  ");
+					writer.write(Integer.toString(1 + r.nextInt(200)));
+					if (weighted)
+						writer.write("," + r.nextInt(100000));
+				}
+				if (r.nextInt(4) == 0)
+					writer.write(" \t");
+			}
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	static void assertSameGraph(CsrGraph expected, CsrGraph actual) {
+		assertArrayEquals(expected.offsets(), actual.offsets());
+		assertArrayEquals(expected.targets(), actual.targets());
+		assertArrayEquals(expected.weights(), actual.weights());
+	}
+
+	@Test
+	public void chunkBoundariesMatchSequentialReader() throws IOException {
+		for (boolean weighted : new boolean[] { false, true }) {
+			File file = writeGraph(weighted, weighted ? 1 : 2);
+			try {
+				CsrGraph expected = weighted ? TextGraphReader.readWeighted(file) : TextGraphReader.readAdjacency(file);
+				//from a range per byte, which puts a boundary inside every number and line end, to one range
+				for (int chunkBytes : new int[] { 1, 2, 3, 7, 64, 1000, 1 << 20 }) {
+					for (int threads : new int[] { 1, 3 })
+						assertSameGraph(expected, new ParallelTextParser(threads, chunkBytes).parse(file, weighted));
+				}
+			} finally {
+				file.delete();
+			}
+		}
+	}
+
+	@Test
+	public void countsLinesOfEveryRange() throws IOException {
+		File file = writeGraph(false, 3);
+		try {
+			ParallelTextParser parser = new ParallelTextParser(2, 50);
+			parser.parse(file, false);
+			assertEquals(400, parser.linesParsed());
+			assertEquals(file.length(), parser.bytesParsed());
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the transpose of a graph on all cores with a counting sort. The source vertices are split into ranges with
+ * about the same number of edges; each range counts the in-degrees of its edges into its own array, the counts are
+ * turned into write positions (every vertex's in-edges from range 0 first, then range 1, ...), and each range then
+ * scatters its edges into the flat reverse arrays without any synchronization. Since the ranges are in source order,
+ * the in-edges of every vertex keep the order of their sources, the same graph a single-threaded transpose builds.
+ * Each range costs one int per vertex for its counts, so the number of ranges is capped at the average degree and the
+ * counts never outweigh the edges.
+ * @author sandasai
+ *
+ */
+public class ParallelTranspose {
+
+	//below this many edges a single range is faster than starting threads
+	private static final int MIN_PARALLEL_EDGES = 1 << 16;
+
+	private final int threads;
+
+	/**
+	 * Creates a transposer using every available core
+	 */
+	public ParallelTranspose() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param threads number of threads
+	 */
+	public ParallelTranspose(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Need at least one thread");
+		this.threads = threads;
+	}
+
+	/**
+	 * Builds the transpose, where every edge u -> v becomes v -> u with the same weight
+	 * @param graph
+	 * @return the reversed graph in memory
+	 */
+	public CsrGraph transpose(final Graph graph) {
+		if (graph.edgeCount() > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many edges for an in-memory graph: " + graph.edgeCount());
+		final int n = graph.vertexCount();
+		int m = (int) graph.edgeCount();
+		int ranges = 1;
+		if (m >= MIN_PARALLEL_EDGES)
+			ranges = Math.max(1, Math.min(threads, m / Math.max(1, n)));
+		final int[] bounds = sourceRanges(graph, ranges);
+		ranges = bounds.length - 1;
+		final int[][] counts = new int[ranges][];
+		final int[] reverseOffsets = new int[n + 1];
+		final int[] reverseTargets = new int[m];
+		final int[] reverseWeights = graph.isWeighted() ? new int[m] : null;
+
+		ExecutorService pool = ranges > 1 ? Executors.newFixedThreadPool(ranges) : null;
+		try {
+			//count the in-degrees of each range
+			List<Runnable> tasks = new ArrayList<Runnable>();
+			for (int r = 0; r < ranges; r++) {
+				final int range = r;
+				tasks.add(new Runnable() {
+					public void run() {
+						int[] count = new int[n];
+						NeighborCursor cursor = graph.cursor();
+						for (int u = bounds[range]; u < bounds[range + 1]; u++) {
+							cursor.reset(u);
+							while (cursor.next())
+								count[cursor.target()]++;
+						}
+						counts[range] = count;
+					}
+				});
+			}
+			run(pool, tasks);
+
+			//in-degree of every vertex, then offsets
+			tasks.clear();
+			final int[] vertexBounds = evenRanges(n, ranges);
+			for (int r = 0; r < ranges; r++) {
+				final int range = r;
+				tasks.add(new Runnable() {
+					public void run() {
+						for (int v = vertexBounds[range]; v < vertexBounds[range + 1]; v++) {
+							int degree = 0;
+							for (int[] count : counts)
+								degree += count[v];
+							reverseOffsets[v + 1] = degree;
+						}
+					}
+				});
+			}
+			run(pool, tasks);
+			for (int v = 0; v < n; v++)
+				reverseOffsets[v + 1] += reverseOffsets[v];
+
+			//turn each range's counts into the position its first in-edge of every vertex goes to
+			tasks.clear();
+			for (int r = 0; r < ranges; r++) {
+				final int range = r;
+				tasks.add(new Runnable() {
+					public void run() {
+						for (int v = vertexBounds[range]; v < vertexBounds[range + 1]; v++) {
+							int position = reverseOffsets[v];
+							for (int[] count : counts) {
+								int degree = count[v];
+								count[v] = position;
+								position += degree;
+							}
+						}
+					}
+				});
+			}
+			run(pool, tasks);
+
+			//scatter
+			tasks.clear();
+			for (int r = 0; r < ranges; r++) {
+				final int range = r;
+				tasks.add(new Runnable() {
+					public void run() {
+						int[] next = counts[range];
+						NeighborCursor cursor = graph.cursor();
+						for (int u = bounds[range]; u < bounds[range + 1]; u++) {
+							cursor.reset(u);
+							while (cursor.next()) {
+								int slot = next[cursor.target()]++;
+								reverseTargets[slot] = u;
+								if (reverseWeights != null)
+									reverseWeights[slot] = cursor.weight();
+							}
+						}
+					}
+				});
+			}
+			run(pool, tasks);
+		} finally {
+			if (pool != null)
+				pool.shutdownNow();
+		}
+		return new CsrGraph(reverseOffsets, reverseTargets, reverseWeights);
+	}
+
+	/**
+	 * Runs tasks on the pool and waits for all of them, or runs them in order without a pool
+	 */
+	private static void run(ExecutorService pool, List<Runnable> tasks) {
+		if (pool == null) {
+			for (Runnable task : tasks)
+				task.run();
+			return;
+		}
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (Runnable task : tasks)
+			futures.add(pool.submit(task));
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while transposing", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Splits the vertices into ranges with about the same number of out-edges, so a few high degree vertices do not
+	 * leave one thread with most of the work
+	 * @return range boundaries, from 0 to the vertex count
+	 */
+	private static int[] sourceRanges(Graph graph, int ranges) {
+		int n = graph.vertexCount();
+		int[] bounds = new int[ranges + 1];
+		long perRange = (graph.edgeCount() + ranges - 1) / ranges;
+		long edges = 0;
+		int range = 1;
+		for (int v = 0; v < n && range < ranges; v++) {
+			edges += graph.degree(v);
+			if (edges >= perRange * range)
+				bounds[range++] = v + 1;
+		}
+		while (range <= ranges)
+			bounds[range++] = n;
+		return bounds;
+	}
+
+	/**
+	 * @return boundaries of ranges with the same number of vertices
+	 */
+	private static int[] evenRanges(int n, int ranges) {
+		int[] bounds = new int[ranges + 1];
+		for (int r = 0; r <= ranges; r++)
+			bounds[r] = (int) ((long) n * r / ranges);
+		return bounds;
+	}
+}
@@ -0,0 +1,89 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ParallelTransposeTest {
+
+	/**
+	 * Random graph with enough edges per vertex that several ranges are used
+	 */
+	static CsrGraph randomGraph(int n, int edges, boolean weighted, long seed) {
+		CsrGraph.Builder builder = new CsrGraph.Builder(weighted);
+		Random r = new Random(seed);
+		builder.addVertex(n - 1);
+		for (int i = 0; i < edges; i++) {
+			//skewed sources, so the ranges split by edges are not ranges of equal size
+			int u = r.nextInt(4) == 0 ? r.nextInt(16) : r.nextInt(n);
+			if (weighted)
+				builder.addEdge(u, r.nextInt(n), r.nextInt(1000));
+			else
+				builder.addEdge(u, r.nextInt(n));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Transpose by visiting the edges one at a time in source order
+	 */
+	static CsrGraph sequentialTranspose(Graph graph) {
+		int n = graph.vertexCount();
+		int m = (int) graph.edgeCount();
+		int[] offsets = new int[n + 1];
+		NeighborCursor cursor = graph.cursor();
+		for (int u = 0; u < n; u++) {
+			cursor.reset(u);
+			while (cursor.next())
+				offsets[cursor.target() + 1]++;
+		}
+		for (int v = 0; v < n; v++)
+			offsets[v + 1] += offsets[v];
+		int[] next = offsets.clone();
+		int[] targets = new int[m];
+		int[] weights = graph.isWeighted() ? new int[m] : null;
+		for (int u = 0; u < n; u++) {
+			cursor.reset(u);
+			while (cursor.next()) {
+				int slot = next[cursor.target()]++;
+				targets[slot] = u;
+				if (weights != null)
+					weights[slot] = cursor.weight();
+			}
+		}
+		return new CsrGraph(offsets, targets, weights);
+	}
+
+	static void assertSameGraph(CsrGraph expected, CsrGraph actual) {
+		assertArrayEquals(expected.offsets(), actual.offsets());
+		assertArrayEquals(expected.targets(), actual.targets());
+		assertArrayEquals(expected.weights(), actual.weights());
+	}
+
+	@Test
+	public void rangesMatchSequentialTranspose() {
+		//far above the single range cutoff, 8 edges per vertex
+		CsrGraph graph = randomGraph(40000, 320000, false, 1);
+		CsrGraph expected = sequentialTranspose(graph);
+		for (int threads : new int[] { 1, 2, 3, 4, 7 })
+			assertSameGraph(expected, new ParallelTranspose(threads).transpose(graph));
+	}
+
+	@Test
+	public void rangesKeepWeights() {
+		CsrGraph graph = randomGraph(20000, 200000, true, 2);
+		CsrGraph expected = sequentialTranspose(graph);
+		assertSameGraph(expected, new ParallelTranspose(4).transpose(graph));
+		assertSameGraph(sequentialTranspose(expected), new ParallelTranspose(4).transpose(expected));
+	}
+
+	@Test
+	public void smallAndEmptyGraphs() {
+		CsrGraph graph = randomGraph(50, 200, true, 3);
+		assertSameGraph(sequentialTranspose(graph), new ParallelTranspose(4).transpose(graph));
+		CsrGraph empty = new CsrGraph(new int[] { 0, 0, 0 }, new int[0], null);
+		assertSameGraph(empty, new ParallelTranspose(4).transpose(empty));
+	}
+}
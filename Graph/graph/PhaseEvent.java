@@ -0,0 +1,26 @@
+package graph;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one timed solver or loader phase, committed by Instrumentation.Timer
+ * @author sandasai
+ *
+ */
+@Name("graph.Phase")
+@Label("Graph Phase")
+@Category("Graph")
+@Description("A solver or loader phase and the work it did")
+class PhaseEvent extends Event {
+
+	@Label("Phase")
+	String phase;
+
+	@Label("Items")
+	@Description("Work done in the phase, such as vertices settled or bytes parsed")
+	long items;
+}
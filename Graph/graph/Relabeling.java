@@ -0,0 +1,370 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A permutation of the vertex ids chosen so that vertices visited close together in time also sit close together in
+ * the offset, target and distance arrays. Solvers run on the rewritten graph from apply and translate ids at the edges:
+ * toNew for the vertices a caller names, toOld (or toOriginal for whole arrays) for the answers.
+ * Orders, cheapest first:
+ * <pre>
+ * DEGREE   vertices by descending in + out degree, so the hubs most edges point at share a few cache lines
+ * BFS      breadth first over the edges in both directions, roots in id order
+ * RCM      reverse Cuthill-McKee: breadth first from low degree roots, neighbors by ascending degree, reversed
+ * GORDER   greedy window ordering after Wei et al.: the next vertex is the one sharing the most edges and in-neighbors
+ *          with the last WINDOW placed ones; skips hubs when counting shared in-neighbors, still the slowest by far
+ * </pre>
+ * Answers do not depend on the order: distances and components are the same, only found faster.
+ * @author sandasai
+ *
+ */
+public final class Relabeling {
+
+	public enum Order {
+		DEGREE,
+		BFS,
+		RCM,
+		GORDER
+	}
+
+	//vertices Gorder compares each candidate against
+	static final int WINDOW = 5;
+	//in-neighbors with more out-edges than this cost more sibling updates than they tell apart; the sqrt(n) of the
+	//paper took minutes on power law graphs for a barely better order
+	static final int HUB_DEGREE = 64;
+
+	private final int[] newIds; //old id -> new id
+	private final int[] oldIds; //new id -> old id
+
+	private Relabeling(int[] oldIds) {
+		this.oldIds = oldIds;
+		this.newIds = new int[oldIds.length];
+		Arrays.fill(newIds, -1);
+		for (int v = 0; v < oldIds.length; v++) {
+			if (oldIds[v] < 0 || oldIds[v] >= oldIds.length || newIds[oldIds[v]] != -1)
+				throw new IllegalArgumentException("Not a permutation: vertex " + oldIds[v] + " at " + v);
+			newIds[oldIds[v]] = v;
+		}
+	}
+
+	/**
+	 * Computes an order for a graph
+	 * @param graph
+	 * @param order
+	 * @return the relabeling, apply it to the same graph
+	 */
+	public static Relabeling of(Graph graph, Order order) {
+		switch (order) {
+		case DEGREE:
+			return new Relabeling(degreeOrder(graph, CsrGraph.transpose(graph)));
+		case BFS:
+			return new Relabeling(breadthFirstOrder(graph, CsrGraph.transpose(graph), false));
+		case RCM:
+			return new Relabeling(breadthFirstOrder(graph, CsrGraph.transpose(graph), true));
+		default:
+			return new Relabeling(gorder(CsrGraph.copyOf(graph), CsrGraph.transpose(graph)));
+		}
+	}
+
+	/**
+	 * Computes the order named by -Dgraph.reorder=degree|bfs|rcm|gorder
+	 * @param graph
+	 * @return the relabeling, or null when no order is set
+	 */
+	public static Relabeling forProperty(Graph graph) {
+		String order = System.getProperty("graph.reorder");
+		if (order == null || order.isEmpty())
+			return null;
+		return of(graph, Order.valueOf(order.toUpperCase()));
+	}
+
+	/**
+	 * Wraps an order computed elsewhere
+	 * @param oldIds the old id of every new id
+	 * @return the relabeling
+	 */
+	public static Relabeling fromOrder(int[] oldIds) {
+		return new Relabeling(oldIds.clone());
+	}
+
+	public int vertexCount() {
+		return oldIds.length;
+	}
+
+	public int toNew(int oldId) {
+		return newIds[oldId];
+	}
+
+	public int toOld(int newId) {
+		return oldIds[newId];
+	}
+
+	/**
+	 * Rewrites a graph into the new ids, compressing the result again if the graph was a CompressedGraph
+	 * @param graph the graph the relabeling was computed for
+	 * @return the relabeled graph
+	 */
+	public Graph apply(Graph graph) {
+		CsrGraph relabeled = rewrite(graph);
+		return graph instanceof CompressedGraph ? CompressedGraph.compress(relabeled) : relabeled;
+	}
+
+	/**
+	 * Rewrites a graph into the new ids in memory. Each adjacency list is also sorted by its new targets,
+	 * which keeps a walk over it moving forward through memory and suits CompressedGraph's gap coding
+	 * @param graph the graph the relabeling was computed for
+	 * @return the relabeled graph
+	 */
+	public CsrGraph rewrite(Graph graph) {
+		if (graph.vertexCount() != oldIds.length)
+			throw new IllegalArgumentException("Relabeling is for " + oldIds.length + " vertices, graph has " + graph.vertexCount());
+		if (graph.edgeCount() > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many edges for an in-memory graph: " + graph.edgeCount());
+		int n = oldIds.length;
+		int[] offsets = new int[n + 1];
+		for (int v = 0; v < n; v++)
+			offsets[v + 1] = offsets[v] + graph.degree(oldIds[v]);
+		int[] targets = new int[offsets[n]];
+		int[] weights = graph.isWeighted() ? new int[targets.length] : null;
+		long[] edges = new long[16];
+		NeighborCursor cursor = graph.cursor();
+		for (int v = 0; v < n; v++) {
+			int degree = 0;
+			cursor.reset(oldIds[v]);
+			while (cursor.next()) {
+				if (degree == edges.length)
+					edges = Arrays.copyOf(edges, degree * 2);
+				edges[degree++] = ((long) newIds[cursor.target()] << 32) | (cursor.weight() & 0xffffffffL);
+			}
+			Arrays.sort(edges, 0, degree);
+			for (int i = 0; i < degree; i++) {
+				targets[offsets[v] + i] = (int) (edges[i] >>> 32);
+				if (weights != null)
+					weights[offsets[v] + i] = (int) edges[i];
+			}
+		}
+		return new CsrGraph(offsets, targets, weights);
+	}
+
+	/**
+	 * @param values one value per new id
+	 * @return the same values indexed by old id
+	 */
+	public long[] toOriginal(long[] values) {
+		long[] original = new long[values.length];
+		for (int v = 0; v < values.length; v++)
+			original[oldIds[v]] = values[v];
+		return original;
+	}
+
+	/**
+	 * @param values one value per new id
+	 * @return the same values indexed by old id
+	 */
+	public int[] toOriginal(int[] values) {
+		int[] original = new int[values.length];
+		for (int v = 0; v < values.length; v++)
+			original[oldIds[v]] = values[v];
+		return original;
+	}
+
+	/**
+	 * Counting sort by descending total degree, ties in id order
+	 */
+	private static int[] degreeOrder(Graph graph, CsrGraph reversed) {
+		int n = graph.vertexCount();
+		int[] degrees = new int[n];
+		int maxDegree = 0;
+		for (int v = 0; v < n; v++) {
+			degrees[v] = graph.degree(v) + reversed.degree(v);
+			maxDegree = Math.max(maxDegree, degrees[v]);
+		}
+		int[] starts = new int[maxDegree + 2];
+		for (int v = 0; v < n; v++)
+			starts[maxDegree - degrees[v] + 1]++;
+		for (int d = 0; d <= maxDegree; d++)
+			starts[d + 1] += starts[d];
+		int[] order = new int[n];
+		for (int v = 0; v < n; v++)
+			order[starts[maxDegree - degrees[v]]++] = v;
+		return order;
+	}
+
+	/**
+	 * Breadth first search over out and in edges. For Cuthill-McKee the roots are taken by ascending degree,
+	 * each vertex's unvisited neighbors are queued by ascending degree, and the final order is reversed
+	 */
+	private static int[] breadthFirstOrder(Graph graph, CsrGraph reversed, boolean cuthillMcKee) {
+		int n = graph.vertexCount();
+		int[] degrees = new int[n];
+		for (int v = 0; v < n; v++)
+			degrees[v] = graph.degree(v) + reversed.degree(v);
+		int[] roots = new int[n];
+		for (int v = 0; v < n; v++)
+			roots[v] = v;
+		if (cuthillMcKee) {
+			int[] byDegree = degreeOrder(graph, reversed);
+			for (int i = 0; i < n; i++)
+				roots[i] = byDegree[n - 1 - i];
+		}
+		boolean[] visited = new boolean[n];
+		int[] queue = new int[n];
+		int tail = 0;
+		long[] neighbors = new long[16];
+		NeighborCursor[] cursors = { graph.cursor(), reversed.cursor() };
+		for (int root : roots) {
+			if (visited[root])
+				continue;
+			visited[root] = true;
+			int head = tail;
+			queue[tail++] = root;
+			while (head < tail) {
+				int v = queue[head++];
+				int found = 0;
+				for (NeighborCursor cursor : cursors) {
+					cursor.reset(v);
+					while (cursor.next()) {
+						int u = cursor.target();
+						if (visited[u])
+							continue;
+						visited[u] = true;
+						if (found == neighbors.length)
+							neighbors = Arrays.copyOf(neighbors, found * 2);
+						neighbors[found++] = ((long) degrees[u] << 32) | u;
+					}
+				}
+				if (cuthillMcKee)
+					Arrays.sort(neighbors, 0, found);
+				for (int i = 0; i < found; i++)
+					queue[tail++] = (int) neighbors[i];
+			}
+		}
+		if (cuthillMcKee) {
+			for (int i = 0, j = n - 1; i < j; i++, j--) {
+				int swap = queue[i];
+				queue[i] = queue[j];
+				queue[j] = swap;
+			}
+		}
+		return queue;
+	}
+
+	/**
+	 * Greedy Gorder: places the unplaced vertex with the highest score, where a vertex scores one for each edge to or
+	 * from a vertex in the window and one for each in-neighbor it shares with one. Scores live in a bucket list per
+	 * score value, so raising or lowering one by one is constant time.
+	 */
+	private static int[] gorder(CsrGraph graph, CsrGraph reversed) {
+		int n = graph.vertexCount();
+		int[] order = new int[n];
+		if (n == 0)
+			return order;
+		ScoreBuckets scores = new ScoreBuckets(n);
+		int start = 0;
+		for (int v = 1; v < n; v++) {
+			if (reversed.degree(v) > reversed.degree(start))
+				start = v;
+		}
+		scores.remove(start);
+		order[0] = start;
+		update(graph, reversed, scores, start, 1);
+		for (int i = 1; i < n; i++) {
+			if (i > WINDOW)
+				update(graph, reversed, scores, order[i - WINDOW - 1], -1);
+			int v = scores.removeMax();
+			order[i] = v;
+			update(graph, reversed, scores, v, 1);
+		}
+		return order;
+	}
+
+	/**
+	 * Adds delta to the score of every unplaced vertex related to v, as v enters or leaves the window
+	 */
+	private static void update(CsrGraph graph, CsrGraph reversed, ScoreBuckets scores, int v, int delta) {
+		int[] offsets = graph.offsets();
+		int[] targets = graph.targets();
+		int[] reverseOffsets = reversed.offsets();
+		int[] sources = reversed.targets();
+		for (int e = offsets[v]; e < offsets[v + 1]; e++)
+			scores.add(targets[e], delta);
+		for (int e = reverseOffsets[v]; e < reverseOffsets[v + 1]; e++) {
+			int x = sources[e];
+			scores.add(x, delta);
+			if (offsets[x + 1] - offsets[x] > HUB_DEGREE)
+				continue;
+			for (int f = offsets[x]; f < offsets[x + 1]; f++) {
+				if (targets[f] != v)
+					scores.add(targets[f], delta);
+			}
+		}
+	}
+
+	/**
+	 * Unplaced vertices in doubly linked lists per score, for Gorder
+	 */
+	private static class ScoreBuckets {
+
+		private final int[] score;
+		private final int[] previous;
+		private final int[] next;
+		private final boolean[] placed;
+		private int[] heads = new int[16];
+		private int top;
+
+		ScoreBuckets(int n) {
+			score = new int[n];
+			previous = new int[n];
+			next = new int[n];
+			placed = new boolean[n];
+			Arrays.fill(heads, -1);
+			for (int v = n - 1; v >= 0; v--)
+				link(v);
+		}
+
+		void add(int v, int delta) {
+			if (placed[v])
+				return;
+			unlink(v);
+			score[v] += delta;
+			link(v);
+		}
+
+		void remove(int v) {
+			unlink(v);
+			placed[v] = true;
+		}
+
+		int removeMax() {
+			while (heads[top] == -1)
+				top--;
+			int v = heads[top];
+			remove(v);
+			return v;
+		}
+
+		private void link(int v) {
+			int s = score[v];
+			if (s >= heads.length) {
+				int length = heads.length;
+				heads = Arrays.copyOf(heads, Math.max(s + 1, length * 2));
+				Arrays.fill(heads, length, heads.length, -1);
+			}
+			previous[v] = -1;
+			next[v] = heads[s];
+			if (heads[s] != -1)
+				previous[heads[s]] = v;
+			heads[s] = v;
+			top = Math.max(top, s);
+		}
+
+		private void unlink(int v) {
+			if (previous[v] == -1)
+				heads[score[v]] = next[v];
+			else
+				next[previous[v]] = next[v];
+			if (next[v] != -1)
+				previous[next[v]] = previous[v];
+		}
+	}
+}
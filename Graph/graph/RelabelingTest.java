@@ -0,0 +1,77 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class RelabelingTest {
+
+	/**
+	 * @return the relabeling that undoes the given one
+	 */
+	static Relabeling inverse(Relabeling relabeling) {
+		int[] oldIds = new int[relabeling.vertexCount()];
+		for (int v = 0; v < oldIds.length; v++)
+			oldIds[v] = relabeling.toNew(v);
+		return Relabeling.fromOrder(oldIds);
+	}
+
+	@Test
+	public void everyOrderIsAPermutationThatKeepsEdges() {
+		for (boolean weighted : new boolean[] { false, true }) {
+			CsrGraph graph = CompressedGraphTest.similarLists(2000, weighted, weighted ? 5 : 6);
+			for (Relabeling.Order order : Relabeling.Order.values()) {
+				Relabeling relabeling = Relabeling.of(graph, order);
+				assertEquals(graph.vertexCount(), relabeling.vertexCount());
+				for (int v = 0; v < graph.vertexCount(); v++)
+					assertEquals(order.name(), v, relabeling.toOld(relabeling.toNew(v)));
+				CsrGraph relabeled = relabeling.rewrite(graph);
+				assertEquals(graph.edgeCount(), relabeled.edgeCount());
+				for (int v = 0; v < graph.vertexCount(); v++)
+					assertEquals(graph.degree(v), relabeled.degree(relabeling.toNew(v)));
+				CompressedGraphTest.assertSameEdges(graph, inverse(relabeling).rewrite(relabeled));
+			}
+		}
+	}
+
+	@Test
+	public void rewrittenListsAreSortedByNewTarget() {
+		CsrGraph graph = CompressedGraphTest.similarLists(500, true, 7);
+		CsrGraph relabeled = Relabeling.of(graph, Relabeling.Order.BFS).rewrite(graph);
+		int[] offsets = relabeled.offsets();
+		int[] targets = relabeled.targets();
+		for (int v = 0; v < relabeled.vertexCount(); v++) {
+			for (int e = offsets[v] + 1; e < offsets[v + 1]; e++)
+				assertTrue(targets[e - 1] <= targets[e]);
+		}
+	}
+
+	@Test
+	public void toOriginalIndexesByOldId() {
+		Relabeling relabeling = Relabeling.fromOrder(new int[] { 2, 0, 3, 1 });
+		assertEquals(1, relabeling.toNew(0));
+		assertEquals(2, relabeling.toOld(0));
+		assertEquals("[1, 3, 0, 2]", Arrays.toString(relabeling.toOriginal(new int[] { 0, 1, 2, 3 })));
+		assertEquals("[10, 30, 0, 20]", Arrays.toString(relabeling.toOriginal(new long[] { 0, 10, 20, 30 })));
+	}
+
+	@Test
+	public void applyKeepsTheRepresentation() {
+		CsrGraph graph = CompressedGraphTest.similarLists(300, false, 8);
+		Relabeling relabeling = Relabeling.of(graph, Relabeling.Order.RCM);
+		Graph compressed = relabeling.apply(CompressedGraph.compress(graph));
+		assertTrue(compressed instanceof CompressedGraph);
+		CompressedGraphTest.assertSameEdges(relabeling.rewrite(graph), compressed);
+	}
+
+	@Test
+	public void rejectsWhatIsNotAPermutation() {
+		try {
+			Relabeling.fromOrder(new int[] { 0, 2, 2 });
+			fail("Accepted a repeated vertex");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package graph;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Reads the text adjacency list formats used by the solvers into a CsrGraph
+ * @author sandasai
+ *
+ */
+public class TextGraphReader {
+
+	private TextGraphReader() {
+	}
+
+	/**
+	 * Reads a weighted graph where each row is "vertex destination,weight destination,weight ..."
+	 * (the Dijkstras format)
+	 * @param file
+	 * @return the graph
+	 * @throws IOException
+	 */
+	public static CsrGraph readWeighted(File file) throws IOException {
+		CsrGraph.Builder builder = new CsrGraph.Builder(true);
+		Instrumentation.Timer timer = Instrumentation.ENABLED ? Instrumentation.start(Instrumentation.Phase.TEXT_PARSE) : null;
+		long lines = 0;
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines++;
+				String[] row = line.trim().split("\\s+");
+				if (row[0].isEmpty())
+					continue;
+				int vertex = Integer.parseInt(row[0]);
+				builder.addVertex(vertex);
+				for (int i = 1; i < row.length; i++) {
+					String[] edge = row[i].split(",");
+					int weight = Integer.parseInt(edge[1]);
+					if (weight < 0)
+						throw new IllegalArgumentException("Edge weights must not be negative: " + row[i]);
+					builder.addEdge(vertex, Integer.parseInt(edge[0]), weight);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		CsrGraph graph = builder.build();
+		if (Instrumentation.ENABLED)
+			recordParse(timer, file.length(), lines);
+		return graph;
+	}
+
+	/**
+	 * Reads an unweighted graph where each row is "vertex toVertex toVertex ..."
+	 * (the StronglyConnectedComponents and KargerMinCut format). A vertex may span several rows.
+	 * @param file
+	 * @return the graph
+	 * @throws IOException
+	 */
+	public static CsrGraph readAdjacency(File file) throws IOException {
+		CsrGraph.Builder builder = new CsrGraph.Builder(false);
+		Instrumentation.Timer timer = Instrumentation.ENABLED ? Instrumentation.start(Instrumentation.Phase.TEXT_PARSE) : null;
+		long lines = 0;
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines++;
+				String[] row = line.trim().split("\\s+");
+				if (row[0].isEmpty())
+					continue;
+				int vertex = Integer.parseInt(row[0]);
+				builder.addVertex(vertex);
+				for (int i = 1; i < row.length; i++) {
+					builder.addEdge(vertex, Integer.parseInt(row[i]));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		CsrGraph graph = builder.build();
+		if (Instrumentation.ENABLED)
+			recordParse(timer, file.length(), lines);
+		return graph;
+	}
+
+	/**
+	 * Adds one finished parse to the instrumentation counters
+	 */
+	static void recordParse(Instrumentation.Timer timer, long bytes, long lines) {
+		timer.stop(bytes);
+		Instrumentation.add(Instrumentation.Counter.LOADER_BYTES, bytes);
+		Instrumentation.add(Instrumentation.Counter.LOADER_LINES, lines);
+	}
+}
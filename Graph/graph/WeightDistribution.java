@@ -0,0 +1,101 @@
+package graph;
+
+/**
+ * Distribution of generated edge weights. Weights are positive ints drawn from a uniform sample in [0, 1),
+ * so a weight depends only on the random stream of its edge.
+ * @author sandasai
+ *
+ */
+public class WeightDistribution {
+
+	private enum Kind { CONSTANT, UNIFORM, EXPONENTIAL }
+
+	private final Kind kind;
+	private final int min;
+	private final int max;
+	private final double mean;
+
+	private WeightDistribution(Kind kind, int min, int max, double mean) {
+		this.kind = kind;
+		this.min = min;
+		this.max = max;
+		this.mean = mean;
+	}
+
+	/**
+	 * @param weight
+	 * @return every edge gets the same weight
+	 */
+	public static WeightDistribution constant(int weight) {
+		if (weight < 0)
+			throw new IllegalArgumentException("Weights must not be negative: " + weight);
+		return new WeightDistribution(Kind.CONSTANT, weight, weight, weight);
+	}
+
+	/**
+	 * @param min smallest weight
+	 * @param max largest weight
+	 * @return weights uniform in min..max
+	 */
+	public static WeightDistribution uniform(int min, int max) {
+		if (min < 0 || max < min)
+			throw new IllegalArgumentException("Need 0 <= min <= max: " + min + ", " + max);
+		return new WeightDistribution(Kind.UNIFORM, min, max, (min + (double) max) / 2);
+	}
+
+	/**
+	 * @param mean
+	 * @return exponentially distributed weights rounded to ints of at least 1, so most edges are short and a few are long
+	 */
+	public static WeightDistribution exponential(double mean) {
+		if (!(mean > 0))
+			throw new IllegalArgumentException("Mean must be positive: " + mean);
+		return new WeightDistribution(Kind.EXPONENTIAL, 1, Integer.MAX_VALUE, mean);
+	}
+
+	/**
+	 * Parses "constant:w", "uniform:min:max" or "exponential:mean"
+	 * @param spec
+	 * @return the distribution
+	 */
+	public static WeightDistribution parse(String spec) {
+		String[] parts = spec.split(":");
+		try {
+			if (parts[0].equals("constant") && parts.length == 2)
+				return constant(Integer.parseInt(parts[1]));
+			if (parts[0].equals("uniform") && parts.length == 3)
+				return uniform(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+			if (parts[0].equals("exponential") && parts.length == 2)
+				return exponential(Double.parseDouble(parts[1]));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Bad weight distribution: " + spec, e);
+		}
+		throw new IllegalArgumentException("Bad weight distribution, expected constant:w, uniform:min:max or exponential:mean: " + spec);
+	}
+
+	/**
+	 * @param uniform a sample uniform in [0, 1)
+	 * @return the weight
+	 */
+	public int sample(double uniform) {
+		switch (kind) {
+		case CONSTANT:
+			return min;
+		case UNIFORM:
+			return min + (int) (uniform * ((long) max - min + 1));
+		default:
+			return (int) Math.min(Integer.MAX_VALUE, Math.max(1, Math.round(-mean * Math.log(1 - uniform))));
+		}
+	}
+
+	public String toString() {
+		switch (kind) {
+		case CONSTANT:
+			return "constant:" + min;
+		case UNIFORM:
+			return "uniform:" + min + ":" + max;
+		default:
+			return "exponential:" + mean;
+		}
+	}
+}
@@ -1,5 +1,9 @@
 package kargerMinCut;
 
+import graph.Graph;
+import graph.Instrumentation;
+import graph.NeighborCursor;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -13,16 +17,61 @@ import java.util.Random;
 public class MinCut {
 	
     private Map<Integer, List<Integer>> adjList; //Adjacency list of Integer vertices connected to other Integer vertices
+    
+    //undirected edges {edgeFrom[i], edgeTo[i]} when solving on an int vertex graph
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private int vertexCount;	//number of vertices with at least one edge
+    private int[] parent;		//union-find forest of contracted vertices
+    private Random random;
 	
 	MinCut() {
 		adjList = new HashMap<Integer, List<Integer>>();
 	}
 	
+	/**
+	 * Creates a problem on an int vertex graph where every undirected edge is listed from both ends.
+	 * The graph is not modified by solve(), so trials do not need the graph to be rebuilt.
+	 * @param graph
+	 */
+	public MinCut(Graph graph) {
+		NeighborCursor cursor = graph.cursor();
+		int edges = 0;
+		for (int u = 0; u < graph.vertexCount(); u++) {
+			if (graph.degree(u) > 0)
+				vertexCount++;
+			cursor.reset(u);
+			while (cursor.next()) {
+				if (u < cursor.target())
+					edges++;
+			}
+		}
+		edgeFrom = new int[edges];
+		edgeTo = new int[edges];
+		edges = 0;
+		for (int u = 0; u < graph.vertexCount(); u++) {
+			cursor.reset(u);
+			while (cursor.next()) {
+				if (u < cursor.target()) {
+					edgeFrom[edges] = u;
+					edgeTo[edges++] = cursor.target();
+				}
+			}
+		}
+		parent = new int[graph.vertexCount()];
+		random = new Random();
+	}
+	
 	/**
 	 * Performs a single iteration of karger's minimum cut. Assumes that graph has been built.
 	 * @return - The minimum cut returned from a single iteration.
 	 */
 	public int solve() {
+		if (edgeFrom != null)
+			return solveCsr();
+		Instrumentation.Timer timer = Instrumentation.ENABLED ? Instrumentation.start(Instrumentation.Phase.MINCUT_TRIAL) : null;
+		int contractions = 0;
+		int selfLoops = 0;
 		Random r = new Random();
 		
 		while (adjList.size() > 2) {
@@ -34,8 +83,9 @@ public class MinCut {
 			Integer toVertex = fromEdges.get(r.nextInt(fromEdges.size())); 	//pick a random vertex from that list
 			List<Integer> toEdges = adjList.get(toVertex);					//store the edges of the other vertex
 			addEdges(fromEdges, toEdges); 									//merge the vertices/remove edge by adding the edges from one list to another 
-			removeAllInteger(fromEdges, fromVertex); 						//remove all self loops
-			removeAllInteger(fromEdges, toVertex); 							//remove all self loops
+			selfLoops += removeAllInteger(fromEdges, fromVertex); 			//remove all self loops
+			selfLoops += removeAllInteger(fromEdges, toVertex); 			//remove all self loops
+			contractions++;
 			
 			for (Integer key : adjList.keySet()) {
 				List<Integer> listEdges = adjList.get(key);
@@ -54,9 +104,76 @@ public class MinCut {
 		int minCount = adjList.get(keys.get(0)).size();
 		if (minCount != adjList.get(keys.get(1)).size())
 			throw new IllegalStateException("Last two nodes should have edges of the same size");
+		if (Instrumentation.ENABLED)
+			record(timer, contractions, selfLoops);
 		return minCount;
 	}
 	
+	/**
+	 * Single iteration of karger's minimum cut using union-find: edges are contracted in a random order,
+	 * skipping edges that became self loops, until two super vertices are left.
+	 * @return - The number of edges crossing between the last two super vertices
+	 */
+	private int solveCsr() {
+		Instrumentation.Timer timer = Instrumentation.ENABLED ? Instrumentation.start(Instrumentation.Phase.MINCUT_TRIAL) : null;
+		int selfLoops = 0;
+		for (int v = 0; v < parent.length; v++)
+			parent[v] = v;
+		int remaining = vertexCount;
+		int unpicked = edgeFrom.length;
+		while (remaining > 2 && unpicked > 0) {
+			//partial Fisher-Yates shuffle, picks a uniformly random edge that has not been picked yet
+			int pick = random.nextInt(unpicked--);
+			swapEdges(pick, unpicked);
+			int a = find(edgeFrom[unpicked]);
+			int b = find(edgeTo[unpicked]);
+			if (a == b) {	//self loop
+				if (Instrumentation.ENABLED)
+					selfLoops++;
+				continue;
+			}
+			parent[b] = a;
+			remaining--;
+		}
+		if (remaining != 2)
+			throw new IllegalStateException("The graph should be connected");
+		int crossing = 0;
+		for (int i = 0; i < edgeFrom.length; i++) {
+			if (find(edgeFrom[i]) != find(edgeTo[i]))
+				crossing++;
+		}
+		if (Instrumentation.ENABLED)
+			record(timer, vertexCount - remaining, selfLoops);
+		return crossing;
+	}
+
+	/**
+	 * Adds one finished trial to the instrumentation counters
+	 */
+	private static void record(Instrumentation.Timer timer, int contractions, int selfLoops) {
+		timer.stop(contractions);
+		Instrumentation.add(Instrumentation.Counter.MINCUT_TRIALS, 1);
+		Instrumentation.add(Instrumentation.Counter.MINCUT_CONTRACTIONS, contractions);
+		Instrumentation.add(Instrumentation.Counter.MINCUT_SELF_LOOPS, selfLoops);
+	}
+	
+	private int find(int v) {
+		while (parent[v] != v) {
+			parent[v] = parent[parent[v]];	//path halving
+			v = parent[v];
+		}
+		return v;
+	}
+	
+	private void swapEdges(int i, int j) {
+		int from = edgeFrom[i];
+		int to = edgeTo[i];
+		edgeFrom[i] = edgeFrom[j];
+		edgeTo[i] = edgeTo[j];
+		edgeFrom[j] = from;
+		edgeTo[j] = to;
+	}
+	
 	/**
 	 * Prints the adjacency list with the first element on a line
 	 * being the integer Node, and subsequent Integers being edges to other nodes
@@ -83,9 +200,14 @@ public class MinCut {
 	 * Removes all the elements from the list that equals an integer
 	 * @param list - The list
 	 * @param number - The number to remove from the list
+	 * @return the number of elements removed
 	 */
-	private void removeAllInteger(List<Integer> list, Integer number) {
-		while(list.remove(number)) {}
+	private int removeAllInteger(List<Integer> list, Integer number) {
+		int removed = 0;
+		while(list.remove(number)) {
+			removed++;
+		}
+		return removed;
 	}
 	
 	/**
@@ -0,0 +1,321 @@
+package queryServer;
+
+import graph.Graph;
+import graph.Relabeling;
+import kargerMinCut.MinCut;
+import stronglyConnectedComponents.Scc;
+import Dijkstras.DijkstraSolver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Resident server that loads a graph once and answers a line protocol, one request per line and one response line per
+ * request, in order, so clients can send a batch of requests without waiting for each answer:
+ * <pre>
+ * dist s t         shortest distance from s to t    -> "dist s t distance" or "dist s t unreachable"
+ * scc v            strongly connected component of v -> "scc v component size"
+ * mincut trials    best of that many Karger trials   -> "mincut cut trials"
+ * stats            counters                          -> "stats requests n rejected n ..."
+ * quit             closes the connection
+ * </pre>
+ * Malformed requests get "error message" and rejected ones "busy". The graph is immutable and shared by every connection.
+ * Solves run on solvers taken from idle pools, and a semaphore caps how many run at once; a request that cannot get a
+ * permit within the admission timeout is rejected instead of queueing without bound.
+ * The components are computed by the first scc request, under one permit, and kept since the graph never changes; other
+ * scc requests wait for that solve, up to the admission timeout, without holding a permit.
+ * dist needs a weighted graph and mincut treats the graph as undirected with every edge listed from both ends.
+ * When the graph was relabeled for locality, requests and replies still use the ids of the input file.
+ * @author sandasai
+ *
+ */
+public class QueryServer {
+
+	//largest number of trials one mincut request may ask for
+	static final int MAX_TRIALS = 100000;
+	//how often a listening server checks whether its thread was interrupted
+	static final int ACCEPT_TIMEOUT_MILLIS = 200;
+
+	private final Graph graph;
+	private final Relabeling relabeling; //null when the graph keeps its input ids
+	private final Semaphore permits;
+	private final long admissionTimeoutMillis;
+
+	private final ConcurrentLinkedQueue<DijkstraSolver> idleSolvers = new ConcurrentLinkedQueue<DijkstraSolver>();
+	private final ConcurrentLinkedQueue<MinCut> idleCuts = new ConcurrentLinkedQueue<MinCut>();
+	//the scc solve, set by the first scc request; reset when that request could not get a permit
+	private final AtomicReference<FutureTask<Scc>> components = new AtomicReference<FutureTask<Scc>>();
+	private volatile ServerSocket server;
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+
+	/**
+	 * @param graph graph to answer requests on
+	 * @param maxConcurrentSolves number of solves that may run at once
+	 * @param admissionTimeoutMillis how long a request waits for a solve permit before it is rejected
+	 */
+	QueryServer(Graph graph, int maxConcurrentSolves, long admissionTimeoutMillis) {
+		this(graph, null, maxConcurrentSolves, admissionTimeoutMillis);
+	}
+
+	/**
+	 * @param graph graph to answer requests on, already relabeled
+	 * @param relabeling the relabeling applied to graph, or null
+	 * @param maxConcurrentSolves number of solves that may run at once
+	 * @param admissionTimeoutMillis how long a request waits for a solve permit before it is rejected
+	 */
+	QueryServer(Graph graph, Relabeling relabeling, int maxConcurrentSolves, long admissionTimeoutMillis) {
+		if (maxConcurrentSolves < 1)
+			throw new IllegalArgumentException("Need at least one concurrent solve");
+		this.graph = graph;
+		this.relabeling = relabeling;
+		this.permits = new Semaphore(maxConcurrentSolves, true);
+		this.admissionTimeoutMillis = admissionTimeoutMillis;
+	}
+
+	/**
+	 * Answers one request line
+	 * @param line
+	 * @return the response line, or null for quit
+	 * @throws InterruptedException if interrupted while waiting for a permit
+	 */
+	public String handle(String line) throws InterruptedException {
+		String[] request = line.trim().split("\\s+");
+		if (request[0].equals("quit"))
+			return null;
+		requests.incrementAndGet();
+		try {
+			if (request[0].equals("dist") && request.length == 3)
+				return "dist " + Integer.parseInt(request[1]) + " " + Integer.parseInt(request[2]) + " "
+						+ distance(vertex(request[1]), vertex(request[2]));
+			if (request[0].equals("scc") && request.length == 2)
+				return "scc " + Integer.parseInt(request[1]) + " " + component(vertex(request[1]));
+			if (request[0].equals("mincut") && request.length == 2)
+				return minCut(Integer.parseInt(request[1]));
+			if (request[0].equals("stats") && request.length == 1)
+				return "stats requests " + requests.get() + " rejected " + rejected.get() + " errors " + errors.get()
+						+ " available " + permits.availablePermits();
+			errors.incrementAndGet();
+			return "error unknown request: " + line.trim();
+		} catch (IllegalArgumentException e) {
+			errors.incrementAndGet();
+			return "error " + e.getMessage();
+		} catch (Busy e) {
+			rejected.incrementAndGet();
+			return "busy";
+		}
+	}
+
+	/**
+	 * @return the id in the graph of a vertex named in a request
+	 */
+	private int vertex(String value) {
+		int v = Integer.parseInt(value);
+		if (v < 0 || v >= graph.vertexCount())
+			throw new IllegalArgumentException("no vertex " + v);
+		return relabeling == null ? v : relabeling.toNew(v);
+	}
+
+	private String distance(int source, int target) throws InterruptedException, Busy {
+		if (!graph.isWeighted())
+			throw new IllegalArgumentException("the graph has no edge weights");
+		admit();
+		try {
+			DijkstraSolver solver = idleSolvers.poll();
+			if (solver == null)
+				solver = new DijkstraSolver(graph);
+			solver.solve(source, new int[] { target }, DijkstraSolver.UNREACHED);
+			long distance = solver.getDistance(target);
+			idleSolvers.add(solver);
+			return distance == DijkstraSolver.UNREACHED ? "unreachable" : String.valueOf(distance);
+		} finally {
+			permits.release();
+		}
+	}
+
+	private String component(int v) throws InterruptedException, Busy {
+		FutureTask<Scc> solve = components.get();
+		if (solve == null) {
+			FutureTask<Scc> created = new FutureTask<Scc>(new Callable<Scc>() {
+				public Scc call() throws Exception {
+					admit();
+					try {
+						Scc scc = new Scc(graph, 0, graph.vertexCount() - 1);
+						scc.setOutput(new PrintStream(new OutputStream() {
+							public void write(int b) {
+							}
+						}));
+						scc.solveAlternate();
+						return scc;
+					} finally {
+						permits.release();
+					}
+				}
+			});
+			if (components.compareAndSet(null, created)) {
+				//only this request takes a permit, the others wait for the task below
+				created.run();
+			}
+			solve = components.get();
+		}
+		Scc scc;
+		try {
+			scc = solve.get(admissionTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			throw new Busy();
+		} catch (ExecutionException e) {
+			//let a later request try again
+			components.compareAndSet(solve, null);
+			if (e.getCause() instanceof Busy)
+				throw (Busy) e.getCause();
+			if (e.getCause() instanceof InterruptedException)
+				throw (InterruptedException) e.getCause();
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		int component = scc.getComponent(v);
+		return component + " " + scc.getComponentSize(component);
+	}
+
+	private String minCut(int trials) throws InterruptedException, Busy {
+		if (trials < 1 || trials > MAX_TRIALS)
+			throw new IllegalArgumentException("trials must be in 1.." + MAX_TRIALS);
+		admit();
+		try {
+			MinCut cut = idleCuts.poll();
+			if (cut == null)
+				cut = new MinCut(graph);
+			int best = Integer.MAX_VALUE;
+			for (int i = 0; i < trials; i++)
+				best = Math.min(best, cut.solve());
+			idleCuts.add(cut);
+			return "mincut " + best + " " + trials;
+		} catch (IllegalStateException e) {
+			//thrown for graphs that are not connected
+			throw new IllegalArgumentException(e.getMessage());
+		} finally {
+			permits.release();
+		}
+	}
+
+	private void admit() throws InterruptedException, Busy {
+		if (!permits.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS))
+			throw new Busy();
+	}
+
+	/**
+	 * Answers requests from a reader until it ends or a quit request
+	 * @param input
+	 * @param output
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public void serve(Reader input, Writer output) throws IOException, InterruptedException {
+		BufferedReader reader = new BufferedReader(input);
+		PrintWriter writer = new PrintWriter(output);
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.trim().isEmpty())
+				continue;
+			String response = handle(line);
+			if (response == null)
+				break;
+			writer.println(response);
+			//flush only when the client has no more requests buffered, so a batch is answered in one write
+			if (!reader.ready())
+				writer.flush();
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Accepts connections on a local port until close is called or the thread is interrupted, serving each on its own
+	 * thread. accept does not respond to interrupts, so it gives up every ACCEPT_TIMEOUT_MILLIS to check for one.
+	 * Connections mostly wait on their socket, the semaphore bounds the actual work.
+	 * @param port
+	 * @throws IOException
+	 */
+	public void listen(int port) throws IOException {
+		ServerSocket server = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+		server.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+		this.server = server;
+		ExecutorService connections = Executors.newCachedThreadPool();
+		try {
+			while (!Thread.currentThread().isInterrupted() && !server.isClosed()) {
+				final Socket socket;
+				try {
+					socket = server.accept();
+				} catch (SocketTimeoutException e) {
+					continue;
+				} catch (IOException e) {
+					if (server.isClosed())
+						break; //closed by close()
+					throw e;
+				}
+				connections.execute(new Runnable() {
+					public void run() {
+						try {
+							try {
+								serve(new InputStreamReader(socket.getInputStream(), "US-ASCII"),
+										new OutputStreamWriter(socket.getOutputStream(), "US-ASCII"));
+							} finally {
+								socket.close();
+							}
+						} catch (IOException e) {
+							//the client went away
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				});
+			}
+		} finally {
+			connections.shutdownNow();
+			server.close();
+		}
+	}
+
+	/**
+	 * Stops a listen running on another thread; it returns once its accept sees the closed socket
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		ServerSocket listening = server;
+		if (listening != null)
+			listening.close();
+	}
+
+	/**
+	 * Thrown when a request could not get a solve permit in time
+	 */
+	private static class Busy extends Exception {
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -0,0 +1,48 @@
+package queryServer;
+
+import graph.Graph;
+import graph.GraphLoader;
+import graph.Relabeling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+
+public class QueryServerMain {
+
+	/**
+	 * Loads a graph once and answers dist, scc and mincut requests until stopped (see QueryServer for the protocol)
+	 * @param args 0 - graph file, text or binary
+	 * 			   1 - "weighted" for the Dijkstras text format, "adjacency" for the other text format
+	 * 			   2 - local port to listen on, or "-" to answer requests from standard input
+	 * 			   3 - optional, number of solves that may run at once, the number of cores by default
+	 * 			   4 - optional, milliseconds a request waits for a solve before it is answered "busy", 10000 by default
+	 * The graph can be relabeled for locality with -Dgraph.reorder=NAME, one of the Relabeling.Order names
+	 */
+	public static void main(String[] args) {
+		if (args.length < 3 || !(args[1].equals("weighted") || args[1].equals("adjacency"))) {
+			System.out.println("usage: QueryServerMain <graph> weighted|adjacency <port>|- [maxConcurrentSolves] [admissionTimeoutMillis]");
+			return;
+		}
+		int maxSolves = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		long timeout = args.length > 4 ? Long.parseLong(args[4]) : 10000;
+		try {
+			Graph graph = GraphLoader.load(new File(args[0]), args[1].equals("weighted"));
+			Relabeling relabeling = Relabeling.forProperty(graph);
+			if (relabeling != null)
+				graph = relabeling.apply(graph);
+			QueryServer server = new QueryServer(graph, relabeling, maxSolves, timeout);
+			if (args[2].equals("-")) {
+				server.serve(new InputStreamReader(System.in, "US-ASCII"), new OutputStreamWriter(System.out, "US-ASCII"));
+			} else {
+				System.err.println("loaded " + graph.vertexCount() + " vertices and " + graph.edgeCount() + " edges, listening on port " + args[2]);
+				server.listen(Integer.parseInt(args[2]));
+			}
+		} catch (IOException ex) {
+			System.out.println("Error: " + ex.getMessage());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package queryServer;
+
+import static org.junit.Assert.*;
+
+import graph.CsrGraph;
+import graph.Graph;
+import graph.NeighborCursor;
+import graph.Relabeling;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class QueryServerTest {
+
+	/**
+	 * Two triangles 1 2 3 and 4 5 6 joined by the edge 3 - 4, every edge listed from both ends. Vertex 0 has no edges.
+	 */
+	static CsrGraph twoTriangles(boolean weighted) {
+		int[][] edges = { { 1, 2, 1 }, { 2, 3, 1 }, { 1, 3, 5 }, { 3, 4, 2 }, { 4, 5, 1 }, { 5, 6, 1 }, { 4, 6, 4 } };
+		CsrGraph.Builder builder = new CsrGraph.Builder(weighted);
+		builder.addVertex(0);
+		for (int[] edge : edges) {
+			if (weighted) {
+				builder.addEdge(edge[0], edge[1], edge[2]);
+				builder.addEdge(edge[1], edge[0], edge[2]);
+			} else {
+				builder.addEdge(edge[0], edge[1]);
+				builder.addEdge(edge[1], edge[0]);
+			}
+		}
+		return builder.build();
+	}
+
+	static String serve(QueryServer server, String requests) throws IOException, InterruptedException {
+		StringWriter output = new StringWriter();
+		server.serve(new StringReader(requests), output);
+		return output.toString();
+	}
+
+	@Test
+	public void answersEveryRequestInOrder() throws IOException, InterruptedException {
+		QueryServer server = new QueryServer(twoTriangles(true), 2, 10000);
+		String[] lines = serve(server, "dist 1 6\ndist 6 1\n\n  dist 1 0  \nscc 1\nscc 6\nscc 0\nmincut 2000\n"
+				+ "dist 1\ndist a 2\nscc 99\nscc -1\nmincut 0\nmincut " + (QueryServer.MAX_TRIALS + 1) + "\nfrobnicate\n"
+				+ "stats\nquit\ndist 1 6\n").split("\r?\n");
+		assertEquals(15, lines.length);
+		assertEquals("dist 1 6 6", lines[0]);
+		assertEquals("dist 6 1 6", lines[1]);
+		assertEquals("dist 1 0 unreachable", lines[2]);
+		//vertices 1..6 are one component of 6, vertex 0 one of its own
+		String component = lines[3].split(" ")[2];
+		assertEquals("scc 1 " + component + " 6", lines[3]);
+		assertEquals("scc 6 " + component + " 6", lines[4]);
+		assertTrue(lines[5].startsWith("scc 0 ") && lines[5].endsWith(" 1"));
+		assertFalse(lines[5].equals("scc 0 " + component + " 1"));
+		assertEquals("mincut 1 2000", lines[6]);
+		assertEquals("error unknown request: dist 1", lines[7]);
+		assertTrue(lines[8].startsWith("error "));
+		assertEquals("error no vertex 99", lines[9]);
+		assertEquals("error no vertex -1", lines[10]);
+		assertEquals("error trials must be in 1.." + QueryServer.MAX_TRIALS, lines[11]);
+		assertEquals("error trials must be in 1.." + QueryServer.MAX_TRIALS, lines[12]);
+		assertEquals("error unknown request: frobnicate", lines[13]);
+		assertEquals("stats requests 15 rejected 0 errors 7 available 2", lines[14]);
+		//quit ends only its own connection
+		assertEquals("dist 1 6 6\n", serve(server, "dist 1 6").replace("\r", ""));
+	}
+
+	@Test
+	public void answersInInputIdsOnARelabeledGraph() throws IOException, InterruptedException {
+		CsrGraph graph = twoTriangles(true);
+		String requests = "dist 1 6\ndist 5 2\ndist 0 3\nmincut 2000\nscc 99\n";
+		String expected = serve(new QueryServer(graph, 1, 10000), requests);
+		for (Relabeling.Order order : Relabeling.Order.values()) {
+			Relabeling relabeling = Relabeling.of(graph, order);
+			assertEquals(order.name(), expected, serve(new QueryServer(relabeling.rewrite(graph), relabeling, 1, 10000), requests));
+		}
+	}
+
+	@Test
+	public void distNeedsWeights() throws InterruptedException {
+		QueryServer server = new QueryServer(twoTriangles(false), 1, 10000);
+		assertEquals("error the graph has no edge weights", server.handle("dist 1 2"));
+		assertEquals("mincut 1 2000", server.handle("mincut 2000"));
+		assertNull(server.handle("quit"));
+	}
+
+	@Test
+	public void concurrentFirstSccRequestsShareOnePermit() throws InterruptedException {
+		GatedGraph graph = new GatedGraph(twoTriangles(true));
+		final QueryServer server = new QueryServer(graph, 2, 10000);
+		final String[] responses = new String[4];
+		Thread[] threads = new Thread[responses.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int request = i;
+			threads[i] = new Thread(new Runnable() {
+				public void run() {
+					try {
+						responses[request] = server.handle("scc " + (request + 1));
+					} catch (InterruptedException e) {
+						responses[request] = e.toString();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		try {
+			graph.entered.await();
+			//the solving request waits at the gate, the others for its result; none of them may hold a second permit
+			for (Thread thread : threads)
+				waitUntilBlocked(thread);
+			assertEquals("stats requests 5 rejected 0 errors 0 available 1", server.handle("stats"));
+		} finally {
+			graph.gate.countDown();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		String component = responses[0].split(" ")[2];
+		for (int i = 0; i < responses.length; i++)
+			assertEquals("scc " + (i + 1) + " " + component + " 6", responses[i]);
+		assertEquals("stats requests 6 rejected 0 errors 0 available 2", server.handle("stats"));
+	}
+
+	@Test
+	public void busyWhenPermitsAreExhausted() throws InterruptedException {
+		GatedGraph graph = new GatedGraph(twoTriangles(true));
+		final QueryServer server = new QueryServer(graph, 1, 100);
+		final String[] response = new String[1];
+		Thread solving = new Thread(new Runnable() {
+			public void run() {
+				try {
+					response[0] = server.handle("scc 2");
+				} catch (InterruptedException e) {
+					response[0] = e.toString();
+				}
+			}
+		});
+		solving.start();
+		try {
+			graph.entered.await();
+			//the scc solve holds the only permit until the gate opens
+			assertEquals("busy", server.handle("dist 1 6"));
+			assertEquals("busy", server.handle("mincut 10"));
+			assertEquals("busy", server.handle("scc 3"));
+			assertEquals("stats requests 5 rejected 3 errors 0 available 0", server.handle("stats"));
+		} finally {
+			graph.gate.countDown();
+		}
+		solving.join();
+		assertTrue(response[0], response[0].startsWith("scc 2 ") && response[0].endsWith(" 6"));
+		assertEquals("dist 1 6 6", server.handle("dist 1 6"));
+		assertEquals("stats requests 7 rejected 3 errors 0 available 1", server.handle("stats"));
+	}
+
+	/**
+	 * Waits until a thread is parked, at the gate or on a lock or a future
+	 */
+	private static void waitUntilBlocked(Thread thread) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+			if (System.currentTimeMillis() > deadline)
+				fail(thread.getName() + " never blocked, it is " + thread.getState());
+			Thread.sleep(1);
+		}
+	}
+
+	/**
+	 * Graph whose cursors are only handed out once the gate opens, so a solve can be held while it has its permit
+	 */
+	private static class GatedGraph implements Graph {
+		final Graph graph;
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch gate = new CountDownLatch(1);
+
+		GatedGraph(Graph graph) {
+			this.graph = graph;
+		}
+
+		public int vertexCount() {
+			return graph.vertexCount();
+		}
+
+		public long edgeCount() {
+			return graph.edgeCount();
+		}
+
+		public boolean isWeighted() {
+			return graph.isWeighted();
+		}
+
+		public int degree(int v) {
+			return graph.degree(v);
+		}
+
+		public NeighborCursor cursor() {
+			entered.countDown();
+			try {
+				gate.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return graph.cursor();
+		}
+	}
+}
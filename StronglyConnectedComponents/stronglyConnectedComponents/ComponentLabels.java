@@ -0,0 +1,84 @@
+package stronglyConnectedComponents;
+
+import graph.ChannelBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Versioned little-endian binary file with the component id of every vertex, so other tools can read the labels
+ * without parsing text.
+ * <pre>
+ * offset  size     field
+ * 0       4        magic "SCCL"
+ * 4       4        version (1)
+ * 8       4        vertex count n
+ * 12      4        component count
+ * 16      4 * n    component id of each vertex as ints, -1 for vertices no root reached
+ * </pre>
+ * @author sandasai
+ *
+ */
+public class ComponentLabels {
+
+	static final int MAGIC = 0x4c434353; //"SCCL" read as a little-endian int
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 16;
+
+	private ComponentLabels() {
+	}
+
+	/**
+	 * Writes the labels through a direct buffer in bulk, one channel write per 64 KB
+	 * @param componentIds - component of every vertex
+	 * @param componentCount - number of components
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void write(int[] componentIds, int componentCount, File file) throws IOException {
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			output.setLength(0);
+			ChannelBuffer buffer = ChannelBuffer.writer(output.getChannel());
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(componentIds.length).putInt(componentCount);
+			buffer.putInts(componentIds);
+			buffer.flush();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Maps a label file and copies the labels out
+	 * @param file
+	 * @return component of every vertex
+	 * @throws IOException if the file is not a readable label file
+	 */
+	public static int[] read(File file) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			if (channel.size() < HEADER_BYTES)
+				throw new IOException("Truncated label file header: " + file);
+			ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+			if (mapped.getInt() != MAGIC)
+				throw new IOException("Not a label file: " + file);
+			int version = mapped.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported label file version " + version + ": " + file);
+			int n = mapped.getInt();
+			mapped.getInt();
+			if (n < 0 || channel.size() != HEADER_BYTES + 4L * n)
+				throw new IOException("Label file size does not match its header: " + file);
+			int[] componentIds = new int[n];
+			mapped.asIntBuffer().get(componentIds);
+			return componentIds;
+		} finally {
+			input.close();
+		}
+	}
+}
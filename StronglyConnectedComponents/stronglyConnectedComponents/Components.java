@@ -0,0 +1,107 @@
+package stronglyConnectedComponents;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Strongly connected components of an int vertex graph: the component id of every vertex and the size of every
+ * component. How ids are numbered depends on the engine that found them.
+ * @author sandasai
+ *
+ */
+public class Components {
+
+	private final int[] componentIds;	//component of every vertex, -1 if no search reached it
+	private final int[] componentSizes;	//size of every component by id
+
+	Components(int[] componentIds, int[] componentSizes) {
+		this.componentIds = componentIds;
+		this.componentSizes = componentSizes;
+	}
+
+	/**
+	 * @param v
+	 * @return id of the component of v, -1 if v was not reached from min..max
+	 */
+	public int getComponent(int v) {
+		if (v < 0 || v >= componentIds.length)
+			return -1;
+		return componentIds[v];
+	}
+
+	/**
+	 * @param component id returned by getComponent
+	 * @return number of vertices in the component
+	 */
+	public int getComponentSize(int component) {
+		return componentSizes[component];
+	}
+
+	/**
+	 * @return number of components found
+	 */
+	public int getComponentCount() {
+		return componentSizes.length;
+	}
+
+	/**
+	 * Leaves vertices out of the result, for ids that are not really vertices of the input
+	 * @param keep - true for every vertex to keep
+	 * @return components of the kept vertices, numbered in the order of their old ids; components without a kept
+	 * vertex are dropped and the other vertices get component -1
+	 */
+	Components restrict(boolean[] keep) {
+		int[] newIds = new int[componentSizes.length];
+		Arrays.fill(newIds, -1);
+		int[] sizes = new int[componentSizes.length];
+		int count = 0;
+		int[] ids = new int[componentIds.length];
+		for (int v = 0; v < ids.length; v++) {
+			int component = componentIds[v];
+			if (component < 0 || !keep[v]) {
+				ids[v] = -1;
+				continue;
+			}
+			if (newIds[component] == -1)
+				newIds[component] = count++;
+			ids[v] = newIds[component];
+			sizes[ids[v]]++;
+		}
+		return new Components(ids, Arrays.copyOf(sizes, count));
+	}
+
+	/**
+	 * @param k - number of sizes
+	 * @return the k largest component sizes in descending order, padded with zeros when there are fewer components
+	 */
+	public int[] topSizes(int k) {
+		TopSizes top = new TopSizes(k);
+		for (int size : componentSizes)
+			top.add(size);
+		return top.sizes();
+	}
+
+	/**
+	 * Writes the component of every vertex to a binary label file
+	 * @param file
+	 * @throws IOException
+	 */
+	public void writeLabels(File file) throws IOException {
+		ComponentLabels.write(componentIds, componentSizes.length, file);
+	}
+
+	/**
+	 * @return the component of every vertex, indexed by vertex; shared, not copied
+	 */
+	public int[] componentIds() {
+		return componentIds;
+	}
+
+	/**
+	 * @return the size of every component, indexed by id; shared, not copied
+	 */
+	public int[] componentSizes() {
+		return componentSizes;
+	}
+}
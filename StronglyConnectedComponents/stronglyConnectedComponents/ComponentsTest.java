@@ -0,0 +1,125 @@
+package stronglyConnectedComponents;
+
+import static org.junit.Assert.*;
+
+import graph.CsrGraph;
+import graph.Relabeling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ComponentsTest {
+
+	/**
+	 * @return the k largest values in descending order, padded with zeros, by sorting all of them
+	 */
+	static int[] sortedTop(int[] values, int k) {
+		int[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int[] top = new int[k];
+		for (int i = 0; i < k && i < sorted.length; i++)
+			top[i] = sorted[sorted.length - 1 - i];
+		return top;
+	}
+
+	@Test
+	public void topSizesMatchSortedReference() {
+		Random r = new Random(11);
+		for (int count : new int[] { 0, 1, 2, 7, 100, 5000 }) {
+			int[] sizes = new int[count];
+			for (int i = 0; i < count; i++)
+				sizes[i] = 1 + (r.nextBoolean() ? r.nextInt(10) : r.nextInt(100000));
+			for (int k : new int[] { 0, 1, 5, count, count + 3 }) {
+				TopSizes top = new TopSizes(k);
+				for (int size : sizes)
+					top.add(size);
+				assertEquals("top " + k + " of " + count, Arrays.toString(sortedTop(sizes, k)), Arrays.toString(top.sizes()));
+				assertArrayEquals(sortedTop(sizes, k), new Components(new int[0], sizes).topSizes(k));
+			}
+		}
+	}
+
+	@Test
+	public void topSizesKeepTies() {
+		TopSizes top = new TopSizes(3);
+		for (int size : new int[] { 4, 1, 4, 4, 2, 4 })
+			top.add(size);
+		assertArrayEquals(new int[] { 4, 4, 4 }, top.sizes());
+		try {
+			new TopSizes(-1);
+			fail("Accepted a negative k");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	@Test
+	public void labelFileRoundTrip() throws IOException {
+		CsrGraph graph = SccTest.randomGraph(20000, 25000, 31);
+		Relabeling relabeling = Relabeling.of(graph, Relabeling.Order.DEGREE);
+		Components components = new PearceScc(relabeling.rewrite(graph)).solve(1, graph.vertexCount() - 1);
+		//more ids than one 64 KB buffer holds, written in the input ids like SccMain does
+		int[] original = relabeling.toOriginal(components.componentIds());
+		File file = File.createTempFile("labels", ".sccl");
+		try {
+			ComponentLabels.write(original, components.getComponentCount(), file);
+			assertEquals(ComponentLabels.HEADER_BYTES + 4L * original.length, file.length());
+			assertArrayEquals(original, ComponentLabels.read(file));
+			new Components(original, components.componentSizes()).writeLabels(file);
+			assertArrayEquals(original, ComponentLabels.read(file));
+			ComponentLabels.write(new int[0], 0, file);
+			assertArrayEquals(new int[0], ComponentLabels.read(file));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void rejectsCorruptLabelFiles() throws IOException {
+		File file = File.createTempFile("labels", ".sccl");
+		try {
+			ComponentLabels.write(new int[] { 0, 1, 1, -1 }, 2, file);
+			assertCorrupt(file, 0, 0x12345678);		//magic
+			ComponentLabels.write(new int[] { 0, 1, 1, -1 }, 2, file);
+			assertCorrupt(file, 4, ComponentLabels.VERSION + 1);
+			ComponentLabels.write(new int[] { 0, 1, 1, -1 }, 2, file);
+			assertCorrupt(file, 8, 5);				//vertex count
+			ComponentLabels.write(new int[] { 0, 1, 1, -1 }, 2, file);
+			RandomAccessFile output = new RandomAccessFile(file, "rw");
+			try {
+				output.setLength(10);
+			} finally {
+				output.close();
+			}
+			try {
+				ComponentLabels.read(file);
+				fail("Read a truncated header");
+			} catch (IOException e) {
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Overwrites one little-endian header int and asserts reading fails
+	 */
+	private static void assertCorrupt(File file, int offset, int value) throws IOException {
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			output.seek(offset);
+			output.writeInt(Integer.reverseBytes(value));
+		} finally {
+			output.close();
+		}
+		try {
+			ComponentLabels.read(file);
+			fail("Read a label file with " + value + " at offset " + offset);
+		} catch (IOException e) {
+		}
+	}
+}
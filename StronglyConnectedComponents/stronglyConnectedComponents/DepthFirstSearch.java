@@ -0,0 +1,80 @@
+package stronglyConnectedComponents;
+
+import graph.NeighborCursor;
+
+import java.util.Arrays;
+
+/**
+ * Iterative depth first search over an int vertex graph that cannot overflow the call stack.
+ * When a vertex is entered its neighbors are copied from the cursor onto a shared neighbor stack,
+ * so the search only needs sequential neighbor access and never re-reads an adjacency list.
+ * The buffers are reused across runs.
+ * @author sandasai
+ *
+ */
+class DepthFirstSearch {
+
+	private int[] stack;		//vertices on the dfs path
+	private int[] nextNeighbor;	//per stack frame, position in neighbors of the next neighbor to try
+	private int[] frameEnd;		//per stack frame, end of the frame's neighbors; a frame starts where the one below it ends
+	private int[] neighbors = new int[1024];
+
+	DepthFirstSearch(int vertexCount) {
+		stack = new int[vertexCount];
+		nextNeighbor = new int[vertexCount];
+		frameEnd = new int[vertexCount];
+	}
+
+	/**
+	 * Runs a dfs from a root, appending vertices to the output array in the order they finish
+	 * @param cursor - cursor over the graph to search
+	 * @param root - unvisited vertex to start from
+	 * @param visited - vertices that have been visited, updated by the search
+	 * @param finished - output array
+	 * @param finishedSize - number of vertices already in the output array
+	 * @return the new size of the output array
+	 */
+	int run(NeighborCursor cursor, int root, boolean[] visited, int[] finished, int finishedSize) {
+		int top = 0;
+		visited[root] = true;
+		top = push(cursor, root, visited, top);
+		while (top > 0) {
+			int frame = top - 1;
+			int i = nextNeighbor[frame];
+			int end = frameEnd[frame];
+			while (i < end && visited[neighbors[i]])
+				i++;
+			if (i < end) { //there is an unexplored neighbor
+				int neighbor = neighbors[i];
+				nextNeighbor[frame] = i + 1;
+				visited[neighbor] = true;
+				top = push(cursor, neighbor, visited, top);
+				continue;
+			}
+			finished[finishedSize++] = stack[frame];
+			top = frame;
+		}
+		return finishedSize;
+	}
+
+	/**
+	 * Pushes a frame for a vertex and copies its unvisited neighbors onto the neighbor stack
+	 * @return the new stack size
+	 */
+	private int push(NeighborCursor cursor, int vertex, boolean[] visited, int top) {
+		int start = top == 0 ? 0 : frameEnd[top - 1];
+		int end = start;
+		cursor.reset(vertex);
+		while (cursor.next()) {
+			if (visited[cursor.target()])
+				continue;
+			if (end == neighbors.length)
+				neighbors = Arrays.copyOf(neighbors, neighbors.length * 2);
+			neighbors[end++] = cursor.target();
+		}
+		stack[top] = vertex;
+		nextNeighbor[top] = start;
+		frameEnd[top] = end;
+		return top + 1;
+	}
+}
@@ -0,0 +1,537 @@
+package stronglyConnectedComponents;
+
+import graph.CsrGraph;
+import graph.Graph;
+import graph.Instrumentation;
+import graph.NeighborCursor;
+import graph.ParallelTranspose;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Strongly connected components on a fork-join pool, in the steps of the multistep method:
+ * <ol>
+ * <li>trim: a vertex with no in-edges or no out-edges left is a component by itself, repeated while it removes many
+ * vertices</li>
+ * <li>forward-backward: the vertices both reached from and reaching a high degree pivot are one component, which in
+ * real graphs is usually the giant one; both searches are level synchronous breadth first searches over all cores</li>
+ * <li>coloring: every vertex takes the largest vertex id that reaches it, and the vertices of each color that reach
+ * its root backwards are one component; repeated on what is left</li>
+ * <li>once few vertices are left, PearceScc solves their subgraph on one core</li>
+ * </ol>
+ * Every vertex is labeled with a vertex of its component, and the labels are numbered at the end, so component ids
+ * follow the order of those vertices rather than any order of the component graph. A solver builds the reverse graph
+ * once and keeps it between solves; it must not be shared by threads.
+ * @author sandasai
+ *
+ */
+public class ParallelScc {
+
+	//work below this many vertices or frontier entries is not split further
+	private static final int GRAIN = 2048;
+	//trimming repeats while a round removes more than this fraction of the remaining vertices
+	private static final double TRIM_REPEAT = 0.01;
+	//once this few vertices are left the coloring rounds stop and PearceScc solves the rest
+	private static final int SERIAL_CUTOFF = 1 << 15;
+
+	private static final int ACTIVE = -1;	//label of a vertex whose component is not found yet
+	private static final int EXCLUDED = -2;	//label of a vertex no root in min..max reaches
+	private static final int FORWARD = 1;
+	private static final int BACKWARD = 2;
+
+	private final Graph graph;
+	private final int n;
+	private final int threads;
+	private CsrGraph reverse;
+	private ForkJoinPool pool;
+	private int[] label;				//ACTIVE, EXCLUDED or a vertex of the component
+	private AtomicIntegerArray marks;	//search bits during forward-backward, colors during coloring
+	private AtomicIntegerArray queued;	//round a vertex was last put on a frontier, so it is put there once
+	private int[] frontier;
+	private int[] nextFrontier;
+
+	/**
+	 * Creates a solver using every available core
+	 * @param graph - directed graph
+	 */
+	public ParallelScc(Graph graph) {
+		this(graph, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param graph - directed graph
+	 * @param threads - number of threads
+	 */
+	public ParallelScc(Graph graph, int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Need at least one thread");
+		this.graph = graph;
+		this.n = graph.vertexCount();
+		this.threads = threads;
+	}
+
+	/**
+	 * Finds the components of every vertex
+	 * @return the components
+	 */
+	public Components solve() {
+		return solve(0, n - 1);
+	}
+
+	/**
+	 * Finds the components reachable from the roots min..max, like Scc does
+	 * @param min - min vertex value
+	 * @param max - max vertex value
+	 * @return the components, vertices no root reaches have component -1
+	 */
+	public Components solve(int min, int max) {
+		min = Math.max(min, 0);
+		max = Math.min(max, n - 1);
+		if (reverse == null)
+			reverse = new ParallelTranspose(threads).transpose(graph);
+		label = new int[n];
+		Arrays.fill(label, ACTIVE);
+		marks = new AtomicIntegerArray(n);
+		queued = new AtomicIntegerArray(n);
+		frontier = new int[n];
+		nextFrontier = new int[n];
+		pool = new ForkJoinPool(threads);
+		try {
+			Instrumentation.Timer timer = time(Instrumentation.Phase.SCC_TRIM);
+			int active = n;
+			if (min > 0 || max < n - 1)
+				active = restrict(min, max);
+			int trimmed = trim(active);
+			active -= trimmed;
+			timer = next(timer, trimmed, Instrumentation.Phase.SCC_FORWARD_BACKWARD);
+			int giant = active > 0 ? forwardBackward() : 0;
+			active -= giant;
+			timer = next(timer, giant, Instrumentation.Phase.SCC_COLORING);
+			color();
+			Components components = number();
+			if (Instrumentation.ENABLED) {
+				timer.stop(active);
+				Instrumentation.add(Instrumentation.Counter.SCC_SOLVES, 1);
+				Instrumentation.add(Instrumentation.Counter.SCC_COMPONENTS, components.getComponentCount());
+			}
+			return components;
+		} finally {
+			pool.shutdownNow();
+			pool = null;
+			marks = null;
+			queued = null;
+			frontier = null;
+			nextFrontier = null;
+		}
+	}
+
+	/**
+	 * Excludes every vertex the roots min..max do not reach
+	 * @return number of vertices left
+	 */
+	private int restrict(int min, int max) {
+		int size = 0;
+		for (int v = min; v <= max; v++) {
+			marks.set(v, FORWARD);
+			frontier[size++] = v;
+		}
+		int reached = size + search(graph, size, FORWARD, 0);
+		forEach(0, n, new Body() {
+			public void run(int from, int to) {
+				for (int v = from; v < to; v++) {
+					if (marks.get(v) == 0)
+						label[v] = EXCLUDED;
+					marks.set(v, 0);
+				}
+			}
+		});
+		return reached;
+	}
+
+	/**
+	 * Removes vertices without active in-edges or out-edges as components of their own, in rounds that each count
+	 * the degrees and then remove, until a round removes few vertices
+	 * @return number of vertices removed
+	 */
+	private int trim(int active) {
+		final byte[] trimmable = new byte[n];
+		final AtomicInteger removed = new AtomicInteger();
+		int total = 0;
+		while (active > 0) {
+			removed.set(0);
+			forEach(0, n, new Body() {
+				public void run(int from, int to) {
+					NeighborCursor out = graph.cursor();
+					NeighborCursor in = reverse.cursor();
+					int count = 0;
+					for (int v = from; v < to; v++) {
+						if (label[v] != ACTIVE)
+							continue;
+						if (!hasActive(out, v) || !hasActive(in, v)) {
+							trimmable[v] = 1;
+							count++;
+						}
+					}
+					removed.addAndGet(count);
+				}
+			});
+			forEach(0, n, new Body() {
+				public void run(int from, int to) {
+					for (int v = from; v < to; v++) {
+						if (trimmable[v] != 0) {
+							label[v] = v;
+							trimmable[v] = 0;
+						}
+					}
+				}
+			});
+			total += removed.get();
+			active -= removed.get();
+			if (removed.get() <= TRIM_REPEAT * (active + removed.get()))
+				break;
+		}
+		return total;
+	}
+
+	/**
+	 * @return true if v has an edge to an active vertex in the graph of the cursor
+	 */
+	private boolean hasActive(NeighborCursor cursor, int v) {
+		cursor.reset(v);
+		while (cursor.next()) {
+			if (label[cursor.target()] == ACTIVE)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Labels the component of the active vertex with the largest product of in-degree and out-degree, the
+	 * intersection of a forward search and a backward search from it
+	 * @return size of the component
+	 */
+	private int forwardBackward() {
+		int pivot = -1;
+		long best = -1;
+		for (int v = 0; v < n; v++) {
+			if (label[v] != ACTIVE)
+				continue;
+			long product = (long) graph.degree(v) * reverse.degree(v);
+			if (product > best) {
+				best = product;
+				pivot = v;
+			}
+		}
+		marks.set(pivot, FORWARD);
+		frontier[0] = pivot;
+		search(graph, 1, FORWARD, 0);
+		//a vertex that reaches the pivot is in its component only if the pivot reaches it, so the backward search
+		//stays inside the forward one
+		marks.set(pivot, FORWARD | BACKWARD);
+		frontier[0] = pivot;
+		search(reverse, 1, BACKWARD, FORWARD);
+		final int root = pivot;
+		final AtomicInteger size = new AtomicInteger();
+		forEach(0, n, new Body() {
+			public void run(int from, int to) {
+				int count = 0;
+				for (int v = from; v < to; v++) {
+					if (marks.get(v) == (FORWARD | BACKWARD)) {
+						label[v] = root;
+						count++;
+					}
+					marks.set(v, 0);
+				}
+				size.addAndGet(count);
+			}
+		});
+		return size.get();
+	}
+
+	/**
+	 * Level synchronous search from the vertices on the frontier, which already have the bit, over active vertices
+	 * @param searched - graph or reverse
+	 * @param size - number of vertices on the frontier
+	 * @param bit - mark of the vertices reached
+	 * @param required - marks a vertex needs to be reached
+	 * @return number of vertices newly reached
+	 */
+	private int search(final Graph searched, int size, final int bit, final int required) {
+		int reached = 0;
+		final AtomicInteger nextSize = new AtomicInteger();
+		while (size > 0) {
+			nextSize.set(0);
+			final int[] current = frontier;
+			final int[] next = nextFrontier;
+			forEach(0, size, new Body() {
+				public void run(int from, int to) {
+					NeighborCursor cursor = searched.cursor();
+					int[] found = new int[64];
+					int count = 0;
+					for (int i = from; i < to; i++) {
+						cursor.reset(current[i]);
+						while (cursor.next()) {
+							int w = cursor.target();
+							if (label[w] != ACTIVE || (marks.get(w) & required) != required || !setBit(w, bit))
+								continue;
+							if (count == found.length)
+								found = Arrays.copyOf(found, count * 2);
+							found[count++] = w;
+						}
+					}
+					System.arraycopy(found, 0, next, nextSize.getAndAdd(count), count);
+				}
+			});
+			size = nextSize.get();
+			reached += size;
+			frontier = next;
+			nextFrontier = current;
+		}
+		return reached;
+	}
+
+	/**
+	 * @return true if this call set the bit
+	 */
+	private boolean setBit(int v, int bit) {
+		while (true) {
+			int old = marks.get(v);
+			if ((old & bit) != 0)
+				return false;
+			if (marks.compareAndSet(v, old, old | bit))
+				return true;
+		}
+	}
+
+	/**
+	 * Labels the remaining active vertices by coloring rounds, then the last few with PearceScc
+	 */
+	private void color() {
+		int size = 0;
+		for (int v = 0; v < n; v++) {
+			if (label[v] == ACTIVE)
+				size++;
+		}
+		int[] remaining = new int[size];
+		size = 0;
+		for (int v = 0; v < n; v++) {
+			if (label[v] == ACTIVE)
+				remaining[size++] = v;
+		}
+		int round = 0;
+		while (size > SERIAL_CUTOFF) {
+			final int[] vertices = remaining;
+			//every vertex starts with its own id as its color, and the largest color is pushed forward
+			forEach(0, size, new Body() {
+				public void run(int from, int to) {
+					for (int i = from; i < to; i++)
+						marks.set(vertices[i], vertices[i]);
+				}
+			});
+			System.arraycopy(remaining, 0, frontier, 0, size);
+			int frontierSize = size;
+			final AtomicInteger nextSize = new AtomicInteger();
+			while (frontierSize > 0) {
+				final int stamp = ++round;
+				nextSize.set(0);
+				final int[] current = frontier;
+				final int[] next = nextFrontier;
+				forEach(0, frontierSize, new Body() {
+					public void run(int from, int to) {
+						NeighborCursor cursor = graph.cursor();
+						int[] found = new int[64];
+						int count = 0;
+						for (int i = from; i < to; i++) {
+							int v = current[i];
+							int color = marks.get(v);
+							cursor.reset(v);
+							while (cursor.next()) {
+								int w = cursor.target();
+								if (label[w] != ACTIVE || !raise(w, color) || queued.getAndSet(w, stamp) == stamp)
+									continue;
+								if (count == found.length)
+									found = Arrays.copyOf(found, count * 2);
+								found[count++] = w;
+							}
+						}
+						System.arraycopy(found, 0, next, nextSize.getAndAdd(count), count);
+					}
+				});
+				frontierSize = nextSize.get();
+				frontier = next;
+				nextFrontier = current;
+			}
+
+			//the vertices of a color that reach its root backwards are the root's component
+			int roots = 0;
+			for (int i = 0; i < size; i++) {
+				if (marks.get(remaining[i]) == remaining[i])
+					frontier[roots++] = remaining[i];
+			}
+			final int[] rootList = frontier;
+			forEach(0, roots, new Body() {
+				public void run(int from, int to) {
+					NeighborCursor cursor = reverse.cursor();
+					int[] stack = new int[64];
+					for (int i = from; i < to; i++) {
+						int root = rootList[i];
+						label[root] = root;
+						int top = 0;
+						stack[top++] = root;
+						while (top > 0) {
+							cursor.reset(stack[--top]);
+							while (cursor.next()) {
+								int w = cursor.target();
+								if (marks.get(w) != root || label[w] != ACTIVE)
+									continue;
+								label[w] = root;
+								if (top == stack.length)
+									stack = Arrays.copyOf(stack, top * 2);
+								stack[top++] = w;
+							}
+						}
+					}
+				}
+			});
+			int left = 0;
+			for (int i = 0; i < size; i++) {
+				if (label[remaining[i]] == ACTIVE)
+					remaining[left++] = remaining[i];
+			}
+			size = left;
+		}
+		solveRest(remaining, size);
+	}
+
+	/**
+	 * @return true if this call raised the color of v
+	 */
+	private boolean raise(int v, int color) {
+		while (true) {
+			int old = marks.get(v);
+			if (old >= color)
+				return false;
+			if (marks.compareAndSet(v, old, color))
+				return true;
+		}
+	}
+
+	/**
+	 * Labels the last active vertices with PearceScc on the subgraph they induce
+	 * @param remaining - the active vertices in increasing order
+	 * @param size - number of active vertices
+	 */
+	private void solveRest(int[] remaining, int size) {
+		if (size == 0)
+			return;
+		int[] offsets = new int[size + 1];
+		int[] targets = new int[16];
+		int edges = 0;
+		NeighborCursor cursor = graph.cursor();
+		for (int i = 0; i < size; i++) {
+			cursor.reset(remaining[i]);
+			while (cursor.next()) {
+				if (label[cursor.target()] != ACTIVE)
+					continue;
+				if (edges == targets.length)
+					targets = Arrays.copyOf(targets, edges * 2);
+				targets[edges++] = Arrays.binarySearch(remaining, 0, size, cursor.target());
+			}
+			offsets[i + 1] = edges;
+		}
+		Components components = new PearceScc(new CsrGraph(offsets, Arrays.copyOf(targets, edges), null)).solve();
+		int[] representative = new int[components.getComponentCount()];
+		Arrays.fill(representative, -1);
+		for (int i = 0; i < size; i++) {
+			int component = components.getComponent(i);
+			if (representative[component] < 0)
+				representative[component] = remaining[i];
+			label[remaining[i]] = representative[component];
+		}
+	}
+
+	/**
+	 * Numbers the components by their labeling vertex and counts their sizes
+	 */
+	private Components number() {
+		int[] componentIds = new int[n];
+		int components = 0;
+		for (int v = 0; v < n; v++) {
+			if (label[v] == v)
+				componentIds[v] = components++;
+		}
+		int[] sizes = new int[components];
+		for (int v = 0; v < n; v++) {
+			if (label[v] < 0) {
+				componentIds[v] = -1;
+				continue;
+			}
+			componentIds[v] = componentIds[label[v]];
+			sizes[componentIds[v]]++;
+		}
+		label = null;
+		return new Components(componentIds, sizes);
+	}
+
+	/**
+	 * Runs the body over from..to on the pool, split into ranges of about GRAIN
+	 */
+	private void forEach(int from, int to, Body body) {
+		if (to - from <= GRAIN)
+			body.run(from, to);
+		else
+			pool.invoke(new Loop(body, from, to));
+	}
+
+	/**
+	 * @return a timer for the phase, null when instrumentation is disabled
+	 */
+	private static Instrumentation.Timer time(Instrumentation.Phase phase) {
+		return Instrumentation.ENABLED ? Instrumentation.start(phase) : null;
+	}
+
+	/**
+	 * Stops the timer of one phase and starts the next
+	 */
+	private static Instrumentation.Timer next(Instrumentation.Timer timer, long items, Instrumentation.Phase phase) {
+		if (!Instrumentation.ENABLED)
+			return null;
+		timer.stop(items);
+		return Instrumentation.start(phase);
+	}
+
+	/**
+	 * Work on a range of indices
+	 */
+	private interface Body {
+		void run(int from, int to);
+	}
+
+	private static final class Loop extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Body body;
+		private final int from;
+		private final int to;
+
+		Loop(Body body, int from, int to) {
+			this.body = body;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from <= GRAIN) {
+				body.run(from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new Loop(body, from, middle), new Loop(body, middle, to));
+		}
+	}
+}
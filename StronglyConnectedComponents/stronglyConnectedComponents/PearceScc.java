@@ -0,0 +1,156 @@
+package stronglyConnectedComponents;
+
+import graph.Graph;
+import graph.Instrumentation;
+import graph.NeighborCursor;
+
+import java.util.Arrays;
+
+/**
+ * Strongly connected components in a single depth first pass with Pearce's space efficient variant of Tarjan's
+ * algorithm. One int per vertex holds both the visit index and the low link: while a vertex is open it is the lowest
+ * index reached from it, and once its component is done it is overwritten with a component number counting down from
+ * the vertex count, which is always above any open index, so no on-stack flags are needed. A bitset marks the
+ * vertices that are still roots. The dfs and the component stack are int arrays and the graph is never reversed.
+ * Components are numbered in the order they complete, which is a reverse topological order of the component graph.
+ * @author sandasai
+ *
+ */
+public class PearceScc {
+
+	private final Graph graph;
+	private final int n;
+	private int[] stack;		//vertices on the dfs path
+	private int[] nextNeighbor;	//per stack frame, position in neighbors of the next neighbor to try
+	private int[] frameEnd;		//per stack frame, end of the frame's neighbors; a frame starts where the one below it ends
+	private int[] neighbors = new int[1024];
+
+	/**
+	 * @param graph - directed graph, in memory or mapped from a binary graph file
+	 */
+	public PearceScc(Graph graph) {
+		this.graph = graph;
+		this.n = graph.vertexCount();
+		stack = new int[n];
+		nextNeighbor = new int[n];
+		frameEnd = new int[n];
+	}
+
+	/**
+	 * Finds the components of every vertex
+	 * @return the components
+	 */
+	public Components solve() {
+		return solve(0, n - 1);
+	}
+
+	/**
+	 * Finds the components reachable from the roots min..max, like Scc does
+	 * @param min - min vertex value
+	 * @param max - max vertex value
+	 * @return the components, vertices no root reaches have component -1
+	 */
+	public Components solve(int min, int max) {
+		max = Math.min(max, n - 1);
+		Instrumentation.Timer timer = Instrumentation.ENABLED ? Instrumentation.start(Instrumentation.Phase.SCC_SINGLE_PASS)
+				: null;
+		int[] rindex = new int[n];		//0 unvisited, below component while open, component number once done
+		long[] root = new long[(n + 63) >>> 6];
+		int[] open = new int[n];		//visited vertices whose component is not done, Tarjan's stack
+		int openSize = 0;
+		int index = 1;
+		int component = n;
+		int[] sizes = new int[16];
+		int components = 0;
+		long visits = 0;
+		NeighborCursor cursor = graph.cursor();
+		for (int r = Math.max(min, 0); r <= max; r++) {
+			if (rindex[r] != 0)
+				continue;
+			rindex[r] = index++;
+			root[r >>> 6] |= 1L << r;
+			visits++;
+			int top = push(cursor, r, rindex, component, 0);
+			while (top > 0) {
+				int frame = top - 1;
+				int v = stack[frame];
+				int i = nextNeighbor[frame];
+				int end = frameEnd[frame];
+				for (; i < end; i++) {
+					int w = neighbors[i];
+					if (rindex[w] == 0)
+						break;
+					if (rindex[w] < rindex[v]) {
+						rindex[v] = rindex[w];
+						root[v >>> 6] &= ~(1L << v);
+					}
+				}
+				if (i < end) { //there is an unvisited neighbor
+					int w = neighbors[i];
+					nextNeighbor[frame] = i + 1;
+					rindex[w] = index++;
+					root[w >>> 6] |= 1L << w;
+					visits++;
+					top = push(cursor, w, rindex, component, top);
+					continue;
+				}
+				top = frame;
+				if ((root[v >>> 6] & (1L << v)) != 0) {
+					//v and every open vertex visited after it form a component
+					int size = 1;
+					index--;
+					while (openSize > 0 && rindex[v] <= rindex[open[openSize - 1]]) {
+						rindex[open[--openSize]] = component;
+						index--;
+						size++;
+					}
+					rindex[v] = component--;
+					if (components == sizes.length)
+						sizes = Arrays.copyOf(sizes, components * 2);
+					sizes[components++] = size;
+				} else {
+					open[openSize++] = v;
+				}
+				if (top > 0) {
+					int parent = stack[top - 1];
+					if (rindex[v] < rindex[parent]) {
+						rindex[parent] = rindex[v];
+						root[parent >>> 6] &= ~(1L << parent);
+					}
+				}
+			}
+		}
+		//component numbers count down from n, turn them into ids counting up from 0 in place
+		for (int v = 0; v < n; v++)
+			rindex[v] = rindex[v] == 0 ? -1 : n - rindex[v];
+		if (Instrumentation.ENABLED) {
+			timer.stop(visits);
+			Instrumentation.add(Instrumentation.Counter.SCC_SOLVES, 1);
+			Instrumentation.add(Instrumentation.Counter.SCC_DFS_PUSHES, visits);
+			Instrumentation.add(Instrumentation.Counter.SCC_COMPONENTS, components);
+		}
+		return new Components(rindex, Arrays.copyOf(sizes, components));
+	}
+
+	/**
+	 * Pushes a frame for a vertex and copies its neighbors onto the neighbor stack, leaving out the ones whose
+	 * component is already done since they cannot lower a low link
+	 * @return the new stack size
+	 */
+	private int push(NeighborCursor cursor, int vertex, int[] rindex, int component, int top) {
+		int start = top == 0 ? 0 : frameEnd[top - 1];
+		int end = start;
+		cursor.reset(vertex);
+		while (cursor.next()) {
+			if (rindex[cursor.target()] > component)
+				continue;
+			if (end == neighbors.length)
+				neighbors = Arrays.copyOf(neighbors, neighbors.length * 2);
+			neighbors[end++] = cursor.target();
+		}
+		stack[top] = vertex;
+		nextNeighbor[top] = start;
+		frameEnd[top] = end;
+		return top + 1;
+	}
+}
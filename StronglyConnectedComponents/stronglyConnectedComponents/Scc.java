@@ -1,6 +1,14 @@
 package stronglyConnectedComponents;
 
+import graph.CsrGraph;
+import graph.Graph;
+import graph.Instrumentation;
+import graph.NeighborCursor;
+
+import java.io.PrintStream;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedList;
@@ -19,6 +27,7 @@ import java.util.Stack;
 public class Scc {
 	
 	Hashtable<Integer, List<Integer>> graph;
+	Graph intGraph;				//set instead of graph when solving on an int vertex graph
 	List<Integer> sizes; 	   	//end result for all the s
 	HashSet<Integer> explored; 	//A hashset to keep track of which vertices have been visited
 	Stack<Integer> worklist;	
@@ -27,6 +36,10 @@ public class Scc {
 	List<Integer> ordering; 	//ordered by shortest running time --> longest running time for dfs
 	int min;
 	int max;
+	PrintStream out = System.out;	//where solves print their results
+	int top = 5;					//number of largest sizes solves report
+	int[] componentIds;			//component of every vertex after solving an int vertex graph, -1 outside min..max
+	int[] componentSizes;		//size of every component by id
 	
 	/**
 	 * Creates a new problem for solving strongly connected components with a given graph and known minimum and maximum vertex values
@@ -45,6 +58,19 @@ public class Scc {
 		this.max = max;
 	}
 	
+	/**
+	 * Creates a new problem for solving strongly connected components on an int vertex graph
+	 * (in memory or mapped from a binary graph file)
+	 * @param graph - directed graph
+	 * @param min - min vertex value
+	 * @param max - max vertex value
+	 */
+	public Scc(Graph graph, int min, int max) {
+		this.intGraph = graph;
+		this.min = min;
+		this.max = Math.min(max, graph.vertexCount() - 1);
+	}
+	
 	//stack overflow implementation. Overflow is possible if given a large graph due to recursive calls
 	private void dfs(Hashtable<Integer, List<Integer>> graph, Integer vertex, List<Integer> list) {
 		explored.add(vertex);
@@ -83,9 +109,14 @@ public class Scc {
 
 	/**
 	 * Solves strongly connected component problem using an iterative approach when traversing nodes
-	 * Outputs the 5 largest SCCs to Standard output
+	 * Outputs the largest SCCs to Standard output, 5 unless setTop was called
 	 */
 	public void solveAlternate() {		
+		if (intGraph != null) {
+			solveIntGraph();
+			return;
+		}
+		Instrumentation.Timer timer = time(Instrumentation.Phase.SCC_FIRST_PASS);
 		explored = new HashSet<Integer>();
 		workstack = new Stack<Integer>(); 
 		ordering = new ArrayList<Integer>();
@@ -97,22 +128,22 @@ public class Scc {
 			explored.add(i);
 			dfsAlt(graph, ordering);
 		}
+		timer = next(timer, ordering.size(), Instrumentation.Phase.SCC_REVERSE);
 		//reverse the graph
 		Hashtable<Integer, List<Integer>> reversedGraph = reverseGraph(graph);
+		timer = next(timer, reversedGraph.size(), Instrumentation.Phase.SCC_SECOND_PASS);
 		ListIterator<Integer> itr = ordering.listIterator(ordering.size());	
 		
-		//reset explored and workstacks
+		//reset explored and workstacks, vertices the first pass did not reach stay out of the second
 		workstack = new Stack<Integer>();
-		explored = new HashSet<Integer>(); 
+		explored = unreached(reversedGraph, explored);
 		
 		//scc is the ordering of nodes in an scc. Gets cleared when we exit out of dfs
 		List<Integer> scc = new ArrayList<Integer>();
 
-		LinkedList<Integer> sizeTracker = new LinkedList<Integer>();
-		for (int j = 0; j < 5; j++) {
-			sizeTracker.add(0);
-		}
+		TopSizes sizeTracker = new TopSizes(top);
 
+		int components = 0;
 		while(itr.hasPrevious()) {
 			Integer vertex = itr.previous();
 			if (explored.contains(vertex)) {
@@ -121,26 +152,105 @@ public class Scc {
 			workstack.push(vertex);
 			explored.add(vertex);
 			dfsAlt(reversedGraph, scc);
-			//compare to sizes of top 5
-			for (int i = 0; i < 5; i++) {
-				if (scc.size() > sizeTracker.get(i)) {
-					sizeTracker.add(i, new Integer(scc.size()));
-					sizeTracker.remove(5);
-					break;
-				}
-			}
+			sizeTracker.add(scc.size());
 			scc = new ArrayList<Integer>();
+			components++;
 		}
-		for (int i = 0; i < 5; i++) {
-			System.out.println(sizeTracker.get(i));
-		}	
+		finish(timer, ordering.size(), ordering.size(), components);
+		report(sizeTracker);
 	}
 	
 	/**
-	 * Solves strongly connected component problem using a recursive approach when traversing nodes
-	 * Outputs the 5 largest SCCs to Standard output
+	 * Iterative two-pass solve on the int vertex graph using int arrays for the stacks and ordering
+	 * Outputs the largest SCCs to Standard output, 5 unless setTop was called
+	 */
+	private void solveIntGraph() {
+		int n = intGraph.vertexCount();
+		boolean[] visited = new boolean[n];
+		int[] ordering = new int[n];
+		int orderingSize = 0;
+		DepthFirstSearch search = new DepthFirstSearch(n);
+		
+		//first pass - finishing order on the original graph
+		Instrumentation.Timer timer = time(Instrumentation.Phase.SCC_FIRST_PASS);
+		NeighborCursor cursor = intGraph.cursor();
+		for (int i = max; i >= min; i--) {
+			if (visited[i])
+				continue;
+			orderingSize = search.run(cursor, i, visited, ordering, orderingSize);
+		}
+		
+		timer = next(timer, orderingSize, Instrumentation.Phase.SCC_REVERSE);
+		//second pass - each tree of the reversed graph in reverse finishing order is one scc
+		cursor = CsrGraph.transpose(intGraph).cursor();
+		timer = next(timer, intGraph.edgeCount(), Instrumentation.Phase.SCC_SECOND_PASS);
+		//vertices the first pass did not reach start out visited, so the second pass keeps to min..max
+		for (int v = 0; v < n; v++)
+			visited[v] = !visited[v];
+		int[] scc = new int[n];
+		TopSizes sizeTracker = new TopSizes(top);
+		componentIds = new int[n];
+		Arrays.fill(componentIds, -1);
+		componentSizes = new int[16];
+		int components = 0;
+		for (int i = orderingSize - 1; i >= 0; i--) {
+			int vertex = ordering[i];
+			if (visited[vertex])
+				continue;
+			int size = search.run(cursor, vertex, visited, scc, 0);
+			sizeTracker.add(size);
+			for (int j = 0; j < size; j++)
+				componentIds[scc[j]] = components;
+			if (components == componentSizes.length)
+				componentSizes = Arrays.copyOf(componentSizes, components * 2);
+			componentSizes[components++] = size;
+		}
+		componentSizes = Arrays.copyOf(componentSizes, components);
+		finish(timer, orderingSize, orderingSize, components);
+		report(sizeTracker);
+	}
+
+	/**
+	 * Keeps the largest sizes and prints them with one write
+	 * @param sizeTracker - sizes of every component found
+	 */
+	private void report(TopSizes sizeTracker) {
+		int[] largest = sizeTracker.sizes();
+		sizes = new ArrayList<Integer>(largest.length);
+		StringBuilder lines = new StringBuilder();
+		for (int size : largest) {
+			sizes.add(size);
+			lines.append(size).append(System.lineSeparator());
+		}
+		out.print(lines);
+		out.flush();
+	}
+
+	/**
+	 * @param graph - reversed graph
+	 * @param reached - vertices the first pass explored
+	 * @return the vertices of graph the first pass did not explore
+	 */
+	private static HashSet<Integer> unreached(Hashtable<Integer, List<Integer>> graph, Set<Integer> reached) {
+		HashSet<Integer> unreached = new HashSet<Integer>();
+		for (Integer vertex : graph.keySet()) {
+			if (!reached.contains(vertex))
+				unreached.add(vertex);
+		}
+		return unreached;
+	}
+	
+	/**
+	 * Solves strongly connected component problem using a recursive approach when traversing nodes.
+	 * An int vertex graph is always solved with the iterative int array passes of solveAlternate.
+	 * Outputs the largest SCCs to Standard output, 5 unless setTop was called
 	 */
 	public void solve() {
+		if (intGraph != null) {
+			solveIntGraph();
+			return;
+		}
+		Instrumentation.Timer timer = time(Instrumentation.Phase.SCC_FIRST_PASS);
 		//iterate through vertices. Arbitrarily choose the max index to start from.
 		for (int i = max; i >= min; i--) {
 			//check if it has been explored
@@ -149,21 +259,113 @@ public class Scc {
 			dfs(graph, i, ordering);
 		}
 		
+		timer = next(timer, ordering.size(), Instrumentation.Phase.SCC_REVERSE);
 		Hashtable<Integer, List<Integer>> reversedGraph = reverseGraph(graph);
+		timer = next(timer, reversedGraph.size(), Instrumentation.Phase.SCC_SECOND_PASS);
 		ListIterator<Integer> itr = ordering.listIterator(ordering.size());		
-		explored = new HashSet<Integer>(); 
+		explored = unreached(reversedGraph, explored);
+		TopSizes sizeTracker = new TopSizes(top);
+		int components = 0;
 		List<Integer> scc = new ArrayList<Integer>();
 		while(itr.hasPrevious()) {
 			Integer vertex = itr.previous();
 			if (explored.contains(vertex)) {
-				scc = new ArrayList<Integer>();
 				continue;
 			}
 			dfs(reversedGraph, vertex, scc);
-			System.out.println(scc);
+			sizeTracker.add(scc.size());
+			scc.clear();
+			components++;
 		}
+		finish(timer, ordering.size(), ordering.size(), components);
+		report(sizeTracker);
+	}
+
+	/**
+	 * @return a timer for the phase, null when instrumentation is disabled
+	 */
+	private static Instrumentation.Timer time(Instrumentation.Phase phase) {
+		return Instrumentation.ENABLED ? Instrumentation.start(phase) : null;
+	}
+
+	/**
+	 * Stops the timer of one phase and starts the next
+	 */
+	private static Instrumentation.Timer next(Instrumentation.Timer timer, long items, Instrumentation.Phase phase) {
+		if (!Instrumentation.ENABLED)
+			return null;
+		timer.stop(items);
+		return Instrumentation.start(phase);
+	}
+
+	/**
+	 * Stops the second pass timer and adds up the solve. Every dfs push visits one vertex, so the pushes are the
+	 * vertices visited by both passes.
+	 */
+	private static void finish(Instrumentation.Timer timer, long firstPassPushes, long secondPassPushes, long components) {
+		if (!Instrumentation.ENABLED)
+			return;
+		timer.stop(secondPassPushes);
+		Instrumentation.add(Instrumentation.Counter.SCC_SOLVES, 1);
+		Instrumentation.add(Instrumentation.Counter.SCC_DFS_PUSHES, firstPassPushes + secondPassPushes);
+		Instrumentation.add(Instrumentation.Counter.SCC_COMPONENTS, components);
+	}
+	
+	/**
+	 * @return the largest sizes found by the last solve in descending order, padded with zeros when there were fewer
+	 * components
+	 */
+	public List<Integer> getSizes() {
+		return sizes;
+	}
+
+	/**
+	 * @param k - number of largest sizes solves report, 5 by default
+	 */
+	public void setTop(int k) {
+		if (k < 0)
+			throw new IllegalArgumentException("Cannot report " + k + " sizes");
+		this.top = k;
+	}
+
+	/**
+	 * @return the components found by the last solveAlternate on an int vertex graph
+	 */
+	public Components getComponents() {
+		if (componentIds == null)
+			throw new IllegalStateException("Component ids are only kept when solving an int vertex graph");
+		return new Components(componentIds, componentSizes);
 	}
 	
+	/**
+	 * Component ids are numbered in the order the second pass finds them, which is a topological order of the
+	 * component graph
+	 * @param v
+	 * @return id of the component of v after solveAlternate on an int vertex graph, -1 if v is outside min..max
+	 */
+	public int getComponent(int v) {
+		if (componentIds == null)
+			throw new IllegalStateException("Component ids are only kept when solving an int vertex graph");
+		if (v < 0 || v >= componentIds.length)
+			return -1;
+		return componentIds[v];
+	}
+
+	/**
+	 * @param component id returned by getComponent
+	 * @return number of vertices in the component
+	 */
+	public int getComponentSize(int component) {
+		return componentSizes[component];
+	}
+
+	/**
+	 * @param out where solves print the component sizes, System.out by default
+	 */
+	public void setOutput(PrintStream out) {
+		this.out = out;
+	}
+
 	void printGraph(Map<Integer, List<Integer>> graph) {
 		Set<Integer> keys = graph.keySet();
 		for (Integer key : keys) {
@@ -171,19 +373,58 @@ public class Scc {
 		}
 	}
 	
+	/**
+	 * Reverses an adjacency list through the flat parallel transpose of the int graph code. The reversed lists are
+	 * read-only views over the transposed target array, so there is no list node or containsKey check per edge.
+	 * Vertices must not be negative.
+	 * @param graph
+	 * @return every vertex of graph and every edge target, mapped to the vertices with an edge to it
+	 */
 	private Hashtable<Integer, List<Integer>> reverseGraph(Hashtable<Integer, List<Integer>> graph) {
-		Hashtable<Integer, List<Integer>> reversedGraph = new Hashtable<Integer, List<Integer>>();
-		Set<Integer> keys = graph.keySet();
-		for (Integer key : keys) {
-			if (!reversedGraph.containsKey(key)) { //make sure key is in new graph
-				reversedGraph.put(key, new LinkedList<Integer>());
-			}
-			for (Integer edge : graph.get(key)) {
-				if (!reversedGraph.containsKey(edge))
-					reversedGraph.put(edge, new LinkedList<Integer>());
-				reversedGraph.get(edge).add(key);
-			}
+		int n = 0;
+		int m = 0;
+		for (Map.Entry<Integer, List<Integer>> entry : graph.entrySet()) {
+			n = Math.max(n, entry.getKey() + 1);
+			for (Integer edge : entry.getValue())
+				n = Math.max(n, edge + 1);
+			m += entry.getValue().size();
+		}
+		int[] offsets = new int[n + 1];
+		for (Map.Entry<Integer, List<Integer>> entry : graph.entrySet())
+			offsets[entry.getKey() + 1] = entry.getValue().size();
+		for (int v = 0; v < n; v++)
+			offsets[v + 1] += offsets[v];
+		int[] targets = new int[m];
+		for (Map.Entry<Integer, List<Integer>> entry : graph.entrySet()) {
+			int e = offsets[entry.getKey()];
+			for (Integer edge : entry.getValue())
+				targets[e++] = edge;
+		}
+		CsrGraph reversed = CsrGraph.transpose(new CsrGraph(offsets, targets, null));
+		int[] reverseOffsets = reversed.offsets();
+		int[] sources = reversed.targets();
+		Hashtable<Integer, List<Integer>> reversedGraph = new Hashtable<Integer, List<Integer>>(2 * graph.size());
+		for (int v = 0; v < n; v++) {
+			if (reverseOffsets[v + 1] > reverseOffsets[v] || graph.containsKey(v))
+				reversedGraph.put(v, inEdges(sources, reverseOffsets[v], reverseOffsets[v + 1]));
 		}
 		return reversedGraph;
 	}
+
+	/**
+	 * @return a read-only list of sources[from] ... sources[to - 1]
+	 */
+	private static List<Integer> inEdges(final int[] sources, final int from, final int to) {
+		return new AbstractList<Integer>() {
+			public Integer get(int i) {
+				if (i < 0 || i >= to - from)
+					throw new IndexOutOfBoundsException("Index: " + i);
+				return sources[from + i];
+			}
+
+			public int size() {
+				return to - from;
+			}
+		};
+	}
 }
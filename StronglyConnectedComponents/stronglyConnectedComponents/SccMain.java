@@ -1,59 +1,108 @@
 package stronglyConnectedComponents;
 
+import graph.Graph;
+import graph.GraphLoader;
+import graph.NeighborCursor;
+import graph.Relabeling;
+
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.ArrayList;
-import java.util.Hashtable;
-import java.util.List;
-import java.util.Scanner;
+import java.io.IOException;
 
 public class SccMain {
 	
-	static Scanner input;
-	static Hashtable<Integer, List<Integer>> graph;
 	static Scc solver;
 	static int min;
 	static int max;
 
 	/**
-	 * Solves the 5 largest strongly connected components in a directed graph represented by Integers
-	 * @param args 0 - File with each row representing an adjacency list with first Integer the vertex
-	 * 			   1 - minimum vertex
-	 * 			   2 - maximum vertex
+	 * Solves the largest strongly connected components in a directed graph represented by Integers
+	 * @param args 0 - File with each row representing an adjacency list with first Integer the vertex, or a binary graph file
+	 * 			   1 - minimum vertex, lowered to the smallest vertex with an edge
+	 * 			   2 - maximum vertex, raised to the largest vertex of the file
+	 * Run with -Dscc.engine=pearce to solve in a single pass without reversing the graph, or -Dscc.engine=parallel to
+	 * solve on all cores. -Dscc.top=k prints the k largest sizes instead of 5, and -Dscc.labels=file writes the
+	 * component id of every vertex to a binary label file (see ComponentLabels). Vertices without edges in or out are
+	 * ids the input does not use, like 0 in a file numbered from 1, and are left out with component -1
 	 */
 	public static void main(String[] args) {
 		String fileName = args[0];
-		graph = new Hashtable<Integer, List<Integer>>();
 		min = Integer.parseInt(args[1]);
 		max =  Integer.parseInt(args[2]);
-		loadGraph(fileName);
-		solver = new Scc(graph, min, max);
-		solver.solveAlternate();
-	}
-	
-	private static void loadGraph(String fileName) {
+		Graph intGraph;
+		try {
+			intGraph = GraphLoader.load(new File(fileName), false);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		//like the adjacency list loader, the roots always cover every vertex of the file
+		boolean[] used = usedVertices(intGraph);
+		min = Math.max(0, Math.min(min, firstUsed(used)));
+		max = Math.max(max, intGraph.vertexCount() - 1);
+		//the roots cover every used vertex, so the reordered graph is solved from all of its vertices
+		Relabeling relabeling = Relabeling.forProperty(intGraph);
+		if (relabeling != null) {
+			intGraph = relabeling.apply(intGraph);
+			min = 0;
+			max = intGraph.vertexCount() - 1;
+		}
+		String engine = System.getProperty("scc.engine", "kosaraju");
+		Components components;
+		if (engine.equals("pearce")) {
+			components = new PearceScc(intGraph).solve(min, max);
+		} else if (engine.equals("parallel")) {
+			components = new ParallelScc(intGraph).solve(min, max);
+		} else {
+			solver = new Scc(intGraph, min, max);
+			//the sizes are printed below, once the unused ids are dropped
+			solver.setTop(0);
+			solver.solveAlternate();
+			components = solver.getComponents();
+		}
+		if (relabeling != null)
+			components = new Components(relabeling.toOriginal(components.componentIds()), components.componentSizes());
+		components = components.restrict(used);
+		StringBuilder lines = new StringBuilder();
+		for (int size : components.topSizes(Integer.getInteger("scc.top", 5)))
+			lines.append(size).append(System.lineSeparator());
+		System.out.print(lines);
+		String labels = System.getProperty("scc.labels");
+		if (labels == null)
+			return;
 		try {
-			input = new Scanner(new File(fileName));
-		} catch (FileNotFoundException e) {
+			components.writeLabels(new File(labels));
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		while (input.hasNextLine()) {
-			String ln = input.nextLine();
-			String[] integers = ln.split("\\s+");
-			Integer vertex = Integer.parseInt(integers[0]);
-			if (vertex < min)
-				min = vertex;
-			if (vertex > max)
-				max = vertex;
-			if (!graph.containsKey(vertex))
-				graph.put(vertex, new ArrayList<Integer>());
-			for (int i = 1; i < integers.length; i++) {
-				Integer edge = Integer.parseInt(integers[i]);
-				graph.get(vertex).add(edge);
-				if (!graph.containsKey(edge)) {
-					graph.put(edge, new ArrayList<Integer>()); //ensures that vertices with no outgoing edges are included
-				}
+	}
+
+	/**
+	 * Text inputs number their vertices from 1 or leave ids out, and those ids are vertices without edges in the
+	 * graph; they are not reported as components
+	 * @param graph
+	 * @return true for every vertex with an edge in or out
+	 */
+	static boolean[] usedVertices(Graph graph) {
+		boolean[] used = new boolean[graph.vertexCount()];
+		NeighborCursor cursor = graph.cursor();
+		for (int v = 0; v < used.length; v++) {
+			cursor.reset(v);
+			while (cursor.next()) {
+				used[v] = true;
+				used[cursor.target()] = true;
 			}
 		}
+		return used;
+	}
+
+	/**
+	 * @param used - vertices with an edge
+	 * @return the smallest used vertex, the vertex count if there is none
+	 */
+	static int firstUsed(boolean[] used) {
+		int v = 0;
+		while (v < used.length && !used[v])
+			v++;
+		return v;
 	}
 }
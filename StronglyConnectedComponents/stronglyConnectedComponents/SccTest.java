@@ -0,0 +1,267 @@
+package stronglyConnectedComponents;
+
+import static org.junit.Assert.*;
+
+import graph.CsrGraph;
+import graph.Relabeling;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SccTest {
+
+	/**
+	 * Random directed graph with vertices 1..n and no edges at vertex 0, like the inputs
+	 */
+	static CsrGraph randomGraph(int n, int edges, long seed) {
+		CsrGraph.Builder builder = new CsrGraph.Builder(false);
+		Random r = new Random(seed);
+		builder.addVertex(n);
+		for (int i = 0; i < edges; i++)
+			builder.addEdge(1 + r.nextInt(n), 1 + r.nextInt(n));
+		return builder.build();
+	}
+
+	/**
+	 * Pairs of vertices on 2-cycles, with random edges from lower to higher pairs, so nothing can be trimmed and
+	 * every component has two vertices; more pairs than ParallelScc solves serially, so its coloring rounds run
+	 */
+	static CsrGraph pairGraph(int pairs, long seed) {
+		CsrGraph.Builder builder = new CsrGraph.Builder(false);
+		Random r = new Random(seed);
+		builder.addVertex(2 * pairs - 1);
+		for (int p = 0; p < pairs; p++) {
+			builder.addEdge(2 * p, 2 * p + 1);
+			builder.addEdge(2 * p + 1, 2 * p);
+			if (p + 1 < pairs) {
+				int q = p + 1 + r.nextInt(Math.min(pairs - p - 1, 8));
+				builder.addEdge(2 * p + r.nextInt(2), 2 * q + r.nextInt(2));
+			}
+		}
+		return builder.build();
+	}
+
+	static Components kosaraju(CsrGraph graph, int min, int max) {
+		Scc scc = new Scc(graph, min, max);
+		scc.setOutput(discard());
+		scc.solveAlternate();
+		return scc.getComponents();
+	}
+
+	static PrintStream discard() {
+		return new PrintStream(new OutputStream() {
+			public void write(int b) {
+			}
+		});
+	}
+
+	/**
+	 * Asserts both results put the same vertices together, leave the same vertices out and have the same sizes
+	 */
+	static void assertSameComponents(Components expected, Components actual, int n) {
+		assertEquals(expected.getComponentCount(), actual.getComponentCount());
+		Map<Integer, Integer> matching = new HashMap<Integer, Integer>();
+		for (int v = 0; v < n; v++) {
+			int e = expected.getComponent(v);
+			int a = actual.getComponent(v);
+			assertEquals("vertex " + v + " reached", e < 0, a < 0);
+			if (e < 0)
+				continue;
+			Integer matched = matching.put(e, a);
+			if (matched != null)
+				assertEquals("component of vertex " + v, (int) matched, a);
+			assertEquals(expected.getComponentSize(e), actual.getComponentSize(a));
+		}
+		int[] expectedSizes = expected.componentSizes().clone();
+		int[] actualSizes = actual.componentSizes().clone();
+		Arrays.sort(expectedSizes);
+		Arrays.sort(actualSizes);
+		assertArrayEquals(expectedSizes, actualSizes);
+	}
+
+	static void assertEnginesAgree(CsrGraph graph, int min, int max) {
+		int n = graph.vertexCount();
+		Components expected = kosaraju(graph, min, max);
+		assertSameComponents(expected, new PearceScc(graph).solve(min, max), n);
+		assertSameComponents(expected, new ParallelScc(graph, 1).solve(min, max), n);
+		assertSameComponents(expected, new ParallelScc(graph, 3).solve(min, max), n);
+	}
+
+	@Test
+	public void enginesAgreeOnRandomGraphs() {
+		for (int seed = 0; seed < 20; seed++) {
+			int n = 10 + 50 * seed;
+			assertEnginesAgree(randomGraph(n, n + seed * n / 10, seed), 1, n);
+		}
+		assertEnginesAgree(randomGraph(100000, 150000, 99), 1, 100000);
+	}
+
+	@Test
+	public void enginesAgreeOnTrivialComponents() {
+		//a dag: every vertex is a component of its own and trimming removes all of them
+		CsrGraph.Builder builder = new CsrGraph.Builder(false);
+		Random r = new Random(5);
+		builder.addVertex(2000);
+		for (int i = 0; i < 6000; i++) {
+			int u = 1 + r.nextInt(1999);
+			builder.addEdge(u, u + 1 + r.nextInt(2000 - u));
+		}
+		CsrGraph dag = builder.build();
+		assertEnginesAgree(dag, 1, 2000);
+		assertEquals(2000, new PearceScc(dag).solve(1, 2000).getComponentCount());
+
+		//self loops keep trivial components from being trimmed
+		builder = new CsrGraph.Builder(false);
+		builder.addVertex(10);
+		for (int v = 1; v <= 10; v++)
+			builder.addEdge(v, v);
+		builder.addEdge(1, 2);
+		builder.addEdge(2, 3);
+		builder.addEdge(3, 1);
+		CsrGraph loops = builder.build();
+		assertEnginesAgree(loops, 1, 10);
+		assertArrayEquals(new int[] { 3, 1, 1 }, new ParallelScc(loops, 2).solve(1, 10).topSizes(3));
+	}
+
+	@Test
+	public void enginesAgreeOnColoredPairs() {
+		CsrGraph pairs = pairGraph(40000, 3);
+		assertEnginesAgree(pairs, 0, pairs.vertexCount() - 1);
+		assertArrayEquals(new int[] { 2, 2 }, new ParallelScc(pairs, 2).solve().topSizes(2));
+	}
+
+	@Test
+	public void enginesHonorPartialRange() {
+		CsrGraph graph = randomGraph(5000, 6000, 17);
+		assertEnginesAgree(graph, 2500, 5000);
+		assertEnginesAgree(graph, 100, 200);
+		Components components = new PearceScc(graph).solve(2500, 5000);
+		//vertex 0 has no edges and is never a root
+		assertEquals(-1, components.getComponent(0));
+		int reached = 0;
+		for (int size : components.componentSizes())
+			reached += size;
+		assertTrue(reached >= 2501);
+	}
+
+	@Test
+	public void relabeledGraphKeepsComponents() {
+		CsrGraph graph = randomGraph(3000, 4000, 23);
+		int n = graph.vertexCount();
+		Components expected = kosaraju(graph, 0, n - 1);
+		for (Relabeling.Order order : Relabeling.Order.values()) {
+			Relabeling relabeling = Relabeling.of(graph, order);
+			CsrGraph relabeled = relabeling.rewrite(graph);
+			Components[] results = { kosaraju(relabeled, 0, n - 1), new PearceScc(relabeled).solve(),
+					new ParallelScc(relabeled, 2).solve() };
+			for (Components components : results) {
+				int[] original = relabeling.toOriginal(components.componentIds());
+				assertSameComponents(expected, new Components(original, components.componentSizes()), n);
+			}
+		}
+	}
+
+	@Test
+	public void kosarajuSecondPassKeepsToPartialRange() {
+		//1 and 2 are a cycle that 3 and 4 point into; roots 1..2 never reach 3 or 4, which the reversed graph does
+		int[][] edges = { { 1, 2 }, { 2, 1 }, { 3, 1 }, { 3, 4 }, { 4, 3 } };
+		Hashtable<Integer, List<Integer>> lists = new Hashtable<Integer, List<Integer>>();
+		CsrGraph.Builder builder = new CsrGraph.Builder(false);
+		for (int[] edge : edges) {
+			if (!lists.containsKey(edge[0]))
+				lists.put(edge[0], new ArrayList<Integer>());
+			lists.get(edge[0]).add(edge[1]);
+			builder.addEdge(edge[0], edge[1]);
+		}
+		CsrGraph graph = builder.build();
+		Scc iterative = new Scc(lists, 1, 2);
+		Scc recursive = new Scc(lists, 1, 2);
+		Scc intGraph = new Scc(graph, 1, 2);
+		for (Scc scc : new Scc[] { iterative, recursive, intGraph }) {
+			scc.setOutput(discard());
+			scc.setTop(3);
+		}
+		iterative.solveAlternate();
+		recursive.solve();
+		intGraph.solveAlternate();
+		List<Integer> expected = Arrays.asList(2, 0, 0);
+		assertEquals(expected, iterative.getSizes());
+		assertEquals(expected, recursive.getSizes());
+		assertEquals(expected, intGraph.getSizes());
+		assertEquals(-1, intGraph.getComponent(3));
+		assertEquals(-1, intGraph.getComponent(4));
+		assertEquals(1, intGraph.getComponents().getComponentCount());
+	}
+
+	@Test
+	public void recursiveSolveCountsEachComponentOnce() {
+		//a 3 cycle feeding a 2 cycle feeding two single vertices; a list carried from one component into the next
+		//would report 3, 5, 6, 7
+		int[][] edges = { { 1, 2 }, { 2, 3 }, { 3, 1 }, { 3, 4 }, { 4, 5 }, { 5, 4 }, { 5, 6 }, { 6, 7 } };
+		Hashtable<Integer, List<Integer>> lists = new Hashtable<Integer, List<Integer>>();
+		for (int[] edge : edges) {
+			if (!lists.containsKey(edge[0]))
+				lists.put(edge[0], new ArrayList<Integer>());
+			lists.get(edge[0]).add(edge[1]);
+		}
+		lists.put(7, new ArrayList<Integer>());	//the recursive search expects a list for every vertex, as the input file has
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		Scc recursive = new Scc(lists, 1, 7);
+		recursive.setOutput(new PrintStream(printed, true));
+		recursive.setTop(5);
+		recursive.solve();
+		assertEquals(Arrays.asList(3, 2, 1, 1, 0), recursive.getSizes());
+		assertEquals("3 2 1 1 0", printed.toString().trim().replaceAll("\\s+", " "));
+	}
+
+	@Test
+	public void rootsStartAtFirstVertexWithAnEdge() {
+		CsrGraph.Builder builder = new CsrGraph.Builder(false);
+		builder.addVertex(9);
+		builder.addEdge(7, 4);
+		builder.addEdge(5, 8);
+		assertEquals(4, SccMain.firstUsed(SccMain.usedVertices(builder.build())));
+		assertEquals(1, SccMain.firstUsed(SccMain.usedVertices(randomGraph(50, 200, 1))));
+		builder = new CsrGraph.Builder(false);
+		builder.addVertex(3);
+		assertEquals(4, SccMain.firstUsed(SccMain.usedVertices(builder.build())));
+	}
+
+	@Test
+	public void unusedIdsAreLeftOut() {
+		//numbered from 1 with a gap at 6, so 0 and 6 are slots without edges
+		CsrGraph.Builder builder = new CsrGraph.Builder(false);
+		builder.addEdge(1, 2);
+		builder.addEdge(2, 1);
+		builder.addEdge(2, 3);
+		builder.addEdge(3, 4);
+		builder.addEdge(4, 5);
+		builder.addEdge(5, 3);
+		builder.addEdge(7, 7);
+		CsrGraph graph = builder.build();
+		boolean[] used = SccMain.usedVertices(graph);
+		Components all = new PearceScc(graph).solve();
+		assertEquals(5, all.getComponentCount());
+		Components components = all.restrict(used);
+		assertEquals(3, components.getComponentCount());
+		assertArrayEquals(new int[] { 3, 2, 1, 0 }, components.topSizes(4));
+		assertEquals(-1, components.getComponent(0));
+		assertEquals(-1, components.getComponent(6));
+		assertEquals(components.getComponent(3), components.getComponent(5));
+		assertEquals(components.getComponent(1), components.getComponent(2));
+		for (int v = 1; v < graph.vertexCount(); v++) {
+			if (v != 6)
+				assertTrue(components.getComponent(v) >= 0 && components.getComponent(v) < 3);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package stronglyConnectedComponents;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the k largest of a stream of component sizes in a bounded min-heap, so adding a size that does not make the
+ * top k costs one comparison and adding any size costs at most log k swaps.
+ * @author sandasai
+ *
+ */
+class TopSizes {
+
+	private final int[] heap;	//heap[0] is the smallest size kept
+	private int size;
+
+	/**
+	 * @param k - number of sizes to keep, at least 0
+	 */
+	TopSizes(int k) {
+		if (k < 0)
+			throw new IllegalArgumentException("Cannot keep " + k + " sizes");
+		heap = new int[k];
+	}
+
+	/**
+	 * Offers the size of one component
+	 * @param value
+	 */
+	void add(int value) {
+		if (size < heap.length) {
+			int i = size++;
+			while (i > 0 && heap[(i - 1) >>> 1] > value) {
+				heap[i] = heap[(i - 1) >>> 1];
+				i = (i - 1) >>> 1;
+			}
+			heap[i] = value;
+			return;
+		}
+		if (size == 0 || value <= heap[0])
+			return;
+		//replace the smallest and sift down
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && heap[child + 1] < heap[child])
+				child++;
+			if (heap[child] >= value)
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = value;
+	}
+
+	/**
+	 * @return the k largest sizes offered in descending order, padded with zeros when fewer were offered
+	 */
+	int[] sizes() {
+		int[] sorted = Arrays.copyOf(heap, heap.length);
+		Arrays.sort(sorted, 0, size);
+		int[] descending = new int[heap.length];
+		for (int i = 0; i < size; i++)
+			descending[i] = sorted[size - 1 - i];
+		return descending;
+	}
+}